@@ -27,24 +27,23 @@
 
 package dev.vernite.vernite;
 
-import java.util.ArrayDeque;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import dev.vernite.vernite.common.ratelimit.RateLimit;
+import dev.vernite.vernite.common.ratelimit.RateLimitRoutes;
+import dev.vernite.vernite.common.ratelimit.RateLimitRoutes.Route;
+import dev.vernite.vernite.common.ratelimit.RateLimitStore;
+import dev.vernite.vernite.common.ratelimit.RateLimitStore.Result;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
 
 /**
  * Rate limit interceptor. Limits GET requests to 1000 per minute and
- * POST/PUT/DELETE to 100 per minute.
+ * POST/PUT/DELETE to 100 per minute. Routes annotated with {@link RateLimit}
+ * can cost more than one request and have their own budget.
  */
 @Component
 public class RateLimitInterceptor implements HandlerInterceptor {
@@ -53,10 +52,14 @@ public class RateLimitInterceptor implements HandlerInterceptor {
     private static final int READ_LIMIT = 1000;
     private static final int WRITE_LIMIT = 100;
 
-    private static final Map<Long, ArrayDeque<Long>> userReadLimit = new ConcurrentHashMap<>();
-    private static final Map<Long, ArrayDeque<Long>> userWriteLimit = new ConcurrentHashMap<>();
-    private static final Map<String, ArrayDeque<Long>> ipReadLimit = new ConcurrentHashMap<>();
-    private static final Map<String, ArrayDeque<Long>> ipWriteLimit = new ConcurrentHashMap<>();
+    private final RateLimitStore store;
+
+    private final RateLimitRoutes routes;
+
+    public RateLimitInterceptor(RateLimitStore store, RateLimitRoutes routes) {
+        this.store = store;
+        this.routes = routes;
+    }
 
     private static boolean isWriteMethod(String method) {
         switch (method) {
@@ -74,28 +77,17 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         }
     }
 
-    private static <T> int increment(T key, Map<T, ArrayDeque<Long>> map, long time, int maxSize)
-            throws TooManyRequestsException {
-        ArrayDeque<Long> deque = map.get(key);
-        if (deque == null) {
-            // do not add empty ArrayDeque to map - thread safety
-            deque = new ArrayDeque<>();
-            deque.addLast(time);
-            map.put(key, deque);
-            return maxSize - 1;
-        } else {
-            synchronized (deque) {
-                while (!deque.isEmpty() && time - deque.getFirst() > TIME_LIMIT) {
-                    deque.removeFirst();
-                }
-                if (deque.size() >= maxSize) {
-                    throw new TooManyRequestsException(TIME_LIMIT + deque.getFirst() - time);
-                }
-                deque.addLast(time);
-                map.putIfAbsent(key, deque);
-                return maxSize - deque.size();
-            }
+    private Result increment(String client, boolean writeMethod, Route route, long time) {
+        Result result = store.acquire(client + (writeMethod ? ":w" : ":r"), time,
+                writeMethod ? WRITE_LIMIT : READ_LIMIT, TIME_LIMIT, route.cost());
+        if (!result.allowed() || route.budget() <= 0) {
+            return result;
         }
+        Result routeResult = store.acquire(client + ":" + route.route(), time, route.budget(), TIME_LIMIT, 1);
+        if (!routeResult.allowed()) {
+            return routeResult;
+        }
+        return routeResult.remaining() < result.remaining() ? routeResult : result;
     }
 
     private static String getIP(HttpServletRequest request) {
@@ -111,62 +103,33 @@ public class RateLimitInterceptor implements HandlerInterceptor {
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
             throws Exception {
         boolean writeMethod = isWriteMethod(request.getMethod());
+        Route route = routes.get(handler);
         long now = System.currentTimeMillis();
-        try {
-            int remaining;
+        Result result;
+        long remaining;
 
-            if (request.getAttribute("ratelimit") != null) {
-                // after user resolver:
-                Long userID = (Long) request.getAttribute("userID");
-                if (userID == null) {
-                    return true;
-                }
-                remaining = writeMethod ? increment(userID, userWriteLimit, now, WRITE_LIMIT)
-                        : increment(userID, userReadLimit, now, READ_LIMIT);
-                remaining = Math.min((int) request.getAttribute("ratelimit"), remaining);
-            } else {
-                // before user resolver:
-                String ip = getIP(request);
-                remaining = writeMethod ? increment(ip, ipWriteLimit, now, WRITE_LIMIT)
-                        : increment(ip, ipReadLimit, now, READ_LIMIT);
-                request.setAttribute("ratelimit", remaining);
+        if (request.getAttribute("ratelimit") != null) {
+            // after user resolver:
+            Long userID = (Long) request.getAttribute("userID");
+            if (userID == null) {
+                return true;
             }
-            response.setHeader("X-Rate-Limit-Remaining", Integer.toString(remaining));
-            return true;
-        } catch (TooManyRequestsException e) {
+            result = increment("user:" + userID, writeMethod, route, now);
+            remaining = Math.min((long) request.getAttribute("ratelimit"), result.remaining());
+        } else {
+            // before user resolver:
+            result = increment("ip:" + getIP(request), writeMethod, route, now);
+            remaining = result.remaining();
+            request.setAttribute("ratelimit", remaining);
+        }
+        if (!result.allowed()) {
             // round up
-            long seconds = (e.retryAfter + 999L) / 1000L;
+            long seconds = (result.retryAfter() + 999L) / 1000L;
             response.setHeader("X-Rate-Limit-Retry-After-Seconds", Long.toString(seconds));
             response.sendError(429, "You have exhausted your API Request Quota");
             return false;
         }
-    }
-
-    private static <T> void clearMap(Map<T, ArrayDeque<Long>> map, long now) {
-        Iterator<ArrayDeque<Long>> it = map.values().iterator();
-        while (it.hasNext()) {
-            ArrayDeque<Long> deque = it.next();
-            while (!deque.isEmpty() && now - deque.getFirst() > TIME_LIMIT) {
-                deque.removeFirst();
-            }
-            if (deque.isEmpty()) {
-                it.remove();
-            }
-        }
-    }
-
-    @Scheduled(cron = "0 * * * * *")
-    public void cleanDeques() {
-        long now = System.currentTimeMillis();
-        clearMap(ipWriteLimit, now);
-        clearMap(ipReadLimit, now);
-        clearMap(userWriteLimit, now);
-        clearMap(userReadLimit, now);
-    }
-
-    @AllArgsConstructor
-    private static class TooManyRequestsException extends Exception {
-        @Getter
-        private long retryAfter;
+        response.setHeader("X-Rate-Limit-Remaining", Long.toString(remaining));
+        return true;
     }
 }
@@ -30,14 +30,18 @@ package dev.vernite.vernite;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.servlet.ServletComponentScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.servers.Server;
 
+import dev.vernite.vernite.utils.VerniteJpaRepository;
+
 @EnableScheduling
 @SpringBootApplication
 @ServletComponentScan
+@EnableJpaRepositories(repositoryBaseClass = VerniteJpaRepository.class)
 @OpenAPIDefinition(servers = @Server(url = "/api"))
 public class VerniteApplication {
 	public static void main(String[] args) {
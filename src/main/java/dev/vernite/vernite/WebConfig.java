@@ -63,6 +63,12 @@ public class WebConfig implements WebMvcConfigurer, WebSocketConfigurer {
     @Autowired
     private WebSocketInterceptor webSocketInterceptor;
 
+    @Autowired
+    private SocketHandler socketHandler;
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
     @Value("${vernite.rate-limit.enabled}")
     private Boolean rateLimitEnabled = true;
 
@@ -83,7 +89,7 @@ public class WebConfig implements WebMvcConfigurer, WebSocketConfigurer {
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         if (rateLimitEnabled) {
-            registry.addInterceptor(new RateLimitInterceptor());
+            registry.addInterceptor(rateLimitInterceptor);
         }
         var interceptor = new WebContentInterceptor();
         interceptor.addCacheMapping(CacheControl.maxAge(30, TimeUnit.SECONDS)
@@ -93,7 +99,7 @@ public class WebConfig implements WebMvcConfigurer, WebSocketConfigurer {
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(new SocketHandler(), "/ws")
+        registry.addHandler(socketHandler, "/ws")
                 .addInterceptors(webSocketInterceptor)
                 .setAllowedOrigins(
                         "http://localhost:4200", "https://insiders.vernite.dev",
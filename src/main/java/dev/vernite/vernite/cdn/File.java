@@ -13,9 +13,11 @@ import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Data
 @Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class File {
 
     @Id
@@ -32,12 +34,29 @@ public class File {
     @Column(nullable = false)
     private String contentType;
 
-    @Column(nullable = false)
+    /**
+     * Content of files uploaded before {@link FileStorage} was introduced.
+     * {@literal null} when content is kept in file storage.
+     */
     @JsonIgnore
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     private Blob file;
 
+    /**
+     * Hash of file this file was derived from; {@literal null} for uploaded
+     * files.
+     */
+    @JsonIgnore
+    private String source;
+
+    /**
+     * Variant of source file kept in this file, for example {@code 48.webp};
+     * {@literal null} for uploaded files.
+     */
+    @JsonIgnore
+    private String variant;
+
     public String getURL() {
         return "/api/cdn/" + hash;
     }
@@ -0,0 +1,142 @@
+package dev.vernite.vernite.cdn;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache of hot files keyed by hash. Files are immutable, so entries never need
+ * invalidation. Contents are kept in direct byte buffers outside of heap and
+ * the cache is bounded by total size of contents; only files not bigger than
+ * configured size are cached. Cached files are served without touching
+ * database or disk.
+ */
+@Component
+public class FileCache {
+
+    /**
+     * Cached file.
+     * 
+     * @param contentType content type of file
+     * @param uploaded    upload time in milliseconds
+     * @param content     read only direct buffer with content
+     */
+    public record CachedFile(String contentType, long uploaded, ByteBuffer content) {
+
+        /**
+         * Returns resource reading content of file.
+         * 
+         * @return resource
+         */
+        public Resource resource() {
+            return new ByteBufferResource(content);
+        }
+    }
+
+    private final Cache<String, CachedFile> cache;
+
+    private final long maxObjectSize;
+
+    public FileCache(@Value("${vernite.cdn.cache.max-size:67108864}") long maxSize,
+            @Value("${vernite.cdn.cache.max-object-size:1048576}") long maxObjectSize) {
+        this.maxObjectSize = maxObjectSize;
+        this.cache = Caffeine.newBuilder().maximumWeight(maxSize)
+                .weigher((String hash, CachedFile file) -> file.content().capacity()).recordStats().build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, "cdnFiles");
+        Gauge.builder("vernite.cdn.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Ratio of file requests served from cache").register(Metrics.globalRegistry);
+        Gauge.builder("vernite.cdn.cache.memory", cache, FileCache::memory).baseUnit("bytes")
+                .description("Off-heap memory used by cached file contents").register(Metrics.globalRegistry);
+    }
+
+    private static double memory(Cache<String, CachedFile> cache) {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    /**
+     * Returns cached file.
+     * 
+     * @param hash hash of file
+     * @return cached file; {@literal null} if file is not cached
+     */
+    public CachedFile get(String hash) {
+        return cache.getIfPresent(hash);
+    }
+
+    /**
+     * Returns cached file, loading it when missing. Concurrent loads of the same
+     * file are coalesced.
+     * 
+     * @param hash   hash of file
+     * @param loader function loading file
+     * @return cached file
+     */
+    public CachedFile get(String hash, Function<String, CachedFile> loader) {
+        return cache.get(hash, loader);
+    }
+
+    /**
+     * Checks whether file of given size can be cached.
+     * 
+     * @param size size of file in bytes
+     * @return {@literal true} if file is not too big
+     */
+    public boolean accepts(long size) {
+        return size <= maxObjectSize;
+    }
+
+    /**
+     * Creates cached file reading content from channel.
+     * 
+     * @param file    metadata of file
+     * @param size    size of content
+     * @param channel channel with content
+     * @return cached file
+     * @throws UncheckedIOException when content cannot be read
+     */
+    public static CachedFile read(File file, long size, ReadableByteChannel channel) {
+        ByteBuffer content = ByteBuffer.allocateDirect(Math.toIntExact(size));
+        try {
+            while (content.hasRemaining()) {
+                if (channel.read(content) < 0) {
+                    throw new EOFException("content of file " + file.getHash() + " is shorter than " + size);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new CachedFile(file.getContentType(), file.getUploaded().getTime(),
+                content.flip().asReadOnlyBuffer());
+    }
+
+    /**
+     * Returns number of cached files.
+     * 
+     * @return estimated number of files
+     */
+    long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Performs pending evictions.
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+}
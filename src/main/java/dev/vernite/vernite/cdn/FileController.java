@@ -1,64 +1,232 @@
 package dev.vernite.vernite.cdn;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.sql.Blob;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
 
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import dev.vernite.vernite.cdn.FileCache.CachedFile;
+import dev.vernite.vernite.common.profiling.QueryProfilerFilter;
 import dev.vernite.vernite.utils.ObjectNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 
 /**
- * Controller for file serving.
+ * Controller for file serving. Small files are served from {@link FileCache}
+ * without touching database or disk. Bigger files kept in local storage are
+ * sent by servlet container with sendfile when it is supported. Byte ranges
+ * (single and multiple) are supported for all files; as files are immutable,
+ * {@code If-Range} always matches. Smaller variants of images are served when
+ * size or format is requested; they are generated by
+ * {@link FileVariantService}.
  */
 @RestController
 @AllArgsConstructor
 @RequestMapping("/cdn")
 public class FileController {
 
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Minimal size of content sent with sendfile; smaller contents are cheaper to
+     * copy.
+     */
+    static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
     private FileRepository fileRepository;
 
+    private FileStorage fileStorage;
+
+    private FileCache fileCache;
+
+    private FileVariantService fileVariantService;
+
     /**
      * Returns file stored on the server.
      * 
-     * @param req  request
-     * @param hash hash of the file
+     * @param req    request
+     * @param hash   hash of the file
+     * @param size   width and height of requested image variant
+     * @param format format of requested image variant; only {@code webp} is
+     *               supported
      * @return file
+     * @throws IOException when stored file cannot be read
      */
     @GetMapping("/{hash}")
-    public ResponseEntity<StreamingResponseBody> getFile(NativeWebRequest req, @PathVariable String hash) {
-        File f = fileRepository.findByHash(hash);
-        if (f == null) {
-            throw new ObjectNotFoundException();
+    public ResponseEntity<Resource> getFile(ServletWebRequest req, @PathVariable String hash,
+            @RequestParam(required = false) Integer size, @RequestParam(required = false) String format)
+            throws IOException {
+        if (size != null || format != null) {
+            hash = fileVariantService.getVariant(hash, size, format);
         }
-        if (req.checkNotModified(f.getHash(), f.getUploaded().getTime())) {
+        CachedFile cached = fileCache.get(hash);
+        File f = null;
+        if (cached == null) {
+            f = fileRepository.findByHash(hash);
+            if (f == null) {
+                throw new ObjectNotFoundException();
+            }
+        }
+        long uploaded = cached != null ? cached.uploaded() : f.getUploaded().getTime();
+        if (req.checkNotModified(hash, uploaded)) {
             return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
         }
+        HttpServletRequest request = req.getRequest();
+        QueryProfilerFilter.disableBuffering(request);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CACHE_CONTROL, "public, max-age=604800, immutable");
+        headers.setContentType(MediaType.parseMediaType(cached != null ? cached.contentType() : f.getContentType()));
+        if (cached == null) {
+            cached = load(f);
+        }
+        if (cached != null) {
+            return ResponseEntity.ok().headers(headers).body(cached.resource());
+        }
+        if (f.getFile() != null) {
+            return ResponseEntity.ok().headers(headers).body(getDatabaseFile(f.getFile()));
+        }
+        Resource resource = fileStorage.resource(hash);
+        Optional<Path> path = fileStorage.localPath(hash);
+        if (path.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            ResourceRegion region = singleRegion(request.getHeader(HttpHeaders.RANGE), resource);
+            if (region != null && region.getCount() >= SENDFILE_MIN_SIZE) {
+                long start = region.getPosition();
+                long end = start + region.getCount();
+                request.setAttribute(SENDFILE_FILENAME, path.get().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end);
+                headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+                headers.setContentLength(region.getCount());
+                if (region.getCount() == resource.contentLength()) {
+                    return ResponseEntity.ok().headers(headers).build();
+                }
+                headers.set(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + start + "-" + (end - 1) + "/" + resource.contentLength());
+                return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).build();
+            }
+        }
+        return ResponseEntity.ok().headers(headers).body(resource);
+    }
+
+    /**
+     * Loads file into cache if it is small enough.
+     * 
+     * @param f file to load
+     * @return cached file; {@literal null} if file is too big to be cached
+     * @throws IOException when size of file cannot be read
+     */
+    private CachedFile load(File f) throws IOException {
+        Blob b = f.getFile();
+        try {
+            long length = b != null ? b.length() : fileStorage.size(f.getHash());
+            if (!fileCache.accepts(length)) {
+                return null;
+            }
+            if (b != null) {
+                return fileCache.get(f.getHash(), hash -> {
+                    try {
+                        return FileCache.read(f, length, Channels.newChannel(b.getBinaryStream()));
+                    } catch (SQLException e) {
+                        throw new UncheckedIOException(new IOException(e));
+                    }
+                });
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+        return fileCache.get(f.getHash(), hash -> {
+            try (ReadableByteChannel channel = fileStorage.open(hash)) {
+                return FileCache.read(f, fileStorage.size(hash), channel);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns resource streaming file kept in database. Content is read from
+     * blob on demand, so files of any size are sent without copying them into
+     * memory.
+     * 
+     * @param b blob with content
+     * @return resource
+     */
+    private static Resource getDatabaseFile(Blob b) {
         try {
-            Blob b = f.getFile();
-            long len = b.length();
-            InputStream is = b.getBinaryStream();
-            return ResponseEntity.ok()
-                    .contentLength(len)
-                    .header("Cache-Control", "public, max-age=604800, immutable")
-                    .contentType(MediaType.parseMediaType(f.getContentType()))
-                    .body(out -> {
-                        is.transferTo(out);
-                    });
+            long length = b.length();
+            return new AbstractResource() {
+                @Override
+                public String getDescription() {
+                    return "database file";
+                }
+
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    try {
+                        return b.getBinaryStream();
+                    } catch (SQLException e) {
+                        throw new IOException(e);
+                    }
+                }
+
+                @Override
+                public long contentLength() {
+                    return length;
+                }
+            };
         } catch (SQLException e) {
             e.printStackTrace();
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "sql error");
         }
     }
 
+    /**
+     * Returns region of content requested by range header, when it can be sent
+     * as one block.
+     * 
+     * @param range    value of range header; can be {@literal null}
+     * @param resource content
+     * @return whole content when there is no range, requested region when
+     *         there is one satisfiable range; {@literal null} otherwise
+     */
+    static ResourceRegion singleRegion(String range, Resource resource) throws IOException {
+        if (range == null) {
+            return new ResourceRegion(resource, 0, resource.contentLength());
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 ? ranges.get(0).toResourceRegion(resource) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
 }
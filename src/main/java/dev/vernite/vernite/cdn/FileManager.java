@@ -1,16 +1,20 @@
 package dev.vernite.vernite.cdn;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.sql.SQLException;
 import java.util.Date;
-import java.util.HexFormat;
-
-import javax.sql.rowset.serial.SerialBlob;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 @Service
 @Component
@@ -18,15 +22,43 @@ public class FileManager {
 
     @Autowired
     private FileRepository fileRepository;
-    
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Value("${vernite.cdn.max-upload-size:10485760}")
+    private long maxUploadSize;
+
     /**
-     * Saves a file to the database or returns the existing one.
+     * Saves a file to the storage or returns the existing one.
      * @param contentType
      * @param data
      * @return the file
      */
     public File uploadFile(String contentType, byte[] data) {
-        String hash = calculateHash(data);
+        return uploadFile(contentType, new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Saves a file to the storage or returns the existing one. Content is
+     * streamed to the storage while its hash is computed, so it is never kept in
+     * memory; files are deduplicated by hash after content is read.
+     * 
+     * @param contentType content type of file
+     * @param content     stream with content; it is read but not closed
+     * @return the file
+     * @throws ResponseStatusException when file is bigger than
+     *                                 {@code vernite.cdn.max-upload-size}
+     */
+    public File uploadFile(String contentType, InputStream content) {
+        String hash;
+        try {
+            hash = fileStorage.store(content, maxUploadSize);
+        } catch (FileTooLargeException e) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         File f = fileRepository.findByHash(hash);
         if (f != null) {
             return f;
@@ -35,22 +67,72 @@ public class FileManager {
         f.setContentType(contentType);
         f.setHash(hash);
         f.setUploaded(new Date());
-        try {
-            f.setFile(new SerialBlob(data));
-        } catch (SQLException e) {
-            // never happens
-        }
         f = fileRepository.save(f);
         return f;
     }
 
-    private static String calculateHash(byte[] data) {
+    /**
+     * Saves a file derived from another file or returns the existing one. When
+     * the same content was already saved as another file, that file is returned
+     * and the variant is not recorded.
+     * 
+     * @param contentType content type of derived file
+     * @param source      hash of source file
+     * @param variant     variant of source file
+     * @param data        content of derived file
+     * @return the file
+     */
+    public File uploadVariant(String contentType, String source, String variant, byte[] data) {
+        File f = fileRepository.findBySourceAndVariant(source, variant);
+        if (f != null) {
+            return f;
+        }
+        String hash;
+        try {
+            hash = fileStorage.store(new ByteArrayInputStream(data), Long.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        f = fileRepository.findByHash(hash);
+        if (f != null) {
+            return f;
+        }
+        f = new File();
+        f.setContentType(contentType);
+        f.setHash(hash);
+        f.setUploaded(new Date());
+        f.setSource(source);
+        f.setVariant(variant);
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            digest.update(data);
-            return HexFormat.of().formatHex(digest.digest());
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
+            return fileRepository.save(f);
+        } catch (DataIntegrityViolationException e) {
+            // saved concurrently
+            f = fileRepository.findBySourceAndVariant(source, variant);
+            return f != null ? f : fileRepository.findByHash(hash);
+        }
+    }
+
+    /**
+     * Moves content of file from database to file storage. Content is stored
+     * before it is removed from database, so interrupted move can be repeated.
+     * 
+     * @param id ID of file
+     * @return {@literal true} if content was moved
+     * @throws IOException when content cannot be stored
+     */
+    @Transactional
+    public boolean moveToStorage(long id) throws IOException {
+        File f = fileRepository.findById(id).orElse(null);
+        if (f == null || f.getFile() == null) {
+            return false;
+        }
+        try (InputStream content = f.getFile().getBinaryStream()) {
+            fileStorage.store(f.getHash(), content);
+        } catch (SQLException e) {
+            throw new IOException(e);
         }
+        f.setFile(null);
+        fileRepository.save(f);
+        return true;
     }
 }
@@ -0,0 +1,76 @@
+package dev.vernite.vernite.cdn;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Job moving contents of files from database to {@link FileStorage} in
+ * batches. Each file is moved in its own transaction, so long migration does
+ * not hold database locks. Files which fail to move are skipped and retried
+ * after all other files were processed.
+ */
+@Component
+public class FileMigrationJob {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileMigrationJob.class);
+
+    private final FileRepository fileRepository;
+
+    private final FileManager fileManager;
+
+    private final int batchSize;
+
+    private final boolean enabled;
+
+    private long lastId;
+
+    public FileMigrationJob(FileRepository fileRepository, FileManager fileManager,
+            @Value("${vernite.cdn.migration.batch-size:20}") int batchSize,
+            @Value("${vernite.cdn.migration.enabled:true}") boolean enabled) {
+        this.fileRepository = fileRepository;
+        this.fileManager = fileManager;
+        this.batchSize = batchSize;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Moves next batch of files.
+     * 
+     * @return number of moved files
+     */
+    @Scheduled(initialDelayString = "${vernite.cdn.migration.delay:60000}",
+            fixedDelayString = "${vernite.cdn.migration.delay:60000}")
+    public synchronized int migrate() {
+        if (!enabled) {
+            return 0;
+        }
+        List<Long> ids = fileRepository.findIdsWithDatabaseContent(lastId, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            lastId = 0;
+            return 0;
+        }
+        int moved = 0;
+        for (Long id : ids) {
+            lastId = id;
+            try {
+                if (fileManager.moveToStorage(id)) {
+                    moved++;
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Cannot move content of file {} to storage", id, e);
+            }
+        }
+        if (moved > 0) {
+            LOG.info("Moved content of {} files to storage", moved);
+        }
+        return moved;
+    }
+
+}
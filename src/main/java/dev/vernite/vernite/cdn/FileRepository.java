@@ -1,5 +1,9 @@
 package dev.vernite.vernite.cdn;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 /**
@@ -7,4 +11,23 @@ import org.springframework.data.repository.CrudRepository;
  */
 public interface FileRepository extends CrudRepository<File, Long> {
     File findByHash(String hash);
+
+    /**
+     * Finds file derived from another file.
+     * 
+     * @param source  hash of source file
+     * @param variant variant of source file
+     * @return derived file; {@literal null} if variant was not generated yet
+     */
+    File findBySourceAndVariant(String source, String variant);
+
+    /**
+     * Finds IDs of files with content still kept in database.
+     * 
+     * @param after    only IDs greater than this are returned
+     * @param pageable page of IDs
+     * @return IDs in ascending order
+     */
+    @Query("SELECT f.id FROM File f WHERE f.file IS NOT NULL AND f.id > ?1 ORDER BY f.id")
+    List<Long> findIdsWithDatabaseContent(long after, Pageable pageable);
 }
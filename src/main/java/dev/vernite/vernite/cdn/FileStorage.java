@@ -0,0 +1,116 @@
+package dev.vernite.vernite.cdn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * Content addressed storage of file contents. Contents are identified by
+ * lowercase hexadecimal SHA-256 hash of their bytes; metadata of files is kept
+ * in {@link File} entities.
+ */
+public interface FileStorage {
+
+    /**
+     * Checks whether content with given hash is stored.
+     * 
+     * @param hash hash of content
+     * @return {@literal true} if content is stored
+     */
+    boolean exists(String hash);
+
+    /**
+     * Stores content. Does nothing when content is already stored.
+     * 
+     * @param hash    hash of content
+     * @param content stream with content; it is read to the end but not closed
+     * @throws IOException when content cannot be stored or its hash does not
+     *                     match
+     */
+    void store(String hash, InputStream content) throws IOException;
+
+    /**
+     * Stores content with unknown hash. Hash is computed while content is
+     * streamed to temporary file, so content is never kept in memory. Does
+     * nothing more when content is already stored.
+     * 
+     * @param content stream with content; it is read but not closed
+     * @param maxSize maximal size of content in bytes
+     * @return hash of content
+     * @throws FileTooLargeException when content is bigger than maximal size
+     * @throws IOException           when content cannot be stored
+     */
+    String store(InputStream content, long maxSize) throws IOException;
+
+    /**
+     * Returns size of stored content.
+     * 
+     * @param hash hash of content
+     * @return size in bytes
+     * @throws IOException when content is not stored
+     */
+    long size(String hash) throws IOException;
+
+    /**
+     * Opens channel reading stored content. Channel is a
+     * {@link java.nio.channels.FileChannel} when content is kept in local
+     * file.
+     * 
+     * @param hash hash of content
+     * @return channel; must be closed by caller
+     * @throws IOException when content is not stored
+     */
+    ReadableByteChannel open(String hash) throws IOException;
+
+    /**
+     * Returns resource reading stored content.
+     * 
+     * @param hash hash of content
+     * @return resource
+     * @throws IOException when content is not stored
+     */
+    default Resource resource(String hash) throws IOException {
+        long size = size(hash);
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "stored content [" + hash + "]";
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return Channels.newInputStream(open(hash));
+            }
+
+            @Override
+            public long contentLength() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns local file with content, which can be sent with sendfile.
+     * 
+     * @param hash hash of content
+     * @return path of file; empty when content is not kept in local file
+     */
+    default Optional<Path> localPath(String hash) {
+        return Optional.empty();
+    }
+
+    /**
+     * Removes stored content. Does nothing when content is not stored.
+     * 
+     * @param hash hash of content
+     * @throws IOException when content cannot be removed
+     */
+    void delete(String hash) throws IOException;
+
+}
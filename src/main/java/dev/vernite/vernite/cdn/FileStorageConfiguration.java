@@ -0,0 +1,25 @@
+package dev.vernite.vernite.cdn;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of file storage. Storage is selected with
+ * {@code vernite.cdn.storage} property: {@code local} (default) keeps contents
+ * in directory set by {@code vernite.cdn.local.root}.
+ */
+@Configuration
+public class FileStorageConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "vernite.cdn.storage", havingValue = "local", matchIfMissing = true)
+    public FileStorage localFileStorage(@Value("${vernite.cdn.local.root:data/cdn}") Path root) throws IOException {
+        return new LocalFileStorage(root);
+    }
+
+}
@@ -0,0 +1,14 @@
+package dev.vernite.vernite.cdn;
+
+import java.io.IOException;
+
+/**
+ * Thrown when content being stored exceeds allowed size.
+ */
+public class FileTooLargeException extends IOException {
+
+    public FileTooLargeException(long maxSize) {
+        super("file is larger than " + maxSize + " bytes");
+    }
+
+}
@@ -0,0 +1,170 @@
+package dev.vernite.vernite.cdn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import dev.vernite.vernite.utils.ImageConverter;
+import dev.vernite.vernite.utils.ObjectNotFoundException;
+
+/**
+ * Service generating variants of images, like smaller avatars and logos.
+ * Variants are kept as {@link File} derived from source file. When first
+ * variant of image is requested, image is decoded once and all configured
+ * sizes are generated; concurrent requests for variants of the same image
+ * wait for that generation instead of starting their own.
+ */
+@Service
+public class FileVariantService {
+
+    /**
+     * Format of generated variants.
+     */
+    public static final String FORMAT = "webp";
+
+    private final FileRepository fileRepository;
+
+    private final FileStorage fileStorage;
+
+    private final FileManager fileManager;
+
+    private final ImageProcessingService imageProcessingService;
+
+    private final int[] sizes;
+
+    /**
+     * Hashes of generated variants by source hash and variant. Variants never
+     * change, so entries never need invalidation.
+     */
+    private final Cache<String, String> variants;
+
+    private final Map<String, CompletableFuture<Map<String, String>>> running = new ConcurrentHashMap<>();
+
+    public FileVariantService(FileRepository fileRepository, FileStorage fileStorage, FileManager fileManager,
+            ImageProcessingService imageProcessingService,
+            @Value("${vernite.cdn.variant.sizes:24,48,96,200,400}") int[] sizes,
+            @Value("${vernite.cdn.variant.cache-size:10000}") long cacheSize) {
+        this.fileRepository = fileRepository;
+        this.fileStorage = fileStorage;
+        this.fileManager = fileManager;
+        this.imageProcessingService = imageProcessingService;
+        this.sizes = sizes.clone();
+        this.variants = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * Returns hash of variant of image, generating variants when needed.
+     * 
+     * @param hash   hash of source image
+     * @param size   width and height of variant; {@link ImageConverter#SIZE} if
+     *               {@literal null}
+     * @param format format of variant; {@link #FORMAT} if {@literal null}
+     * @return hash of variant
+     * @throws ResponseStatusException when size or format is not supported or
+     *                                 file is not an image
+     * @throws ObjectNotFoundException when source file does not exist
+     */
+    public String getVariant(String hash, Integer size, String format) {
+        int dimension = size != null ? size : ImageConverter.SIZE;
+        if (Arrays.stream(sizes).noneMatch(s -> s == dimension)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unsupported size");
+        }
+        if (format != null && !FORMAT.equals(format.toLowerCase(Locale.ROOT))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unsupported format");
+        }
+        String variant = dimension + "." + FORMAT;
+        String key = hash + ":" + variant;
+        String cached = variants.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        File existing = fileRepository.findBySourceAndVariant(hash, variant);
+        if (existing != null) {
+            variants.put(key, existing.getHash());
+            return existing.getHash();
+        }
+        return generate(hash).get(variant);
+    }
+
+    /**
+     * Generates all variants of image. Concurrent calls for the same image are
+     * coalesced.
+     * 
+     * @param hash hash of source image
+     * @return hashes of variants by variant
+     */
+    private Map<String, String> generate(String hash) {
+        CompletableFuture<Map<String, String>> future = new CompletableFuture<>();
+        CompletableFuture<Map<String, String>> other = running.putIfAbsent(hash, future);
+        if (other != null) {
+            try {
+                return other.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            Map<String, String> result = doGenerate(hash);
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(hash, future);
+        }
+    }
+
+    private Map<String, String> doGenerate(String hash) {
+        File source = fileRepository.findByHash(hash);
+        if (source == null) {
+            throw new ObjectNotFoundException();
+        }
+        if (source.getSource() != null || !source.getContentType().startsWith("image/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "file is not an image");
+        }
+        String filename = "source." + MediaType.parseMediaType(source.getContentType()).getSubtype();
+        List<byte[]> images;
+        try {
+            Blob blob = source.getFile();
+            long length = blob != null ? blob.length() : fileStorage.size(hash);
+            try (InputStream in = blob != null ? blob.getBinaryStream() : fileStorage.resource(hash).getInputStream()) {
+                images = imageProcessingService.convert(filename, in, length, sizes);
+            }
+        } catch (SQLException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "sql error");
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cannot convert image");
+        }
+        Map<String, String> result = new HashMap<>();
+        for (int i = 0; i < sizes.length; i++) {
+            String variant = sizes[i] + "." + FORMAT;
+            File f = fileManager.uploadVariant("image/" + FORMAT, hash, variant, images.get(i));
+            variants.put(hash + ":" + variant, f.getHash());
+            result.put(variant, f.getHash());
+        }
+        return result;
+    }
+
+}
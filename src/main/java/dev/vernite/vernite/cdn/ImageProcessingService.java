@@ -0,0 +1,159 @@
+package dev.vernite.vernite.cdn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import dev.vernite.vernite.utils.ImageConverter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service converting images on fixed pool of workers. Decoding and encoding
+ * images takes a lot of CPU time and native memory, so only configured number
+ * of images is converted at once and only limited number of requests waits
+ * for a worker; other requests are rejected with {@code 503 Service
+ * Unavailable}. Each worker reuses its own {@link ImageConverter}.
+ */
+@Service
+public class ImageProcessingService {
+
+    /**
+     * Exception thrown when all workers are busy and queue is full.
+     */
+    public static class BusyException extends ResponseStatusException {
+
+        private final long retryAfter;
+
+        public BusyException(long retryAfter) {
+            super(HttpStatus.SERVICE_UNAVAILABLE, "too many images are being processed");
+            this.retryAfter = retryAfter;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            return headers;
+        }
+
+    }
+
+    private static final Timer QUEUE_TIMER = Timer.builder("vernite.image.queue.wait")
+            .description("Time images wait for a worker").register(Metrics.globalRegistry);
+
+    private static final Counter REJECTED = Counter.builder("vernite.image.rejected")
+            .description("Images rejected because queue was full").register(Metrics.globalRegistry);
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final ThreadLocal<ImageConverter> converter;
+
+    private final Queue<ImageConverter> converters = new ConcurrentLinkedQueue<>();
+
+    private final long retryAfter;
+
+    @Autowired
+    public ImageProcessingService(@Value("${vernite.image.threads:2}") int threads,
+            @Value("${vernite.image.queue-size:8}") int queueSize,
+            @Value("${vernite.image.retry-after:5}") long retryAfter) {
+        this.retryAfter = retryAfter;
+        this.converter = ThreadLocal.withInitial(() -> {
+            ImageConverter created = new ImageConverter();
+            converters.add(created);
+            return created;
+        });
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueSize);
+        executor.setThreadNamePrefix("image-");
+        executor.initialize();
+        Gauge.builder("vernite.image.queue.size", this, ImageProcessingService::queueSize)
+                .description("Images waiting for a worker").register(Metrics.globalRegistry);
+        Gauge.builder("vernite.image.native.memory", ImageConverter::nativeMemory).baseUnit("bytes")
+                .description("Native memory used by images being decoded").register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Returns number of images waiting for a worker.
+     * 
+     * @return size of queue
+     */
+    int queueSize() {
+        return executor.getThreadPoolExecutor().getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.getThreadPoolExecutor().shutdown();
+        try {
+            executor.getThreadPoolExecutor().awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ImageConverter c;
+        while ((c = converters.poll()) != null) {
+            c.close();
+        }
+    }
+
+    /**
+     * Converts image to square webp images. Calling thread waits until image is
+     * converted; input is read by worker.
+     * 
+     * @param filename name of input file
+     * @param in       stream with input
+     * @param size     size of input in bytes
+     * @param sizes    widths and heights of output images
+     * @return encoded images in order of sizes
+     * @throws IOException   when input cannot be read or converted
+     * @throws BusyException when queue is full
+     */
+    public List<byte[]> convert(String filename, InputStream in, long size, int... sizes) throws IOException {
+        long queued = System.nanoTime();
+        Future<List<byte[]>> result;
+        try {
+            result = executor.submit(() -> {
+                QUEUE_TIMER.record(System.nanoTime() - queued, TimeUnit.NANOSECONDS);
+                return converter.get().convert(filename, in, size, sizes);
+            });
+        } catch (TaskRejectedException e) {
+            REJECTED.increment();
+            throw new BusyException(retryAfter);
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusyException(retryAfter);
+        }
+    }
+
+}
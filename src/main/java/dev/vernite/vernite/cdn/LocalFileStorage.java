@@ -0,0 +1,173 @@
+package dev.vernite.vernite.cdn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * File storage keeping contents in local directory. Content with hash
+ * {@code abcdef...} is kept in {@code ab/cd/abcdef...}, so no directory holds
+ * more than few thousand files. Contents are written to temporary directory
+ * and atomically moved in place after their hash is verified, so readers never
+ * see partially written files. Contents with unknown hash are hashed while
+ * they are written, so uploads are deduplicated without buffering them in
+ * memory.
+ */
+public class LocalFileStorage implements FileStorage {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+
+    private final Path temp;
+
+    public LocalFileStorage(Path root) throws IOException {
+        this.root = root;
+        this.temp = root.resolve("tmp");
+        Files.createDirectories(temp);
+    }
+
+    /**
+     * Returns path of content.
+     * 
+     * @param hash hash of content
+     * @return path in storage directory
+     * @throws IllegalArgumentException when hash is not valid SHA-256 hash
+     */
+    Path resolve(String hash) {
+        if (!HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("invalid hash");
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.isRegularFile(resolve(hash));
+    }
+
+    @Override
+    public void store(String hash, InputStream content) throws IOException {
+        Path target = resolve(hash);
+        if (Files.isRegularFile(target)) {
+            content.transferTo(OutputStream.nullOutputStream());
+            return;
+        }
+        Path file = Files.createTempFile(temp, hash, null);
+        try {
+            if (!spool(content, file, Long.MAX_VALUE).equals(hash)) {
+                throw new IOException("content does not match hash " + hash);
+            }
+            move(file, target);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public String store(InputStream content, long maxSize) throws IOException {
+        Path file = Files.createTempFile(temp, "upload", null);
+        try {
+            String hash = spool(content, file, maxSize);
+            Path target = resolve(hash);
+            if (!Files.isRegularFile(target)) {
+                move(file, target);
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Writes content to temporary file computing its hash.
+     * 
+     * @param content stream with content
+     * @param file    temporary file
+     * @param maxSize maximal size of content
+     * @return hash of content
+     * @throws FileTooLargeException when content is bigger than maximal size
+     */
+    private static String spool(InputStream content, Path file, long maxSize) throws IOException {
+        MessageDigest digest = sha256();
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(file), digest)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while ((read = content.read(buffer)) >= 0) {
+                size += read;
+                if (size > maxSize) {
+                    throw new FileTooLargeException(maxSize);
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void move(Path file, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // stored concurrently
+        }
+    }
+
+    @Override
+    public long size(String hash) throws IOException {
+        return Files.size(resolve(hash));
+    }
+
+    @Override
+    public ReadableByteChannel open(String hash) throws IOException {
+        return FileChannel.open(resolve(hash));
+    }
+
+    @Override
+    public Resource resource(String hash) throws IOException {
+        Path path = resolve(hash);
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(hash);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public Optional<Path> localPath(String hash) {
+        Path path = resolve(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(resolve(hash));
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.migration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Applies versioned SQL migrations. Scripts are named
+ * {@code V<version>__<description>.sql}, use {@code ^;} as statement separator
+ * like {@code schema.sql} and are applied once, in version order. Migrations
+ * run after Hibernate updated the schema, so they can rely on tables created
+ * from entities. Applied versions are recorded in {@code schema_migration}
+ * table with checksum of the script; changing applied script stops the
+ * application. Concurrently starting instances are serialized with named
+ * database lock.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaMigrator implements InitializingBean {
+
+    private static final Logger L = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final Pattern NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private static final String SEPARATOR = "^;";
+
+    private static final String LOCK = "vernite_schema_migration";
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS `schema_migration` (
+                `version` int NOT NULL,
+                `description` varchar(200) NOT NULL,
+                `checksum` bigint NOT NULL,
+                `installed_on` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                `execution_time` int NOT NULL,
+                PRIMARY KEY (`version`)
+            )""";
+
+    /**
+     * Migration script found on classpath.
+     * 
+     * @param version     version of migration
+     * @param description description from file name
+     * @param resource    script resource
+     * @param checksum    CRC32 of script content
+     */
+    record Migration(int version, String description, Resource resource, long checksum) {
+    }
+
+    private final DataSource dataSource;
+
+    private final ResourcePatternResolver resolver;
+
+    private final String location;
+
+    public SchemaMigrator(DataSource dataSource, ResourcePatternResolver resolver,
+            @Value("${vernite.migration.location:classpath:db/migration/}") String location) {
+        this.dataSource = dataSource;
+        this.resolver = resolver;
+        this.location = location.endsWith("/") ? location : location + "/";
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException, IOException {
+        migrate();
+    }
+
+    /**
+     * Applies pending migrations.
+     * 
+     * @return versions of applied migrations
+     * @throws IllegalStateException when applied migration was changed or lock
+     *                               cannot be acquired
+     */
+    public List<Integer> migrate() throws SQLException, IOException {
+        List<Migration> migrations = load();
+        List<Integer> applied = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            Integer locked = jdbc.queryForObject("SELECT GET_LOCK(?, 60)", Integer.class, LOCK);
+            if (locked == null || locked != 1) {
+                throw new IllegalStateException("cannot acquire schema migration lock");
+            }
+            try {
+                jdbc.execute(CREATE_TABLE);
+                Map<Integer, Long> installed = new HashMap<>();
+                jdbc.query("SELECT `version`, `checksum` FROM `schema_migration`", row -> {
+                    installed.put(row.getInt(1), row.getLong(2));
+                });
+                for (Migration migration : migrations) {
+                    Long checksum = installed.get(migration.version());
+                    if (checksum == null) {
+                        apply(connection, jdbc, migration);
+                        applied.add(migration.version());
+                    } else if (checksum != migration.checksum()) {
+                        throw new IllegalStateException("applied migration " + migration.resource().getFilename()
+                                + " was changed");
+                    }
+                }
+            } finally {
+                jdbc.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK);
+            }
+        }
+        return applied;
+    }
+
+    private void apply(Connection connection, JdbcTemplate jdbc, Migration migration) {
+        L.info("Applying schema migration {}", migration.resource().getFilename());
+        long start = System.currentTimeMillis();
+        ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.resource(), StandardCharsets.UTF_8),
+                false, false, ScriptUtils.DEFAULT_COMMENT_PREFIXES, SEPARATOR,
+                ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER, ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER);
+        jdbc.update("INSERT INTO `schema_migration` (`version`, `description`, `checksum`, `execution_time`) "
+                + "VALUES (?, ?, ?, ?)", migration.version(), migration.description(), migration.checksum(),
+                (int) (System.currentTimeMillis() - start));
+    }
+
+    /**
+     * Finds migration scripts in configured location.
+     * 
+     * @return migrations ordered by version
+     * @throws IllegalStateException when two scripts have the same version
+     */
+    List<Migration> load() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : resolver.getResources(location + "*.sql")) {
+            Matcher matcher = NAME.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                L.warn("Ignoring migration with invalid name {}", resource.getFilename());
+                continue;
+            }
+            CRC32 crc = new CRC32();
+            try (var input = resource.getInputStream()) {
+                crc.update(StreamUtils.copyToByteArray(input));
+            }
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                    resource, crc.getValue()));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                throw new IllegalStateException("duplicate migration version " + migrations.get(i).version());
+            }
+        }
+        return migrations;
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.profiling;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Statistics of SQL statements executed while handling one HTTP request or
+ * WebSocket packet. Instance is used by one thread at a time.
+ */
+public class QueryProfile {
+
+    private static final Pattern JOIN = Pattern.compile("\\bjoin\\b", Pattern.CASE_INSENSITIVE);
+
+    private int statements;
+
+    private int maxJoins;
+
+    private long jdbcNanos;
+
+    private long executionStart;
+
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    void statement(String sql) {
+        statements++;
+        String shape = QueryProfiler.shape(sql);
+        shapes.merge(shape, 1, Integer::sum);
+        maxJoins = Math.max(maxJoins, (int) JOIN.matcher(shape).results().count());
+    }
+
+    void executionStart() {
+        executionStart = System.nanoTime();
+    }
+
+    void executionEnd() {
+        if (executionStart != 0) {
+            jdbcNanos += System.nanoTime() - executionStart;
+            executionStart = 0;
+        }
+    }
+
+    /**
+     * Adds statistics recorded by other thread, for example by a task the
+     * request was waiting for. Other profile must not be used concurrently.
+     * 
+     * @param other must not be {@literal null}
+     */
+    public void add(QueryProfile other) {
+        statements += other.statements;
+        jdbcNanos += other.jdbcNanos;
+        maxJoins = Math.max(maxJoins, other.maxJoins);
+        other.shapes.forEach((shape, count) -> shapes.merge(shape, count, Integer::sum));
+    }
+
+    /**
+     * Returns number of prepared SQL statements.
+     * 
+     * @return number of statements
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Returns total time spent in JDBC executions.
+     * 
+     * @return time in nanoseconds
+     */
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    /**
+     * Returns the highest number of joins in a single statement.
+     * 
+     * @return number of joins; {@literal 0} if there were no statements
+     */
+    public int getMaxJoins() {
+        return maxJoins;
+    }
+
+    /**
+     * Returns number of executions of the most repeated query shape.
+     * 
+     * @return number of repeats; {@literal 0} if there were no statements
+     */
+    public int getMaxRepeats() {
+        return shapes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    /**
+     * Returns the most repeated query shape.
+     * 
+     * @return query shape; {@literal null} if there were no statements
+     */
+    public String getMostRepeated() {
+        return shapes.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.profiling;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Settings of SQL statement profiler and reporting of finished profiles.
+ * Profiling is enabled with {@code vernite.query-profiler.enabled} property of
+ * application context and is meant for development and tests.
+ */
+@Component
+public class QueryProfileReporter {
+
+    private static final Logger L = LoggerFactory.getLogger(QueryProfileReporter.class);
+
+    private final boolean enabled;
+
+    private final int repeatThreshold;
+
+    @Autowired
+    public QueryProfileReporter(@Value("${vernite.query-profiler.enabled:false}") boolean enabled,
+            @Value("${vernite.query-profiler.repeat-threshold:10}") int repeatThreshold) {
+        this.enabled = enabled;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    /**
+     * Checks whether profiling is enabled.
+     * 
+     * @return {@literal true} if profiling is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records finished profile in metrics and logs possible N+1 problems.
+     * 
+     * @param kind    kind of profiled unit, {@code request} or {@code packet}
+     * @param name    name of profiled unit, like route or packet type
+     * @param profile finished profile
+     */
+    public void report(String kind, String name, QueryProfile profile) {
+        DistributionSummary.builder("vernite." + kind + ".queries").tag("name", name)
+                .register(Metrics.globalRegistry).record(profile.getStatements());
+        Timer.builder("vernite." + kind + ".jdbc").tag("name", name).register(Metrics.globalRegistry)
+                .record(profile.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        if (profile.getMaxRepeats() >= repeatThreshold) {
+            L.warn("Possible N+1 in {} {}: {} statements, {} times: {}", kind, name, profile.getStatements(),
+                    profile.getMaxRepeats(), profile.getMostRepeated());
+        }
+    }
+
+}
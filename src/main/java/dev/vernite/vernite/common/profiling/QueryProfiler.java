@@ -0,0 +1,94 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.profiling;
+
+import java.util.regex.Pattern;
+
+/**
+ * Per-thread SQL statement profiler. Statements are recorded by
+ * {@link ProfilingStatementInspector} and {@link ProfilingSessionListener}
+ * into profile of current thread, if there is one. Whether profiling is
+ * enabled and how profiles are reported is decided by
+ * {@link QueryProfileReporter}.
+ */
+public final class QueryProfiler {
+
+    private static final ThreadLocal<QueryProfile> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+
+    private static final Pattern LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private QueryProfiler() {
+    }
+
+    /**
+     * Starts recording statements of current thread into given profile.
+     * 
+     * @param profile profile to record into
+     */
+    public static void resume(QueryProfile profile) {
+        CURRENT.set(profile);
+    }
+
+    /**
+     * Stops recording statements of current thread.
+     * 
+     * @return profile statements were recorded into; can be {@literal null}
+     */
+    public static QueryProfile stop() {
+        QueryProfile profile = CURRENT.get();
+        CURRENT.remove();
+        return profile;
+    }
+
+    /**
+     * Returns profile statements of current thread are recorded into.
+     * 
+     * @return current profile; {@literal null} when statements are not recorded
+     */
+    public static QueryProfile current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns shape of SQL statement: statement with literals and parameter lists
+     * replaced, so statements differing only in values have the same shape.
+     * 
+     * @param sql SQL statement
+     * @return shape of statement
+     */
+    public static String shape(String sql) {
+        String shape = STRING.matcher(sql).replaceAll("?");
+        shape = NUMBER.matcher(shape).replaceAll("?");
+        return LIST.matcher(shape).replaceAll("(?)");
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.profiling;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filter profiling SQL statements of HTTP requests. Response body is buffered,
+ * so statements run during serialization are counted before statistics are
+ * added as response headers. Handlers streaming large bodies can disable
+ * buffering with {@link #disableBuffering(HttpServletRequest)}; statistics of
+ * such requests are only reported, not added as headers.
+ */
+public class QueryProfilerFilter extends OncePerRequestFilter {
+
+    /**
+     * Header with number of SQL statements.
+     */
+    public static final String COUNT_HEADER = "X-Query-Count";
+
+    /**
+     * Header with total JDBC execution time in milliseconds.
+     */
+    public static final String TIME_HEADER = "X-Query-Time";
+
+    /**
+     * Header with number of executions of the most repeated query shape.
+     */
+    public static final String REPEATS_HEADER = "X-Query-Repeats";
+
+    private static final String PROFILE_ATTRIBUTE = QueryProfilerFilter.class.getName() + ".profile";
+
+    private static final String UNBUFFERED_ATTRIBUTE = QueryProfilerFilter.class.getName() + ".unbuffered";
+
+    private final QueryProfileReporter reporter;
+
+    public QueryProfilerFilter(QueryProfileReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    /**
+     * Response wrapper buffering body until buffering is disabled for request.
+     */
+    private static class ProfiledResponse extends ContentCachingResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        ProfiledResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return isBuffered(request) ? super.getOutputStream() : getResponse().getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return isBuffered(request) ? super.getWriter() : getResponse().getWriter();
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (isBuffered(request)) {
+                super.setContentLengthLong(len);
+            } else {
+                getResponse().setContentLengthLong(len);
+            }
+        }
+
+    }
+
+    /**
+     * Disables buffering of response body of request. Body written after this
+     * call is sent directly to client. Must be called before body is written.
+     * 
+     * @param request current request
+     */
+    public static void disableBuffering(HttpServletRequest request) {
+        request.setAttribute(UNBUFFERED_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    private static boolean isBuffered(HttpServletRequest request) {
+        return request.getAttribute(UNBUFFERED_ATTRIBUTE) == null;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response,
+                ContentCachingResponseWrapper.class);
+        if (wrapper == null) {
+            wrapper = new ProfiledResponse(request, response);
+        }
+        QueryProfile profile = (QueryProfile) request.getAttribute(PROFILE_ATTRIBUTE);
+        if (profile == null) {
+            profile = new QueryProfile();
+            request.setAttribute(PROFILE_ATTRIBUTE, profile);
+        }
+        QueryProfiler.resume(profile);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            QueryProfiler.stop();
+        }
+        if (isAsyncStarted(request)) {
+            return;
+        }
+        if (isBuffered(request)) {
+            wrapper.setHeader(COUNT_HEADER, Integer.toString(profile.getStatements()));
+            wrapper.setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", profile.getJdbcNanos() / 1e6));
+            wrapper.setHeader(REPEATS_HEADER, Integer.toString(profile.getMaxRepeats()));
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        reporter.report("request", request.getMethod() + " " + (pattern == null ? "UNKNOWN" : pattern),
+                profile);
+        wrapper.copyBodyToResponse();
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Rate limiter using generic cell rate algorithm. State of each key is single
+ * theoretical arrival time updated with compare-and-set, so there are no locks
+ * on request path. Keys are kept in size-bounded map and expire once they are
+ * not used for longer than their period; at that point their state is the same
+ * as for new key, so expiry does not lose information. State is local to
+ * application instance.
+ */
+public class GcraRateLimiter implements RateLimitStore {
+
+    private static final Function<String, AtomicLong> NEW_BUCKET = key -> new AtomicLong();
+
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * Creates a new rate limiter.
+     * 
+     * @param maximumSize maximum number of tracked keys
+     * @param maxPeriod   longest period of limits used with this limiter
+     */
+    public GcraRateLimiter(long maximumSize, Duration maxPeriod) {
+        this.buckets = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterAccess(maxPeriod).build();
+    }
+
+    @Override
+    public Result acquire(String key, long now, long limit, long period, long cost) {
+        long periodMicros = period * 1000;
+        long interval = Math.max(1, periodMicros / limit);
+        long increment = interval * cost;
+        long nowMicros = now * 1000;
+        AtomicLong tat = buckets.get(key, NEW_BUCKET);
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, nowMicros) + increment;
+            long over = next - nowMicros - periodMicros;
+            if (over > 0) {
+                return new Result(false, 0, (over + 999) / 1000);
+            }
+            if (tat.compareAndSet(current, next)) {
+                return new Result(true, (periodMicros - (next - nowMicros)) / interval, 0);
+            }
+        }
+    }
+
+    /**
+     * Returns approximate number of tracked keys.
+     * 
+     * @return number of keys
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Rate limit store shared between application instances through database.
+ * Uses fixed window counters. Requests are counted locally and local counts are
+ * periodically added to database in one batch, reading back totals from all
+ * instances. Limits are therefore sloppy: instances can together exceed limit
+ * by what they admit during one sync interval, and client can use up to twice
+ * the limit around window boundary.
+ */
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger L = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+    private static final String UPSERT = "INSERT INTO `rate_limit_counter` (`rl_key`, `window_start`, `hits`) "
+            + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE `hits` = `hits` + VALUES(`hits`)";
+
+    private static final String SELECT = "SELECT `rl_key`, `window_start`, `hits` FROM `rate_limit_counter` "
+            + "WHERE (`rl_key`, `window_start`) IN ";
+
+    private static final int SELECT_CHUNK = 500;
+
+    private static final int MAX_KEY_LENGTH = 191;
+
+    private static class Counter {
+
+        private final String key;
+
+        private final long window;
+
+        /**
+         * Hits admitted by this instance and not yet sent to database.
+         */
+        private final AtomicLong local = new AtomicLong();
+
+        /**
+         * Hits being sent to database.
+         */
+        private final AtomicLong inFlight = new AtomicLong();
+
+        /**
+         * Hits stored in database during last sync.
+         */
+        private volatile long shared = 0;
+
+        private Counter(String key, long window) {
+            this.key = key;
+            this.window = window;
+        }
+
+        private long used() {
+            return shared + inFlight.get() + local.get();
+        }
+
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Cache<String, Counter> counters;
+
+    /**
+     * Creates a new store.
+     * 
+     * @param jdbcTemplate template for application database
+     * @param maximumSize  maximum number of tracked keys
+     * @param maxPeriod    longest period of limits used with this store
+     */
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate, long maximumSize, Duration maxPeriod) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.counters = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterAccess(maxPeriod).build();
+    }
+
+    @Override
+    public Result acquire(String key, long now, long limit, long period, long cost) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+        long window = now - now % period;
+        String counterKey = key;
+        Counter counter = counters.get(key + '@' + window, k -> new Counter(counterKey, window));
+        while (true) {
+            long local = counter.local.get();
+            long used = counter.shared + counter.inFlight.get() + local;
+            if (used + cost > limit) {
+                return new Result(false, Math.max(0, limit - used), window + period - now);
+            }
+            if (counter.local.compareAndSet(local, local + cost)) {
+                return new Result(true, Math.max(0, limit - used - cost), 0);
+            }
+        }
+    }
+
+    /**
+     * Sends local counts to database and reads back totals of all instances.
+     */
+    @Scheduled(fixedDelayString = "${vernite.rate-limit.sync-interval:1000}")
+    public void sync() {
+        List<Counter> dirty = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        for (Counter counter : counters.asMap().values()) {
+            long hits = counter.local.getAndSet(0);
+            if (hits > 0) {
+                counter.inFlight.addAndGet(hits);
+                dirty.add(counter);
+                batch.add(new Object[] { counter.key, counter.window, hits });
+            }
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT, batch);
+        } catch (DataAccessException e) {
+            L.warn("Cannot sync rate limit counters: {}", e.getMessage());
+            for (int i = 0; i < dirty.size(); i++) {
+                long hits = (long) batch.get(i)[2];
+                dirty.get(i).inFlight.addAndGet(-hits);
+                dirty.get(i).local.addAndGet(hits);
+            }
+            return;
+        }
+        Map<String, Long> totals = new HashMap<>();
+        try {
+            for (int i = 0; i < dirty.size(); i += SELECT_CHUNK) {
+                totals.putAll(select(dirty.subList(i, Math.min(dirty.size(), i + SELECT_CHUNK))));
+            }
+        } catch (DataAccessException e) {
+            L.warn("Cannot read rate limit counters: {}", e.getMessage());
+        }
+        for (int i = 0; i < dirty.size(); i++) {
+            Counter counter = dirty.get(i);
+            long hits = (long) batch.get(i)[2];
+            Long total = totals.get(counter.key + '@' + counter.window);
+            counter.shared = total != null ? Math.max(total, counter.shared + hits) : counter.shared + hits;
+            counter.inFlight.addAndGet(-hits);
+        }
+    }
+
+    private Map<String, Long> select(List<Counter> chunk) {
+        StringBuilder sql = new StringBuilder(SELECT).append('(');
+        List<Object> args = new ArrayList<>(chunk.size() * 2);
+        for (Counter counter : chunk) {
+            sql.append(args.isEmpty() ? "(?, ?)" : ", (?, ?)");
+            args.add(counter.key);
+            args.add(counter.window);
+        }
+        sql.append(')');
+        Map<String, Long> result = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            result.put(rs.getString(1) + '@' + rs.getLong(2), rs.getLong(3));
+        }, args.toArray());
+        return Collections.unmodifiableMap(result);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sync();
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.ratelimit;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * Lookup table of rate limits declared with {@link RateLimit}. Built once
+ * handler mappings are ready, so request path only does a map lookup.
+ */
+@Component
+public class RateLimitRoutes {
+
+    /**
+     * Rate limit of route.
+     * 
+     * @param route  name of route used as part of rate limit key
+     * @param cost   cost of request in general quota
+     * @param budget maximum number of requests to route per minute; zero if
+     *               unlimited
+     */
+    public record Route(String route, int cost, int budget) {
+    }
+
+    private static final Route DEFAULT = new Route(null, 1, 0);
+
+    private volatile Map<Method, Route> routes = Map.of();
+
+    @EventListener
+    public void onRefresh(ContextRefreshedEvent event) {
+        ApplicationContext context = event.getApplicationContext();
+        Map<Method, Route> result = new HashMap<>();
+        for (RequestMappingHandlerMapping mapping : context.getBeansOfType(RequestMappingHandlerMapping.class)
+                .values()) {
+            for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : mapping.getHandlerMethods().entrySet()) {
+                Method method = entry.getValue().getMethod();
+                RateLimit limit = AnnotatedElementUtils.findMergedAnnotation(method, RateLimit.class);
+                if (limit != null) {
+                    result.put(method, new Route(entry.getKey().toString(), limit.cost(), limit.budget()));
+                }
+            }
+        }
+        routes = Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Finds rate limit of handler.
+     * 
+     * @param handler handler of request
+     * @return rate limit of route; default limit if handler is not annotated
+     */
+    public Route get(Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            return routes.getOrDefault(method.getMethod(), DEFAULT);
+        }
+        return DEFAULT;
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.ratelimit;
+
+/**
+ * Storage of rate limit state. Implementations decide whether limits are kept
+ * per instance or shared between instances of application.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Result of acquiring permits.
+     * 
+     * @param allowed    whether request is allowed
+     * @param remaining  number of requests with cost of one which would be allowed
+     *                   right now
+     * @param retryAfter milliseconds to wait before request would be allowed; zero
+     *                   if request is allowed
+     */
+    record Result(boolean allowed, long remaining, long retryAfter) {
+    }
+
+    /**
+     * Tries to acquire permits for key.
+     * 
+     * @param key    key of limited client
+     * @param now    current time in milliseconds
+     * @param limit  number of permits available per period
+     * @param period period in milliseconds
+     * @param cost   number of permits needed by request
+     * @return result of acquiring
+     */
+    Result acquire(String key, long now, long limit, long period, long cost);
+
+}
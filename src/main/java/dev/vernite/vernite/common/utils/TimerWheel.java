@@ -0,0 +1,119 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel. Items are put into slots of circular wheel according to
+ * their deadline, so scheduling and expiring are constant time regardless of
+ * number of pending items. Wheel does not read clock; {@link #advance(Consumer)}
+ * must be called once per tick. Its internal state is thread-safe.
+ * 
+ * @param <T> type of scheduled items
+ */
+public class TimerWheel<T> {
+
+    private static record Timeout<T>(T item, long deadline) {
+    }
+
+    private final List<List<Timeout<T>>> slots;
+
+    private final long tickMillis;
+
+    private long tick = 0;
+
+    private int size = 0;
+
+    /**
+     * Creates a new timer wheel.
+     * 
+     * @param wheelSize  number of slots in wheel
+     * @param tickMillis duration of one tick in milliseconds
+     */
+    public TimerWheel(int wheelSize, long tickMillis) {
+        if (wheelSize <= 0 || tickMillis <= 0) {
+            throw new IllegalArgumentException("wheel size and tick duration must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules item to expire after given delay. Delay is rounded up to whole
+     * ticks and is at least one tick.
+     * 
+     * @param item  item to schedule
+     * @param delay delay in milliseconds
+     */
+    public synchronized void schedule(T item, long delay) {
+        long ticks = Math.max(1, (delay + tickMillis - 1) / tickMillis);
+        long deadline = tick + ticks;
+        slots.get((int) (deadline % slots.size())).add(new Timeout<>(item, deadline));
+        size++;
+    }
+
+    /**
+     * Moves wheel by one tick and passes expired items to consumer. Consumer is
+     * called without holding wheel lock, so it can schedule items again.
+     * 
+     * @param expired consumer of expired items
+     */
+    public void advance(Consumer<T> expired) {
+        List<T> result = new ArrayList<>();
+        synchronized (this) {
+            tick++;
+            Iterator<Timeout<T>> iterator = slots.get((int) (tick % slots.size())).iterator();
+            while (iterator.hasNext()) {
+                Timeout<T> timeout = iterator.next();
+                if (timeout.deadline() <= tick) {
+                    iterator.remove();
+                    result.add(timeout.item());
+                }
+            }
+            size -= result.size();
+        }
+        result.forEach(expired);
+    }
+
+    /**
+     * Returns number of pending items.
+     * 
+     * @return number of items scheduled and not yet expired
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+}
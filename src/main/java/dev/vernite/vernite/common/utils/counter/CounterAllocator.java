@@ -0,0 +1,151 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.utils.counter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hands out values of counter sequences. Values of non-strict counters are
+ * reserved from database in blocks, in one round trip per block, and handed
+ * out from memory. Such values are unique and increasing within one
+ * application instance, but values reserved and not used before shutdown or
+ * crash are lost, so there can be gaps, and values from different instances
+ * interleave. Strict counters are incremented in database for every value and
+ * are gap-free. When counter becomes strict, instance returns unused values of
+ * its block before handing out first strict value; blocks of other instances
+ * are returned only when they hand out strict value or shut down, so values
+ * reserved by them before the switch can still be skipped.
+ */
+@Component
+public class CounterAllocator {
+
+    private static final Logger L = LoggerFactory.getLogger(CounterAllocator.class);
+
+    private static class Block {
+
+        private long next = 1;
+
+        private long high = 0;
+
+    }
+
+    private final Map<Long, Block> blocks = new ConcurrentHashMap<>();
+
+    private final CounterSequenceRepository repository;
+
+    private final TransactionOperations transaction;
+
+    private final int blockSize;
+
+    @Autowired
+    public CounterAllocator(CounterSequenceRepository repository, PlatformTransactionManager transactionManager,
+            @Value("${vernite.counter.block-size:20}") int blockSize) {
+        this(repository, requiresNew(transactionManager), blockSize);
+    }
+
+    CounterAllocator(CounterSequenceRepository repository, TransactionOperations transaction, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("block size must be positive");
+        }
+        this.repository = repository;
+        this.transaction = transaction;
+        this.blockSize = blockSize;
+    }
+
+    private static TransactionOperations requiresNew(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    /**
+     * Returns next value of counter sequence.
+     * 
+     * @param counter must not be {@literal null}
+     * @return next value of counter
+     */
+    public long next(CounterSequence counter) {
+        if (counter.isStrict()) {
+            Block block = blocks.remove(counter.getId());
+            if (block != null) {
+                release(counter.getId(), block);
+            }
+            return repository.getIncrementCounter(counter.getId());
+        }
+        Block block = blocks.computeIfAbsent(counter.getId(), id -> new Block());
+        synchronized (block) {
+            if (block.next > block.high) {
+                Long high = transaction.execute(status -> repository.reserveCounter(counter.getId(), blockSize));
+                if (high == null || high <= 0) {
+                    throw new IllegalStateException("counter sequence " + counter.getId() + " does not exist");
+                }
+                block.high = high;
+                block.next = high - blockSize + 1;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Returns unused values to database. Value of counter is moved back only if
+     * no values were reserved after this instance's block.
+     */
+    @PreDestroy
+    public void release() {
+        blocks.forEach(this::release);
+    }
+
+    private void release(long id, Block block) {
+        synchronized (block) {
+            if (block.next > block.high) {
+                return;
+            }
+            try {
+                repository.compareAndSet(id, block.high, block.next - 1);
+            } catch (DataAccessException e) {
+                L.warn("Cannot release values of counter {}: {}", id, e.getMessage());
+            }
+            block.next = block.high + 1;
+        }
+    }
+
+}
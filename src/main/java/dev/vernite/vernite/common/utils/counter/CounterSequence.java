@@ -56,10 +56,25 @@ public class CounterSequence {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
+    /**
+     * Current value of counter. It is changed only by queries in
+     * {@link CounterSequenceRepository}, so saving entity never overwrites values
+     * reserved in the meantime.
+     */
     @Setter
     @Getter
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     @PositiveOrZero(message = "counter value must be positive or zero.")
     private long counterValue = 0;
 
+    /**
+     * Whether values of this counter must be gap-free. Strict counters are
+     * incremented in database for every value instead of being reserved in
+     * blocks by {@link CounterAllocator}.
+     */
+    @Setter
+    @Getter
+    @Column(nullable = false)
+    private boolean strict = false;
+
 }
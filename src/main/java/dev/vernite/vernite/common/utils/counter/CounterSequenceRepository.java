@@ -27,6 +27,10 @@
 
 package dev.vernite.vernite.common.utils.counter;
 
+import jakarta.transaction.Transactional;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.query.Procedure;
 import org.springframework.data.repository.CrudRepository;
 
@@ -45,4 +49,29 @@ public interface CounterSequenceRepository extends CrudRepository<CounterSequenc
     @Procedure("counter_increment")
     long getIncrementCounter(long counterId);
 
+    /**
+     * Adds given number to counter sequence with given ID in one statement. Values
+     * between old and returned value are reserved for caller.
+     * 
+     * @param counterId should not be {@literal null}.
+     * @param size      number of reserved values
+     * @return counter sequence value after update; {@literal 0} if counter does
+     *         not exist.
+     */
+    @Procedure("counter_reserve")
+    long reserveCounter(long counterId, int size);
+
+    /**
+     * Sets value of counter sequence only if it still has expected value.
+     * 
+     * @param counterId should not be {@literal null}.
+     * @param expected  expected current value
+     * @param value     new value
+     * @return number of updated counters
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CounterSequence c SET c.counterValue = :value WHERE c.id = :counterId AND c.counterValue = :expected")
+    int compareAndSet(long counterId, long expected, long value);
+
 }
@@ -84,34 +84,33 @@ public class Event implements Comparable<Event> {
         return type.ordinal();
     }
 
+    /**
+     * Returns date events are ordered by: start date when present, end date
+     * otherwise.
+     * 
+     * @return the date
+     */
+    @JsonIgnore
+    public Date getSortDate() {
+        return startDate != null ? startDate : endDate;
+    }
+
+    /**
+     * Events are ordered by sort date, end date, type, project and related
+     * entity. The order can be reproduced in SQL, so providers can return events
+     * already sorted; see {@link EventCursor}.
+     */
     @Override
     public int compareTo(Event o) {
-        int result;
-        if (startDate != null && o.startDate != null) {
-            result = startDate.compareTo(o.startDate);
-            if (result != 0) {
-                return result;
-            }
-        } else if (startDate != null) {
-            result = startDate.compareTo(o.endDate);
-            if (result != 0) {
-                return result;
-            }
-        } else if (o.startDate != null) {
-            result = endDate.compareTo(o.startDate);
-            if (result != 0) {
-                return result;
-            }
-        }
-        result = endDate.compareTo(o.endDate);
+        int result = getSortDate().compareTo(o.getSortDate());
         if (result != 0) {
             return result;
         }
-        result = Integer.compare(type.ordinal(), o.type.ordinal());
+        result = endDate.compareTo(o.endDate);
         if (result != 0) {
             return result;
         }
-        result = name.compareTo(o.name);
+        result = Integer.compare(type.ordinal(), o.type.ordinal());
         if (result != 0) {
             return result;
         }
@@ -0,0 +1,159 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Position in sorted event feed: sort key of the last returned event. Sent to
+ * clients as opaque string.
+ * 
+ * @param sortDate  sort date of event in milliseconds
+ * @param endDate   end date of event in milliseconds
+ * @param type      ordinal of event type
+ * @param projectId ID of event project
+ * @param relatedId ID of entity related to event
+ */
+public record EventCursor(long sortDate, long endDate, int type, long projectId, long relatedId) {
+
+    /**
+     * Creates cursor pointing at given event.
+     * 
+     * @param event must not be {@literal null}
+     * @return cursor; next page starts after the event
+     */
+    public static EventCursor of(Event event) {
+        return new EventCursor(event.getSortDate().getTime(), event.getEndDate().getTime(),
+                event.getType().ordinal(), event.getProjectId(), event.getRelatedId());
+    }
+
+    /**
+     * Decodes cursor created by {@link #encode()}.
+     * 
+     * @param value encoded cursor
+     * @return decoded cursor
+     * @throws IllegalArgumentException when value is not valid cursor
+     */
+    public static EventCursor decode(String value) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\\.");
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("invalid event cursor");
+        }
+        int type = Integer.parseInt(parts[2]);
+        if (type < 0 || type >= Event.Type.values().length) {
+            throw new IllegalArgumentException("invalid event cursor");
+        }
+        return new EventCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), type, Long.parseLong(parts[3]),
+                Long.parseLong(parts[4]));
+    }
+
+    /**
+     * Encodes cursor into URL safe string.
+     * 
+     * @return encoded cursor
+     */
+    public String encode() {
+        String value = sortDate + "." + endDate + "." + type + "." + projectId + "." + relatedId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks whether event comes after this cursor in event order.
+     * 
+     * @param event must not be {@literal null}
+     * @return {@literal true} when event belongs to next page
+     */
+    public boolean isBefore(Event event) {
+        return compare(event.getSortDate().getTime(), event.getEndDate().getTime(), event.getType().ordinal(),
+                event.getProjectId(), event.getRelatedId()) > 0;
+    }
+
+    private int compare(long otherSortDate, long otherEndDate, int otherType, long otherProjectId,
+            long otherRelatedId) {
+        int result = Long.compare(otherSortDate, sortDate);
+        if (result == 0) {
+            result = Long.compare(otherEndDate, endDate);
+        }
+        if (result == 0) {
+            result = Integer.compare(otherType, type);
+        }
+        if (result == 0) {
+            result = Long.compare(otherProjectId, projectId);
+        }
+        if (result == 0) {
+            result = Long.compare(otherRelatedId, relatedId);
+        }
+        return result;
+    }
+
+    /**
+     * Orders query in event order and creates predicate selecting rows whose
+     * events come after cursor. Expressions describe how event of given type is
+     * created from row.
+     * 
+     * @param cursor    cursor; when {@literal null} all rows are selected
+     * @param type      type of events created from rows
+     * @param query     query to order
+     * @param cb        criteria builder
+     * @param sortDate  expression of event sort date
+     * @param endDate   expression of event end date
+     * @param projectId expression of event project ID
+     * @param relatedId expression of event related ID
+     * @return predicate to add to query
+     */
+    public static Predicate seek(EventCursor cursor, Event.Type type, CriteriaQuery<?> query, CriteriaBuilder cb,
+            Expression<Date> sortDate, Expression<Date> endDate, Expression<Long> projectId,
+            Expression<Long> relatedId) {
+        query.orderBy(cb.asc(sortDate), cb.asc(endDate), cb.asc(projectId), cb.asc(relatedId));
+        if (cursor == null) {
+            return cb.conjunction();
+        }
+        Date cursorSortDate = new Date(cursor.sortDate());
+        Date cursorEndDate = new Date(cursor.endDate());
+        Predicate sameDates;
+        if (type.ordinal() > cursor.type()) {
+            sameDates = cb.greaterThanOrEqualTo(endDate, cursorEndDate);
+        } else if (type.ordinal() < cursor.type()) {
+            sameDates = cb.greaterThan(endDate, cursorEndDate);
+        } else {
+            sameDates = cb.or(cb.greaterThan(endDate, cursorEndDate), cb.and(cb.equal(endDate, cursorEndDate),
+                    cb.or(cb.greaterThan(projectId, cursor.projectId()), cb.and(
+                            cb.equal(projectId, cursor.projectId()), cb.greaterThan(relatedId, cursor.relatedId())))));
+        }
+        return cb.and(cb.greaterThanOrEqualTo(sortDate, cursorSortDate),
+                cb.or(cb.greaterThan(sortDate, cursorSortDate), cb.and(cb.equal(sortDate, cursorSortDate), sameDates)));
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.event;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Page of event feed.
+ * 
+ * @param events   events of page in event order
+ * @param next     cursor of next page; {@literal null} when there are no more
+ *                 events or page is incomplete
+ * @param complete whether page has events of all providers; incomplete page
+ *                 has no cursor of next page and should be requested again
+ */
+public record EventPage(List<Event> events, EventCursor next, boolean complete) {
+
+    /**
+     * Name of response header with cursor of next page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Name of response header present when page is incomplete.
+     */
+    public static final String INCOMPLETE_HEADER = "X-Incomplete-Page";
+
+    /**
+     * Maximal number of events in page.
+     */
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Creates response with events of page in body and cursor of next page in
+     * {@value #NEXT_CURSOR_HEADER} header. Incomplete page is marked with
+     * {@value #INCOMPLETE_HEADER} header.
+     * 
+     * @return response entity
+     */
+    public ResponseEntity<List<Event>> toResponse() {
+        var response = ResponseEntity.ok();
+        if (next != null) {
+            response.header(NEXT_CURSOR_HEADER, next.encode());
+        }
+        if (!complete) {
+            response.header(INCOMPLETE_HEADER, "true");
+        }
+        return response.body(events);
+    }
+
+}
@@ -27,15 +27,17 @@
 
 package dev.vernite.vernite.event;
 
-import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.user.User;
 
 /**
  * Interface for providing events. All classes implementing this interface will
- * be automatically registered as event providers.
+ * be automatically registered as event providers. Providers return events
+ * sorted in event order (see {@link Event#compareTo(Event)}), so results of
+ * providers can be merged without collecting them.
  */
 public interface EventProvider {
 
@@ -46,9 +48,13 @@ public interface EventProvider {
      * @param startDate the start date
      * @param endDate   the end date
      * @param filter    the filter
-     * @return an collection of events
+     * @param after     cursor of last returned event; when {@literal null} events
+     *                  are returned from the beginning
+     * @param limit     maximal number of events
+     * @return an sorted list of events after cursor
      */
-    Collection<Event> provideUserEvents(User user, Date startDate, Date endDate, EventFilter filter);
+    List<Event> provideUserEvents(User user, Date startDate, Date endDate, EventFilter filter, EventCursor after,
+            int limit);
 
     /**
      * Provides events for the given project between dates.
@@ -57,9 +63,13 @@ public interface EventProvider {
      * @param startDate the start date
      * @param endDate   the end date
      * @param filter    the filter
-     * @return an collection of events
+     * @param after     cursor of last returned event; when {@literal null} events
+     *                  are returned from the beginning
+     * @param limit     maximal number of events
+     * @return an sorted list of events after cursor
      */
-    Collection<Event> provideProjectEvents(Project project, Date startDate, Date endDate, EventFilter filter);
+    List<Event> provideProjectEvents(Project project, Date startDate, Date endDate, EventFilter filter,
+            EventCursor after, int limit);
 
     /**
      * @return the type of events provided by this provider
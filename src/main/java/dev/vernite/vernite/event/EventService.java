@@ -27,27 +27,64 @@
 
 package dev.vernite.vernite.event;
 
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import dev.vernite.vernite.common.profiling.QueryProfile;
+import dev.vernite.vernite.common.profiling.QueryProfiler;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.user.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 
 /**
- * Service providing events.
+ * Service providing events. Providers are queried concurrently on bounded
+ * executor. Every provider has its own timeout, counted from the start of the
+ * call, and partial-result policy: when partial provider fails or times out,
+ * events of other providers are returned without its events; otherwise the
+ * call fails. Page missing events of failed provider is marked incomplete
+ * and has no cursor of next page, as events after it would skip events of the
+ * provider. Settings are read from properties
+ * {@code vernite.events.<type>.timeout} (milliseconds) and
+ * {@code vernite.events.<type>.partial}, where type is event type in lower
+ * case with dashes, like {@code task-deadline}. Providers return sorted events
+ * which are merged with k-way merge, so pages of events after a cursor need
+ * memory proportional to the page size only.
  */
 @Service
 public class EventService implements ApplicationContextAware {
 
+    private static final Logger L = LoggerFactory.getLogger(EventService.class);
+
     private static Class<?> getProviderClass(String name) {
         try {
             return EventService.class.getClassLoader().loadClass(name);
@@ -57,16 +94,79 @@ public class EventService implements ApplicationContextAware {
         }
     }
 
-    private Iterable<EventProvider> providers;
+    /**
+     * Event provider with its settings.
+     * 
+     * @param provider event provider
+     * @param type     type of provided events
+     * @param timeout  time in milliseconds to wait for events of provider
+     * @param partial  whether events can be returned without events of provider
+     */
+    record Source(EventProvider provider, Event.Type type, long timeout, boolean partial) {
+    }
+
+    private record Result(List<Event> events, QueryProfile profile) {
+    }
+
+    private record Collected(List<Event> events, boolean complete) {
+    }
+
+    private record Head(Event event, Iterator<Event> rest) {
+    }
+
+    private final AsyncTaskExecutor executor;
+
+    private final long defaultTimeout;
+
+    private List<Source> sources = List.of();
+
+    @Autowired
+    public EventService(@Value("${vernite.events.threads:8}") int threads,
+            @Value("${vernite.events.queue-size:64}") int queueSize,
+            @Value("${vernite.events.timeout:2000}") long timeout) {
+        this(createExecutor(threads, queueSize), timeout);
+    }
+
+    EventService(AsyncTaskExecutor executor, long defaultTimeout) {
+        this.executor = executor;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    private static AsyncTaskExecutor createExecutor(int threads, int queueSize) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueSize);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("event-provider-");
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
 
     @Override
     public void setApplicationContext(ApplicationContext context) throws BeansException {
         var scanner = new ClassPathScanningCandidateComponentProvider(false);
         scanner.addIncludeFilter(new AssignableTypeFilter(EventProvider.class));
 
-        providers = scanner.findCandidateComponents("dev.vernite.vernite").stream()
+        setProviders(scanner.findCandidateComponents("dev.vernite.vernite").stream()
                 .map(BeanDefinition::getBeanClassName).map(EventService::getProviderClass).map(context::getBean)
-                .map(EventProvider.class::cast).toList();
+                .map(EventProvider.class::cast).toList(), context.getEnvironment());
+    }
+
+    void setProviders(List<EventProvider> providers, PropertyResolver properties) {
+        sources = providers.stream().map(provider -> {
+            Event.Type type = Event.Type.valueOf(provider.getType());
+            String prefix = "vernite.events." + type.name().toLowerCase(Locale.ROOT).replace('_', '-') + ".";
+            return new Source(provider, type, properties.getProperty(prefix + "timeout", Long.class, defaultTimeout),
+                    properties.getProperty(prefix + "partial", Boolean.class, true));
+        }).toList();
     }
 
     /**
@@ -78,17 +178,48 @@ public class EventService implements ApplicationContextAware {
      * @param end    the end date; if null, all events after the start date will
      *               be returned
      * @param filter the filter
-     * @return an sorted set of events
+     * @return an sorted list of events
      */
-    public Set<Event> getUserEvents(User user, Date start, Date end, EventFilter filter) {
-        var result = new TreeSet<Event>();
-        providers.forEach(provider -> {
-            if (filter.getType().isEmpty()
-                    || filter.getType().contains(Event.Type.valueOf(provider.getType()).ordinal())) {
-                result.addAll(provider.provideUserEvents(user, start, end, filter));
-            }
-        });
-        return result;
+    public List<Event> getUserEvents(User user, Date start, Date end, EventFilter filter) {
+        return collect(filter, Integer.MAX_VALUE,
+                provider -> provider.provideUserEvents(user, start, end, filter, null, Integer.MAX_VALUE)).events();
+    }
+
+    /**
+     * Returns page of events for the given user between dates.
+     * 
+     * @param user   the user
+     * @param start  the start date
+     * @param end    the end date
+     * @param filter the filter
+     * @param cursor encoded cursor of previous page; when {@literal null} first
+     *               page is returned
+     * @param limit  maximal number of events; when {@literal null} all events
+     *               are returned
+     * @return page of events
+     * @throws ResponseStatusException when cursor or limit is invalid
+     */
+    public EventPage getUserEvents(User user, Date start, Date end, EventFilter filter, String cursor,
+            Integer limit) {
+        return getUserEventPage(user, start, end, filter, decode(cursor), limit(limit));
+    }
+
+    /**
+     * Returns page of events for the given user between dates.
+     * 
+     * @param user   the user
+     * @param start  the start date
+     * @param end    the end date
+     * @param filter the filter
+     * @param after  cursor of previous page; when {@literal null} first page is
+     *               returned
+     * @param limit  maximal number of events; must be positive
+     * @return page of events
+     */
+    public EventPage getUserEventPage(User user, Date start, Date end, EventFilter filter, EventCursor after,
+            int limit) {
+        return page(collect(filter, limit,
+                provider -> provider.provideUserEvents(user, start, end, filter, after, limit)), limit);
     }
 
     /**
@@ -100,17 +231,182 @@ public class EventService implements ApplicationContextAware {
      * @param end     the end date; if null, all events after the start date will be
      *                returned
      * @param filter  the filter
-     * @return an sorted set of events
+     * @return an sorted list of events
+     */
+    public List<Event> getProjectEvents(Project project, Date start, Date end, EventFilter filter) {
+        return collect(filter, Integer.MAX_VALUE,
+                provider -> provider.provideProjectEvents(project, start, end, filter, null, Integer.MAX_VALUE))
+                .events();
+    }
+
+    /**
+     * Returns page of events for the given project between dates.
+     * 
+     * @param project the project
+     * @param start   the start date
+     * @param end     the end date
+     * @param filter  the filter
+     * @param cursor  encoded cursor of previous page; when {@literal null} first
+     *                page is returned
+     * @param limit   maximal number of events; when {@literal null} all events
+     *                are returned
+     * @return page of events
+     * @throws ResponseStatusException when cursor or limit is invalid
+     */
+    public EventPage getProjectEvents(Project project, Date start, Date end, EventFilter filter, String cursor,
+            Integer limit) {
+        return getProjectEventPage(project, start, end, filter, decode(cursor), limit(limit));
+    }
+
+    /**
+     * Returns page of events for the given project between dates.
+     * 
+     * @param project the project
+     * @param start   the start date
+     * @param end     the end date
+     * @param filter  the filter
+     * @param after   cursor of previous page; when {@literal null} first page is
+     *                returned
+     * @param limit   maximal number of events; must be positive
+     * @return page of events
+     */
+    public EventPage getProjectEventPage(Project project, Date start, Date end, EventFilter filter,
+            EventCursor after, int limit) {
+        return page(collect(filter, limit,
+                provider -> provider.provideProjectEvents(project, start, end, filter, after, limit)), limit);
+    }
+
+    private static EventCursor decode(String cursor) {
+        try {
+            return cursor == null ? null : EventCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor");
+        }
+    }
+
+    private static int limit(Integer limit) {
+        if (limit == null) {
+            return Integer.MAX_VALUE;
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        return Math.min(limit, EventPage.MAX_LIMIT);
+    }
+
+    private static EventPage page(Collected collected, int limit) {
+        List<Event> events = collected.events();
+        if (!collected.complete()) {
+            return new EventPage(events, null, false);
+        }
+        EventCursor next = events.size() == limit ? EventCursor.of(events.get(events.size() - 1)) : null;
+        return new EventPage(events, next, true);
+    }
+
+    /**
+     * Merges sorted lists of events into one sorted list with heap, taking only
+     * first events. Duplicated events are skipped.
+     * 
+     * @param sources sorted lists of events
+     * @param limit   maximal number of events
+     * @return sorted list of at most {@code limit} events
      */
-    public Set<Event> getProjectEvents(Project project, Date start, Date end, EventFilter filter) {
-        var result = new TreeSet<Event>();
-        providers.forEach(provider -> {
-            if (filter.getType().isEmpty()
-                    || filter.getType().contains(Event.Type.valueOf(provider.getType()).ordinal())) {
-                result.addAll(provider.provideProjectEvents(project, start, end, filter));
+    static List<Event> merge(List<List<Event>> sources, int limit) {
+        PriorityQueue<Head> heap = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> a.event().compareTo(b.event()));
+        for (List<Event> source : sources) {
+            Iterator<Event> iterator = source.iterator();
+            if (iterator.hasNext()) {
+                heap.add(new Head(iterator.next(), iterator));
+            }
+        }
+        List<Event> result = new ArrayList<>();
+        while (!heap.isEmpty() && result.size() < limit) {
+            Head head = heap.poll();
+            if (result.isEmpty() || result.get(result.size() - 1).compareTo(head.event()) != 0) {
+                result.add(head.event());
+            }
+            if (head.rest().hasNext()) {
+                heap.add(new Head(head.rest().next(), head.rest()));
             }
-        });
+        }
         return result;
     }
 
+    private Collected collect(EventFilter filter, int limit, Function<EventProvider, List<Event>> query) {
+        long start = System.nanoTime();
+        boolean profiled = QueryProfiler.current() != null;
+        List<Source> selected = new ArrayList<>();
+        List<Future<Result>> futures = new ArrayList<>();
+        for (Source source : sources) {
+            if (filter.getType().isEmpty() || filter.getType().contains(source.type().ordinal())) {
+                selected.add(source);
+                futures.add(executor.submit(() -> run(source, query, profiled)));
+            }
+        }
+        List<List<Event>> results = new ArrayList<>();
+        boolean complete = true;
+        for (int i = 0; i < selected.size(); i++) {
+            Source source = selected.get(i);
+            Future<Result> future = futures.get(i);
+            long wait = TimeUnit.MILLISECONDS.toNanos(source.timeout()) - (System.nanoTime() - start);
+            try {
+                Result events = future.get(Math.max(0, wait), TimeUnit.NANOSECONDS);
+                results.add(events.events());
+                if (events.profile() != null && QueryProfiler.current() != null) {
+                    QueryProfiler.current().add(events.profile());
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                Counter.builder("vernite.events.provider.timeouts").tag("type", source.type().name())
+                        .register(Metrics.globalRegistry).increment();
+                failed(source, new IllegalStateException(
+                        "events of type " + source.type() + " timed out after " + source.timeout() + " ms"));
+                complete = false;
+            } catch (ExecutionException e) {
+                failed(source, e.getCause());
+                complete = false;
+            } catch (InterruptedException e) {
+                futures.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for events", e);
+            }
+        }
+        return new Collected(merge(results, limit), complete);
+    }
+
+    private static Result run(Source source, Function<EventProvider, List<Event>> query, boolean profiled) {
+        QueryProfile caller = QueryProfiler.current();
+        QueryProfile profile = null;
+        if (profiled) {
+            profile = new QueryProfile();
+            QueryProfiler.resume(profile);
+        }
+        String outcome = "error";
+        long start = System.nanoTime();
+        try {
+            List<Event> events = query.apply(source.provider());
+            outcome = "success";
+            return new Result(events, profile);
+        } finally {
+            Timer.builder("vernite.events.provider").tag("type", source.type().name()).tag("outcome", outcome)
+                    .register(Metrics.globalRegistry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (caller != null) {
+                QueryProfiler.resume(caller);
+            } else {
+                QueryProfiler.stop();
+            }
+        }
+    }
+
+    private static void failed(Source source, Throwable cause) {
+        if (!source.partial()) {
+            if (cause instanceof RuntimeException exception) {
+                throw exception;
+            }
+            throw new IllegalStateException(cause);
+        }
+        L.warn("Returning events without {} events: {}", source.type(), cause.toString());
+    }
+
 }
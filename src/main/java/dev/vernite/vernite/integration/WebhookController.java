@@ -27,9 +27,12 @@
 
 package dev.vernite.vernite.integration;
 
+import java.io.IOException;
+
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import dev.vernite.vernite.common.ratelimit.RateLimit;
 import dev.vernite.vernite.integration.calendar.CalendarSyncService;
 import dev.vernite.vernite.integration.git.github.GitHubWebhookService;
 import dev.vernite.vernite.integration.git.github.data.GitHubWebhookData;
@@ -45,6 +48,8 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
 import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import reactor.core.publisher.Mono;
 
 /**
@@ -76,8 +81,9 @@ public class WebhookController {
         return gitHubService.handleWebhook(event, data);
     }
 
+    @RateLimit(cost = 10)
     @GetMapping(value = "/calendar", produces = "text/calendar")
-    byte[] calendar(String key) {
-        return calendarSyncService.handleCalendar(key);
+    void calendar(String key, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        calendarSyncService.writeFeed(key, request, response);
     }
 }
@@ -0,0 +1,216 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.integration.calendar;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache of rendered calendar feeds keyed by integration key. Every change of
+ * project or user data shown in calendars advances a change clock and records
+ * its value for changed project or user. Cached feed is valid as long as none
+ * of its projects and its owner changed after clock value read before feed was
+ * rendered, so validation needs no database queries. Changes made in
+ * transaction are recorded only after it commits. Only the latest
+ * {@value #MAX_CHANGES} changed projects and users are remembered; feeds
+ * rendered before the newest forgotten change are treated as outdated. Entries
+ * expire after
+ * configured time to bound how long changes made by other instances and moving
+ * end of calendar window stay invisible.
+ */
+@Component
+public class CalendarFeedCache {
+
+    private record Change(Map<Long, Long> changes, long id) {
+    }
+
+    /**
+     * Maximal number of remembered changes of projects and of users.
+     */
+    static final int MAX_CHANGES = 100_000;
+
+    private static final AtomicLong CLOCK = new AtomicLong();
+
+    /**
+     * Clock value of the newest change removed from change maps.
+     */
+    private static final AtomicLong FORGOTTEN = new AtomicLong();
+
+    private static final Map<Long, Long> PROJECT_CHANGES = changes();
+
+    private static final Map<Long, Long> USER_CHANGES = changes();
+
+    private final Cache<String, CalendarFeed> cache;
+
+    public CalendarFeedCache(@Value("${vernite.calendar-cache.max-size:67108864}") long maxSize,
+            @Value("${vernite.calendar-cache.ttl:900}") long ttl) {
+        this.cache = Caffeine.newBuilder().maximumWeight(maxSize)
+                .weigher((String key, CalendarFeed feed) -> feed.body() == null ? 0 : feed.body().length)
+                .expireAfterWrite(Duration.ofSeconds(ttl)).recordStats().build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, "calendarFeeds");
+    }
+
+    private static Map<Long, Long> changes() {
+        // eviction runs on writing thread, so forgotten clock is advanced before
+        // next change is recorded
+        Cache<Long, Long> changes = Caffeine.newBuilder().maximumSize(MAX_CHANGES).executor(Runnable::run)
+                .evictionListener((Long id, Long clock, RemovalCause cause) -> FORGOTTEN
+                        .accumulateAndGet(clock, Math::max))
+                .build();
+        return changes.asMap();
+    }
+
+    /**
+     * Returns current value of change clock. Must be read before data of feed is
+     * loaded.
+     * 
+     * @return value of change clock
+     */
+    public static long clock() {
+        return CLOCK.get();
+    }
+
+    /**
+     * Records change of project data shown in calendars. Should be called from
+     * entity lifecycle callbacks.
+     * 
+     * @param projectId ID of changed project
+     */
+    public static void projectChanged(long projectId) {
+        record(new Change(PROJECT_CHANGES, projectId));
+    }
+
+    /**
+     * Records change of user data shown in calendars, like project membership.
+     * Should be called from entity lifecycle callbacks.
+     * 
+     * @param userId ID of changed user
+     */
+    public static void userChanged(long userId) {
+        record(new Change(USER_CHANGES, userId));
+    }
+
+    private static void record(Change change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(change);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Change> changes = (Set<Change>) TransactionSynchronizationManager.getResource(CalendarFeedCache.class);
+        if (changes == null) {
+            changes = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(CalendarFeedCache.class, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionChanges(changes));
+        }
+        changes.add(change);
+    }
+
+    private static void publish(Change change) {
+        change.changes().put(change.id(), CLOCK.incrementAndGet());
+    }
+
+    /**
+     * Returns cached feed if it is still valid.
+     * 
+     * @param key integration key
+     * @return cached feed; {@literal null} if feed is not cached or is outdated
+     */
+    public CalendarFeed get(String key) {
+        CalendarFeed feed = cache.getIfPresent(key);
+        if (feed == null) {
+            return null;
+        }
+        return isOutdated(feed) ? null : feed;
+    }
+
+    /**
+     * Stores rendered feed. When entity tag did not change since previously
+     * cached feed, body and modification time of previous feed are kept, so
+     * clients revalidating with previous tag get identical feed. Body of feed
+     * can be {@literal null} when feed is too big to be cached.
+     * 
+     * @param key  integration key
+     * @param feed rendered feed
+     * @return stored feed
+     */
+    public CalendarFeed put(String key, CalendarFeed feed) {
+        return cache.asMap().merge(key, feed, (previous, current) -> previous.etag().equals(current.etag())
+                ? new CalendarFeed(previous.body() != null ? previous.body() : current.body(), previous.etag(),
+                        previous.lastModified(), current.renderedAt(), current.userId(), current.projects())
+                : current);
+    }
+
+    private static boolean isOutdated(CalendarFeed feed) {
+        if (FORGOTTEN.get() > feed.renderedAt()) {
+            return true;
+        }
+        if (USER_CHANGES.getOrDefault(feed.userId(), 0L) > feed.renderedAt()) {
+            return true;
+        }
+        for (Long project : feed.projects()) {
+            if (PROJECT_CHANGES.getOrDefault(project, 0L) > feed.renderedAt()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class TransactionChanges implements TransactionSynchronization {
+
+        private final Set<Change> changes;
+
+        TransactionChanges(Set<Change> changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CalendarFeedCache.class);
+            if (status == STATUS_COMMITTED) {
+                changes.forEach(CalendarFeedCache::publish);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.integration.calendar;
+
+import dev.vernite.vernite.meeting.Meeting;
+import dev.vernite.vernite.project.Project;
+import dev.vernite.vernite.projectworkspace.ProjectWorkspace;
+import dev.vernite.vernite.release.Release;
+import dev.vernite.vernite.sprint.Sprint;
+import dev.vernite.vernite.task.Task;
+import dev.vernite.vernite.user.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Entity listener recording changes of data shown in calendar feeds in
+ * {@link CalendarFeedCache}.
+ */
+public class CalendarFeedListener {
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    private void changed(Object entity) {
+        if (entity instanceof Task task) {
+            CalendarFeedCache.projectChanged(task.getProjectId());
+        } else if (entity instanceof Meeting meeting) {
+            CalendarFeedCache.projectChanged(meeting.getProject().getId());
+        } else if (entity instanceof Sprint sprint) {
+            CalendarFeedCache.projectChanged(sprint.getProject().getId());
+        } else if (entity instanceof Release release) {
+            CalendarFeedCache.projectChanged(release.getProject().getId());
+        } else if (entity instanceof Project project) {
+            CalendarFeedCache.projectChanged(project.getId());
+        } else if (entity instanceof ProjectWorkspace member) {
+            CalendarFeedCache.projectChanged(member.getId().getProjectId());
+            CalendarFeedCache.userChanged(member.getId().getWorkspaceId().getUserId());
+        } else if (entity instanceof User user) {
+            CalendarFeedCache.userChanged(user.getId());
+        } else if (entity instanceof CalendarIntegration integration) {
+            CalendarFeedCache.userChanged(integration.getUser().getId());
+        }
+    }
+
+}
@@ -29,6 +29,7 @@ package dev.vernite.vernite.integration.calendar;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -41,6 +42,7 @@ import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.user.User;
 
 @Entity
+@EntityListeners(CalendarFeedListener.class)
 public class CalendarIntegration {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -57,6 +59,18 @@ public class CalendarIntegration {
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Project project;
 
+    /**
+     * Number of days before now from which events are in feed; default window is
+     * used when {@literal null}.
+     */
+    private Integer lookBack;
+
+    /**
+     * Number of days after now to which events are in feed; default window is
+     * used when {@literal null}.
+     */
+    private Integer lookAhead;
+
     public CalendarIntegration() {
     }
 
@@ -101,4 +115,20 @@ public class CalendarIntegration {
     public void setProject(Project project) {
         this.project = project;
     }
+
+    public Integer getLookBack() {
+        return lookBack;
+    }
+
+    public void setLookBack(Integer lookBack) {
+        this.lookBack = lookBack;
+    }
+
+    public Integer getLookAhead() {
+        return lookAhead;
+    }
+
+    public void setLookAhead(Integer lookAhead) {
+        this.lookAhead = lookAhead;
+    }
 }
@@ -1,93 +0,0 @@
-/*
- * BSD 2-Clause License
- * 
- * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
- * 
- * Redistribution and use in source and binary forms, with or without
- * modification, are permitted provided that the following conditions are met:
- * 
- * 1. Redistributions of source code must retain the above copyright notice, this
- * list of conditions and the following disclaimer.
- * 
- * 2. Redistributions in binary form must reproduce the above copyright notice,
- * this list of conditions and the following disclaimer in the documentation
- * and/or other materials provided with the distribution.
- * 
- * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
- * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
- * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
- * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
- * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
- * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
- * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
- * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
- * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
- * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
- */
-
-package dev.vernite.vernite.integration.calendar;
-
-import java.io.IOException;
-import java.net.URISyntaxException;
-import java.text.ParseException;
-
-import net.fortuna.ical4j.model.Content;
-import net.fortuna.ical4j.model.ParameterList;
-import net.fortuna.ical4j.model.Property;
-import net.fortuna.ical4j.model.PropertyFactory;
-import net.fortuna.ical4j.validate.ValidationException;
-import net.fortuna.ical4j.validate.ValidationResult;
-
-public class CalendarName extends Property {
-    private static final String NAME = "X-WR-CALNAME";
-
-    private String value;
-
-    public CalendarName() {
-        super(NAME, new Factory());
-    }
-
-    public CalendarName(String aName) {
-        super(NAME, new Factory());
-        setValue(aName);
-    }
-
-    public CalendarName(final ParameterList aList, final String aValue) {
-        super(NAME, aList, new Factory());
-        setValue(aValue);
-    }
-
-    @Override
-    public void setValue(String aValue) {
-        this.value = aValue;
-    }
-
-    @Override
-    public ValidationResult validate() throws ValidationException {
-        return ValidationResult.EMPTY;
-    }
-
-    @Override
-    public String getValue() {
-        return value;
-    }
-    
-    public static class Factory extends Content.Factory implements PropertyFactory<CalendarName> {
-        private static final long serialVersionUID = 1L;
-
-        public Factory() {
-            super(NAME);
-        }
-
-        @Override
-        public CalendarName createProperty(final ParameterList parameters, final String value)
-                throws IOException, URISyntaxException, ParseException {
-            return new CalendarName(parameters, value);
-        }
-
-        @Override
-        public CalendarName createProperty() {
-            return new CalendarName();
-        }
-    }
-}
@@ -27,85 +27,261 @@
 
 package dev.vernite.vernite.integration.calendar;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import dev.vernite.vernite.common.profiling.QueryProfilerFilter;
+import dev.vernite.vernite.common.ratelimit.RateLimitExceededException;
+import dev.vernite.vernite.common.ratelimit.RateLimitStore;
+import dev.vernite.vernite.common.ratelimit.RateLimitStore.Result;
 import dev.vernite.vernite.event.Event;
+import dev.vernite.vernite.event.EventCursor;
 import dev.vernite.vernite.event.EventFilter;
+import dev.vernite.vernite.event.EventPage;
 import dev.vernite.vernite.event.EventService;
+import dev.vernite.vernite.projectworkspace.ProjectWorkspaceRepository;
 import dev.vernite.vernite.utils.ObjectNotFoundException;
-import net.fortuna.ical4j.data.CalendarOutputter;
-import net.fortuna.ical4j.model.Calendar;
-import net.fortuna.ical4j.model.Date;
-import net.fortuna.ical4j.model.DateTime;
-import net.fortuna.ical4j.model.component.VEvent;
-import net.fortuna.ical4j.model.property.CalScale;
-import net.fortuna.ical4j.model.property.Description;
-import net.fortuna.ical4j.model.property.Location;
-import net.fortuna.ical4j.model.property.ProdId;
-import net.fortuna.ical4j.model.property.Uid;
-import net.fortuna.ical4j.model.property.Version;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Service writing calendar feeds. Events are loaded page by page and written
+ * straight to response, so memory used by request depends on page size, not
+ * on number of events. Feeds smaller than configured size are buffered, sent
+ * with entity tag computed from events and cached. Bigger feeds are streamed,
+ * so their entity tag must be sent before events are read: it is tag of still
+ * valid cached feed or, for new feed, tag made of change clock and rendering
+ * time; only this tag is cached. Besides rate limit of client, each existing
+ * integration key has its own limit of feed requests, so subscribers polled
+ * from one shared server do not share it. Feeds missing events of failed providers are never sent as
+ * complete calendar, as subscribers would delete missing events.
+ */
 @Service
 @Component
 public class CalendarSyncService {
-    private static final java.util.Date FROM = new java.util.Date(0);
+
+    /**
+     * Maximal number of days of calendar window in each direction.
+     */
+    public static final int MAX_WINDOW = 3650;
 
     @Autowired
     private EventService eventService;
     @Autowired
     private CalendarIntegrationRepository repository;
+    @Autowired
+    private ProjectWorkspaceRepository projectWorkspaceRepository;
+    @Autowired
+    private CalendarFeedCache cache;
+    @Autowired
+    private RateLimitStore rateLimitStore;
+
+    @Value("${vernite.rate-limit.enabled:true}")
+    private boolean rateLimitEnabled = true;
+
+    @Value("${vernite.calendar.budget:30}")
+    private int budget = 30;
+
+    @Value("${vernite.calendar.look-back:365}")
+    private int lookBack = 365;
+
+    @Value("${vernite.calendar.look-ahead:1000}")
+    private int lookAhead = 1000;
+
+    @Value("${vernite.calendar.page-size:200}")
+    private int pageSize = 200;
 
-    public byte[] handleCalendar(String key) {
-        java.util.Date to = java.util.Date.from(Instant.now().plus(1000, ChronoUnit.DAYS));
+    @Value("${vernite.calendar.max-buffered-size:262144}")
+    private int maxBufferedSize = 262144;
+
+    /**
+     * Changes calendar window of integration. Window is not changed in
+     * directions with {@literal null} value.
+     * 
+     * @param integration integration to change
+     * @param lookBack    number of days before now
+     * @param lookAhead   number of days after now
+     * @throws ResponseStatusException when window is negative or longer than
+     *                                 {@value #MAX_WINDOW} days
+     */
+    public void setWindow(CalendarIntegration integration, Integer lookBack, Integer lookAhead) {
+        if (!isValidWindow(lookBack) || !isValidWindow(lookAhead)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "calendar window must be between 0 and " + MAX_WINDOW + " days");
+        }
+        if (lookBack != null) {
+            integration.setLookBack(lookBack);
+        }
+        if (lookAhead != null) {
+            integration.setLookAhead(lookAhead);
+        }
+    }
+
+    private static boolean isValidWindow(Integer days) {
+        return days == null || (days >= 0 && days <= MAX_WINDOW);
+    }
+
+    /**
+     * Writes calendar feed of integration with given key to response. Cached
+     * feed is used when it is valid; conditional requests matching it are
+     * answered with 304 status.
+     * 
+     * @param key      integration key
+     * @param request  current request
+     * @param response current response
+     * @throws ObjectNotFoundException    when integration does not exist
+     * @throws RateLimitExceededException when limit of integration key is
+     *                                    exceeded
+     * @throws ResponseStatusException    when some events could not be loaded;
+     *                                    streamed feed is then left unfinished
+     * @throws IOException                when writing response fails
+     */
+    public void writeFeed(String key, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // clock is read before cached feed is validated, so tag of valid feed can be
+        // reused for streamed feed
+        long clock = CalendarFeedCache.clock();
+        CalendarFeed cached = cache.get(key);
+        if (cached != null) {
+            // only existing keys have cached feed
+            acquire(key);
+        }
+        if (cached != null && new ServletWebRequest(request, response).checkNotModified(cached.etag(),
+                cached.lastModified())) {
+            return;
+        }
+        response.setContentType("text/calendar;charset=UTF-8");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        if (cached != null && cached.body() != null) {
+            send(cached, response);
+            return;
+        }
         CalendarIntegration integration = repository.findByKey(key).orElseThrow(ObjectNotFoundException::new);
-        Set<Event> events;
-        Calendar calendar = new Calendar();
+        if (cached == null) {
+            acquire(key);
+        }
+        Set<Long> projects = new HashSet<>();
+        String name;
         if (integration.getProject() == null) {
-            events = eventService.getUserEvents(integration.getUser(), FROM, to, new EventFilter());
-            calendar.getProperties()
-                    .add(new CalendarName("Vernite - " + integration.getUser().getUsername() + " user calendar"));
+            projectWorkspaceRepository.findByWorkspaceUser(integration.getUser())
+                    .forEach(member -> projects.add(member.getId().getProjectId()));
+            name = "Vernite - " + integration.getUser().getUsername() + " user calendar";
         } else {
-            events = eventService.getProjectEvents(integration.getProject(), FROM, to, new EventFilter());
-            calendar.getProperties()
-                    .add(new CalendarName("Vernite - " + integration.getProject().getName() + " project calendar"));
+            projects.add(integration.getProject().getId());
+            name = "Vernite - " + integration.getProject().getName() + " project calendar";
         }
-        calendar.getProperties().add(new ProdId("-//Vernite//EN"));
-        calendar.getProperties().add(Version.VERSION_2_0);
-        calendar.getProperties().add(CalScale.GREGORIAN);
-        for (Event event : events) {
-            VEvent calEvent;
-            if (event.getStartDate() == null) {
-                calEvent = new VEvent(new Date(event.getEndDate()), event.getName());
-            } else {
-                calEvent = new VEvent(new DateTime(event.getStartDate()), new DateTime(event.getEndDate()), event.getName());
+        Instant now = Instant.now();
+        MessageDigest digest = digest(name);
+        String streamedTag = cached != null ? cached.etag()
+                : "W/\"" + Long.toHexString(clock) + '-' + Long.toHexString(now.toEpochMilli()) + '"';
+        long streamedModified = cached != null ? cached.lastModified() : now.toEpochMilli();
+        SpillOutputStream out = new SpillOutputStream(maxBufferedSize, () -> {
+            QueryProfilerFilter.disableBuffering(request);
+            response.setHeader(HttpHeaders.ETAG, streamedTag);
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, streamedModified);
+            return new BufferedOutputStream(response.getOutputStream());
+        });
+        ICalendarWriter writer = new ICalendarWriter(out, now);
+        writer.begin(name);
+        Date from = Date.from(now.minus(Duration.ofDays(window(integration.getLookBack(), lookBack))));
+        Date to = Date.from(now.plus(Duration.ofDays(window(integration.getLookAhead(), lookAhead))));
+        EventCursor after = null;
+        do {
+            EventPage page = integration.getProject() == null
+                    ? eventService.getUserEventPage(integration.getUser(), from, to, new EventFilter(), after,
+                            pageSize)
+                    : eventService.getProjectEventPage(integration.getProject(), from, to, new EventFilter(), after,
+                            pageSize);
+            if (!page.complete()) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "some events could not be loaded");
             }
-            calEvent.getProperties().add(new Uid(String.format("project_%d_event_%d_%d", event.getProjectId(),
-                    event.getType().ordinal(), event.getRelatedId())));
-            if (event.getDescription() != null) {
-                calEvent.getProperties().add(new Description(event.getDescription()));
+            for (Event event : page.events()) {
+                projects.add(event.getProjectId());
+                update(digest, event);
+                writer.write(event);
             }
-            if (event.getLocation() != null) {
-                calEvent.getProperties().add(new Location(event.getLocation()));
-            }
-            calendar.getComponents().add(calEvent);
+            after = page.next();
+        } while (after != null);
+        writer.end();
+        if (out.isSpilled()) {
+            cache.put(key, new CalendarFeed(null, streamedTag, streamedModified, clock, integration.getUser().getId(),
+                    Set.copyOf(projects)));
+            return;
+        }
+        String etag = "W/\"" + HexFormat.of().formatHex(digest.digest()) + '"';
+        CalendarFeed feed = cache.put(key, new CalendarFeed(out.toByteArray(), etag, now.toEpochMilli(), clock,
+                integration.getUser().getId(), Set.copyOf(projects)));
+        response.setHeader(HttpHeaders.ETAG, feed.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, feed.lastModified());
+        send(feed, response);
+    }
+
+    /**
+     * Takes request from limit of integration key. Must be called only for
+     * existing keys, so made up keys cannot get fresh limits.
+     */
+    private void acquire(String key) {
+        if (!rateLimitEnabled) {
+            return;
+        }
+        Result result = rateLimitStore.acquire("calendar:" + key, System.currentTimeMillis(), budget,
+                TimeUnit.MINUTES.toMillis(1), 1);
+        if (!result.allowed()) {
+            throw new RateLimitExceededException(result.retryAfter());
         }
-        CalendarOutputter calendarOutputter = new CalendarOutputter();
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    }
+
+    private static int window(Integer days, int defaultDays) {
+        return days == null ? defaultDays : days;
+    }
+
+    private static void send(CalendarFeed feed, HttpServletResponse response) throws IOException {
+        response.setContentLength(feed.body().length);
+        response.getOutputStream().write(feed.body());
+    }
+
+    private static MessageDigest digest(String name) {
         try {
-            calendarOutputter.output(calendar, stream);
-        } catch (IOException e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "IO error");
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            return digest;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
-        return stream.toByteArray();
     }
+
+    /**
+     * Adds event to entity tag digest. Tag is computed from events instead of
+     * body, because time stamp of events changes with each rendering.
+     */
+    private static void update(MessageDigest digest, Event event) {
+        String value = "\n" + event.getType().ordinal() + ' ' + event.getProjectId() + ' ' + event.getRelatedId()
+                + ' ' + time(event.getStartDate()) + ' ' + time(event.getEndDate()) + ' ' + event.getName() + '\0'
+                + event.getDescription() + '\0' + event.getLocation();
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long time(Date date) {
+        return date == null ? -1 : date.getTime();
+    }
+
 }
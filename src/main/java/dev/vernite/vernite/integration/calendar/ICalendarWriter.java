@@ -0,0 +1,171 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.integration.calendar;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+import dev.vernite.vernite.event.Event;
+
+/**
+ * Writer of iCalendar (RFC 5545) feeds. Events are written one by one straight
+ * to output stream, so memory used by writer does not depend on number of
+ * events. Times are written in UTC. Content lines longer than 75 octets are
+ * folded without splitting UTF-8 sequences.
+ */
+public class ICalendarWriter {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private static final int MAX_LINE = 75;
+
+    private static final byte[] CRLF = { '\r', '\n' };
+
+    private final OutputStream out;
+
+    private final String stamp;
+
+    /**
+     * Creates writer. Output stream should be buffered.
+     * 
+     * @param out   output stream
+     * @param stamp creation time of feed written as time stamp of events
+     */
+    public ICalendarWriter(OutputStream out, Instant stamp) {
+        this.out = out;
+        this.stamp = DATE_TIME.format(stamp);
+    }
+
+    /**
+     * Writes beginning of calendar.
+     * 
+     * @param name name of calendar shown by clients
+     * @throws IOException when output stream fails
+     */
+    public void begin(String name) throws IOException {
+        line("BEGIN:VCALENDAR");
+        line("PRODID:-//Vernite//EN");
+        line("VERSION:2.0");
+        line("CALSCALE:GREGORIAN");
+        line("X-WR-CALNAME:" + escape(name));
+    }
+
+    /**
+     * Writes event. Events without start date are written as all day events on
+     * day of end date.
+     * 
+     * @param event event to write
+     * @throws IOException when output stream fails
+     */
+    public void write(Event event) throws IOException {
+        line("BEGIN:VEVENT");
+        line("DTSTAMP:" + stamp);
+        if (event.getStartDate() == null) {
+            line("DTSTART;VALUE=DATE:" + DATE.format(event.getEndDate().toInstant()));
+        } else {
+            line("DTSTART:" + format(event.getStartDate()));
+            line("DTEND:" + format(event.getEndDate()));
+        }
+        line("SUMMARY:" + escape(event.getName()));
+        line(String.format("UID:project_%d_event_%d_%d", event.getProjectId(), event.getType().ordinal(),
+                event.getRelatedId()));
+        if (event.getDescription() != null) {
+            line("DESCRIPTION:" + escape(event.getDescription()));
+        }
+        if (event.getLocation() != null) {
+            line("LOCATION:" + escape(event.getLocation()));
+        }
+        line("END:VEVENT");
+    }
+
+    /**
+     * Writes end of calendar and flushes output stream.
+     * 
+     * @throws IOException when output stream fails
+     */
+    public void end() throws IOException {
+        line("END:VCALENDAR");
+        out.flush();
+    }
+
+    private static String format(Date date) {
+        return DATE_TIME.format(date.toInstant());
+    }
+
+    /**
+     * Escapes value of TEXT property.
+     * 
+     * @param value text
+     * @return escaped text
+     */
+    static String escape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> builder.append('\\').append(c);
+                case '\n' -> builder.append("\\n");
+                case '\r' -> {
+                    if (i + 1 >= value.length() || value.charAt(i + 1) != '\n') {
+                        builder.append("\\n");
+                    }
+                }
+                default -> builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private void line(String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        int start = 0;
+        int limit = MAX_LINE;
+        while (bytes.length - start > limit) {
+            int end = start + limit;
+            while ((bytes[end] & 0xC0) == 0x80) {
+                end--;
+            }
+            out.write(bytes, start, end - start);
+            out.write(CRLF);
+            out.write(' ');
+            start = end;
+            limit = MAX_LINE - 1;
+        }
+        out.write(bytes, start, bytes.length - start);
+        out.write(CRLF);
+    }
+
+}
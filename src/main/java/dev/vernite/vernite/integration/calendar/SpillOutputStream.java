@@ -0,0 +1,110 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.integration.calendar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream keeping written bytes in memory until their size exceeds
+ * threshold. Then buffered bytes and all following writes go to target stream
+ * opened at that moment.
+ */
+class SpillOutputStream extends OutputStream {
+
+    /**
+     * Opens target stream.
+     */
+    @FunctionalInterface
+    interface Target {
+        OutputStream open() throws IOException;
+    }
+
+    private final int threshold;
+
+    private final Target target;
+
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private OutputStream out;
+
+    SpillOutputStream(int threshold, Target target) {
+        this.threshold = threshold;
+        this.target = target;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (out == null && buffer.size() + len > threshold) {
+            out = target.open();
+            buffer.writeTo(out);
+            buffer = null;
+        }
+        if (out == null) {
+            buffer.write(b, off, len);
+        } else {
+            out.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Returns whether bytes were moved to target stream.
+     * 
+     * @return {@literal true} when threshold was exceeded
+     */
+    boolean isSpilled() {
+        return out != null;
+    }
+
+    /**
+     * Returns buffered bytes.
+     * 
+     * @return written bytes
+     * @throws IllegalStateException when bytes were moved to target stream
+     */
+    byte[] toByteArray() {
+        if (out != null) {
+            throw new IllegalStateException("bytes were moved to target stream");
+        }
+        return buffer.toByteArray();
+    }
+
+}
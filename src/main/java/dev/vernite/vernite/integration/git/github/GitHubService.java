@@ -225,7 +225,7 @@ public class GitHubService {
      * @return the issue
      */
     public Mono<Issue> connectIssue(Task task, long id) {
-        var integrationOptional = projectIntegrationRepository.findByProject(task.getStatus().getProject());
+        var integrationOptional = projectIntegrationRepository.findByProject(task.getProject());
 
         if (integrationOptional.isEmpty()) {
             return Mono.empty();
@@ -259,7 +259,7 @@ public class GitHubService {
      * @return the issue
      */
     public Mono<Issue> createIssue(Task task) {
-        var integrationOptional = projectIntegrationRepository.findByProject(task.getStatus().getProject());
+        var integrationOptional = projectIntegrationRepository.findByProject(task.getProject());
 
         if (integrationOptional.isEmpty()) {
             return Mono.empty();
@@ -294,7 +294,7 @@ public class GitHubService {
      * @return the issue
      */
     public Mono<Issue> patchIssue(Task task) {
-        var integrationProjectOptional = projectIntegrationRepository.findByProject(task.getStatus().getProject());
+        var integrationProjectOptional = projectIntegrationRepository.findByProject(task.getProject());
 
         if (integrationProjectOptional.isEmpty()) {
             return Mono.empty();
@@ -337,7 +337,7 @@ public class GitHubService {
      * @param task the task
      */
     public void deleteIssue(Task task) {
-        var integrationOptional = projectIntegrationRepository.findByProject(task.getStatus().getProject());
+        var integrationOptional = projectIntegrationRepository.findByProject(task.getProject());
 
         if (integrationOptional.isEmpty()) {
             return;
@@ -385,7 +385,7 @@ public class GitHubService {
      * @return the pull request
      */
     public Mono<PullRequest> connectPullRequest(Task task, long id) {
-        var integrationOptional = projectIntegrationRepository.findByProject(task.getStatus().getProject());
+        var integrationOptional = projectIntegrationRepository.findByProject(task.getProject());
 
         if (integrationOptional.isEmpty()) {
             return Mono.empty();
@@ -422,7 +422,7 @@ public class GitHubService {
      * @return the pull request
      */
     public Mono<PullRequest> patchPullRequest(Task task) {
-        var integrationProjectOptional = projectIntegrationRepository.findByProject(task.getStatus().getProject());
+        var integrationProjectOptional = projectIntegrationRepository.findByProject(task.getProject());
 
         if (integrationProjectOptional.isEmpty()) {
             return Mono.empty();
@@ -479,7 +479,7 @@ public class GitHubService {
      * @param task the task
      */
     public void deletePullRequest(Task task) {
-        var integrationOptional = projectIntegrationRepository.findByProject(task.getStatus().getProject());
+        var integrationOptional = projectIntegrationRepository.findByProject(task.getProject());
 
         if (integrationOptional.isEmpty()) {
             return;
@@ -554,7 +554,7 @@ public class GitHubService {
      */
     public Mono<GitHubComment> createComment(Comment comment) {
         var task = comment.getTask();
-        var integrationProjectOptional = projectIntegrationRepository.findByProject(task.getStatus().getProject());
+        var integrationProjectOptional = projectIntegrationRepository.findByProject(task.getProject());
 
         if (integrationProjectOptional.isEmpty()) {
             return Mono.empty();
@@ -602,7 +602,7 @@ public class GitHubService {
      */
     public Mono<GitHubComment> patchComment(Comment comment) {
         var task = comment.getTask();
-        var integrationProjectOptional = projectIntegrationRepository.findByProject(task.getStatus().getProject());
+        var integrationProjectOptional = projectIntegrationRepository.findByProject(task.getProject());
 
         if (integrationProjectOptional.isEmpty()) {
             return Mono.empty();
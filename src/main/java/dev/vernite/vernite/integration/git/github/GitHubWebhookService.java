@@ -42,7 +42,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
-import dev.vernite.vernite.common.utils.counter.CounterSequenceRepository;
+import dev.vernite.vernite.common.utils.counter.CounterAllocator;
 import dev.vernite.vernite.integration.git.github.data.GitHubInstallationApi;
 import dev.vernite.vernite.integration.git.github.data.GitHubRepository;
 import dev.vernite.vernite.integration.git.github.data.GitHubWebhookData;
@@ -84,7 +84,7 @@ public class GitHubWebhookService {
     @Autowired
     private GitHubService service;
     @Autowired
-    private CounterSequenceRepository counterSequenceRepository;
+    private CounterAllocator counterAllocator;
     @Autowired
     private AuthorizationRepository authorizationRepository;
     @Autowired
@@ -214,7 +214,7 @@ public class GitHubWebhookService {
                 if (matcher.find()) {
                     boolean isOpen = "reopen".equals(matcher.group(1));
                     long taskId = Long.parseLong(matcher.group(2));
-                    taskRepository.findByStatusProjectAndNumber(integration.getProject(), taskId)
+                    taskRepository.findForWebhookByProjectAndNumber(integration.getProject(), taskId)
                             .ifPresent(task -> {
                                 task.changeStatus(isOpen);
                                 tasks.add(taskRepository.save(task));
@@ -233,8 +233,7 @@ public class GitHubWebhookService {
         for (var integration : integrationRepository.findByRepositoryOwnerAndRepositoryName(name[0], name[1])) {
             if (data.getAction().equals("opened")
                     && issueRepository.findByProjectIntegrationAndIssueId(integration, issue.getNumber()).isEmpty()) {
-                long id = counterSequenceRepository
-                        .getIncrementCounter(integration.getProject().getTaskCounter().getId());
+                long id = counterAllocator.next(integration.getProject().getTaskCounter());
                 Status status = integration.getProject().getStatuses().get(0);
                 Task task = new Task(id, issue.getTitle(), issue.getBody(), status, systemUser, 0);
                 task.changeStatus(true);
@@ -110,10 +110,22 @@ public class TaskIntegration {
      * @return link to the issue
      */
     public String link() {
-        String repositoryOwner = projectIntegration.getRepositoryOwner();
-        String repositoryName = projectIntegration.getRepositoryName();
-        String type = getId().getType() == Type.ISSUE.ordinal() ? "issues" : "pull";
-        return String.format("https://github.com/%s/%s/%s/%d", repositoryOwner, repositoryName, type, getIssueId());
+        return link(projectIntegration.getRepositoryOwner(), projectIntegration.getRepositoryName(),
+                getId().getType(), getIssueId());
+    }
+
+    /**
+     * Creates link to GitHub issue or pull request.
+     * 
+     * @param repositoryOwner owner of repository
+     * @param repositoryName  name of repository
+     * @param type            ordinal of integration type
+     * @param issueId         number of issue or pull request
+     * @return link to GitHub
+     */
+    public static String link(String repositoryOwner, String repositoryName, int type, long issueId) {
+        String path = type == Type.ISSUE.ordinal() ? "issues" : "pull";
+        return String.format("https://github.com/%s/%s/%s/%d", repositoryOwner, repositoryName, path, issueId);
     }
 
     /**
@@ -29,6 +29,7 @@ package dev.vernite.vernite.integration.git.github.model;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.CrudRepository;
 
 /**
@@ -43,6 +44,7 @@ public interface TaskIntegrationRepository extends CrudRepository<TaskIntegratio
      * @param issueId            issue id
      * @return task integration
      */
+    @EntityGraph(attributePaths = { "task.status", "task.project" })
     List<TaskIntegration> findByProjectIntegrationAndIssueId(ProjectIntegration projectIntegration, long issueId);
 
 }
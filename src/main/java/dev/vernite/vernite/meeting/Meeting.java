@@ -34,6 +34,7 @@ import java.util.Set;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -51,6 +52,7 @@ import lombok.ToString;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
+import dev.vernite.vernite.integration.calendar.CalendarFeedListener;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.user.User;
 import dev.vernite.vernite.utils.FieldErrorException;
@@ -61,6 +63,7 @@ import dev.vernite.vernite.utils.FieldErrorException;
 @Data
 @Entity
 @NoArgsConstructor
+@EntityListeners(CalendarFeedListener.class)
 public class Meeting {
 
     @Id
@@ -34,13 +34,17 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.CrudRepository;
 
 import dev.vernite.vernite.common.exception.EntityNotFoundException;
+import dev.vernite.vernite.event.Event;
+import dev.vernite.vernite.event.EventCursor;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.user.User;
+import dev.vernite.vernite.utils.LimitedSpecificationExecutor;
 
 /**
  * CRUD repository for meeting entity.
  */
-public interface MeetingRepository extends CrudRepository<Meeting, Long>, JpaSpecificationExecutor<Meeting> {
+public interface MeetingRepository extends CrudRepository<Meeting, Long>, JpaSpecificationExecutor<Meeting>,
+        LimitedSpecificationExecutor<Meeting> {
 
     /**
      * Finds a meeting by its ID and project.
@@ -65,13 +69,18 @@ public interface MeetingRepository extends CrudRepository<Meeting, Long>, JpaSpe
      * @param project   the project.
      * @param startDate the start date.
      * @param endDate   the end date.
-     * @return list of meetings.
+     * @param after     cursor of last returned event; can be {@literal null}.
+     * @param limit     maximal number of meetings.
+     * @return list of meetings after cursor in event order.
      */
-    default List<Meeting> findMeetingsByProjectAndDate(Project project, Date startDate, Date endDate) {
+    default List<Meeting> findMeetingsByProjectAndDate(Project project, Date startDate, Date endDate,
+            EventCursor after, int limit) {
         return findAll((root, query, cb) -> {
             return cb.and(cb.equal(root.get("project"), project),
-                    cb.between(root.get("startDate"), startDate, endDate));
-        });
+                    cb.between(root.get("startDate"), startDate, endDate),
+                    EventCursor.seek(after, Event.Type.MEETING, query, cb, root.get("startDate"), root.get("endDate"),
+                            root.get("project").get("id"), root.get("id")));
+        }, limit);
     }
 
     /**
@@ -80,13 +89,18 @@ public interface MeetingRepository extends CrudRepository<Meeting, Long>, JpaSpe
      * @param user      the user.
      * @param startDate the start date.
      * @param endDate   the end date.
-     * @return list of meetings.
+     * @param after     cursor of last returned event; can be {@literal null}.
+     * @param limit     maximal number of meetings.
+     * @return list of meetings after cursor in event order.
      */
-    default List<Meeting> findMeetingsByUserAndDate(User user, Date startDate, Date endDate) {
+    default List<Meeting> findMeetingsByUserAndDate(User user, Date startDate, Date endDate, EventCursor after,
+            int limit) {
         return findAll((root, query, cb) -> {
             return cb.and(cb.equal(root.join("participants"), user),
-                    cb.between(root.get("startDate"), startDate, endDate));
-        });
+                    cb.between(root.get("startDate"), startDate, endDate),
+                    EventCursor.seek(after, Event.Type.MEETING, query, cb, root.get("startDate"), root.get("endDate"),
+                            root.get("project").get("id"), root.get("id")));
+        }, limit);
     }
 
 }
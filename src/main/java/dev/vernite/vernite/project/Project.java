@@ -36,6 +36,8 @@ import java.util.Set;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -43,6 +45,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.OrderBy;
@@ -51,13 +55,19 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import dev.vernite.vernite.cdn.File;
 import dev.vernite.vernite.common.utils.counter.CounterSequence;
+import dev.vernite.vernite.integration.calendar.CalendarFeedListener;
 import dev.vernite.vernite.integration.git.github.model.ProjectIntegration;
 import dev.vernite.vernite.meeting.Meeting;
 import dev.vernite.vernite.projectworkspace.ProjectWorkspace;
@@ -78,8 +88,17 @@ import lombok.ToString;
 @Entity
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true)
+@NamedEntityGraph(name = Project.DETAIL_GRAPH, attributeNodes = { @NamedAttributeNode("logo"),
+        @NamedAttributeNode("taskCounter") })
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+@EntityListeners(CalendarFeedListener.class)
 public class Project extends SoftDeleteEntity implements Comparable<Project> {
 
+    /**
+     * Fetch plan for single project: logo and task counter.
+     */
+    public static final String DETAIL_GRAPH = "Project.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @PositiveOrZero(message = "project ID must be non negative number")
@@ -124,7 +143,7 @@ public class Project extends SoftDeleteEntity implements Comparable<Project> {
     @EqualsAndHashCode.Exclude
     @NotNull(message = "counter must be set")
     @OnDelete(action = OnDeleteAction.CASCADE)
-    @OneToOne(cascade = CascadeType.PERSIST, optional = false)
+    @OneToOne(cascade = CascadeType.PERSIST, optional = false, fetch = FetchType.LAZY)
     private CounterSequence taskCounter;
 
     @NotNull
@@ -161,9 +180,9 @@ public class Project extends SoftDeleteEntity implements Comparable<Project> {
     @OnDelete(action = OnDeleteAction.CASCADE)
     private List<Meeting> meetings = new ArrayList<>();
 
-    @ManyToOne
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     private File logo;
 
     /**
@@ -200,6 +219,23 @@ public class Project extends SoftDeleteEntity implements Comparable<Project> {
         if (update.getDescription() != null) {
             setDescription(update.getDescription());
         }
+        if (update.getStrictTaskNumbers() != null) {
+            getTaskCounter().setStrict(update.getStrictTaskNumbers());
+        }
+    }
+
+    /**
+     * Returns whether task numbers in project are gap-free, for JSON. Value is
+     * present only when task counter is already loaded, like in project details,
+     * so lists of projects do not load counter of each project.
+     * 
+     * @return whether task numbers are gap-free; {@literal null} if counter is not
+     *         loaded
+     */
+    @JsonProperty("strictTaskNumbers")
+    @JsonInclude(Include.NON_NULL)
+    private Boolean getLoadedStrictTaskNumbers() {
+        return Hibernate.isInitialized(taskCounter) ? taskCounter.isStrict() : null;
     }
 
     /**
@@ -28,14 +28,15 @@
 package dev.vernite.vernite.project;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
@@ -53,11 +54,14 @@ import dev.vernite.vernite.auditlog.AuditLog;
 import dev.vernite.vernite.auditlog.AuditLogRepository;
 import dev.vernite.vernite.cdn.File;
 import dev.vernite.vernite.cdn.FileManager;
+import dev.vernite.vernite.cdn.ImageProcessingService;
+import dev.vernite.vernite.common.ratelimit.RateLimit;
 import dev.vernite.vernite.event.Event;
 import dev.vernite.vernite.event.EventFilter;
 import dev.vernite.vernite.event.EventService;
 import dev.vernite.vernite.integration.calendar.CalendarIntegration;
 import dev.vernite.vernite.integration.calendar.CalendarIntegrationRepository;
+import dev.vernite.vernite.integration.calendar.CalendarSyncService;
 import dev.vernite.vernite.integration.git.Branch;
 import dev.vernite.vernite.integration.git.GitTaskService;
 import dev.vernite.vernite.integration.git.Issue;
@@ -76,6 +80,7 @@ import dev.vernite.vernite.utils.SecureStringUtils;
 import dev.vernite.vernite.workspace.Workspace;
 import dev.vernite.vernite.workspace.WorkspaceId;
 import dev.vernite.vernite.workspace.WorkspaceRepository;
+import dev.vernite.vernite.ws.SocketHandler;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -107,8 +112,12 @@ public class ProjectController {
 
     private FileManager fileManager;
 
+    private ImageProcessingService imageProcessingService;
+
     private CalendarIntegrationRepository calendarRepository;
 
+    private CalendarSyncService calendarSyncService;
+
     private AuditLogRepository auditLogRepository;
 
     private GitTaskService service;
@@ -127,6 +136,7 @@ public class ProjectController {
         Workspace workspace = workspaceRepository.findByIdOrThrow(new WorkspaceId(id, user.getId()));
         Project project = projectRepository.save(new Project(create));
         projectWorkspaceRepository.save(new ProjectWorkspace(project, workspace, 1L));
+        SocketHandler.subscribe(user.getId(), project.getId());
         return project;
     }
 
@@ -246,6 +256,7 @@ public class ProjectController {
                             .orElseGet(() -> workspaceRepository.save(new Workspace(0, "inbox", invitedUser)));
                     projectWorkspaceRepository
                             .save(new ProjectWorkspace(project, workspace, 2L));
+                    SocketHandler.subscribe(invitedUser.getId(), project.getId());
                 }
             }
         }
@@ -281,6 +292,7 @@ public class ProjectController {
         List<ProjectWorkspace> projectWorkspaces = projectWorkspaceRepository.findByWorkspaceUserInAndProject(users,
                 project);
         projectWorkspaceRepository.deleteAll(projectWorkspaces);
+        projectWorkspaces.forEach(pw -> SocketHandler.unsubscribe(pw.getId().getWorkspaceId().getUserId(), id));
         return projectWorkspaces.stream().map(ps -> ps.getWorkspace().getUser()).toList();
     }
 
@@ -299,6 +311,7 @@ public class ProjectController {
         }
         ProjectWorkspace pw = project.getProjectWorkspaces().get(index);
         projectWorkspaceRepository.delete(pw);
+        SocketHandler.unsubscribe(user.getId(), id);
     }
 
     /**
@@ -311,7 +324,7 @@ public class ProjectController {
     @GetMapping("/{id}/track")
     public List<TimeTrack> getTimeTracks(@NotNull @Parameter(hidden = true) User user, @PathVariable long id) {
         Project project = projectRepository.findByIdAndMemberOrThrow(id, user);
-        return timeTrackRepository.findByTaskStatusProject(project);
+        return timeTrackRepository.findByTaskProject(project);
     }
 
     /**
@@ -364,18 +377,25 @@ public class ProjectController {
      * @param from   timestamp after events happen
      * @param to     timestamp before events happen
      * @param filter filter for events
-     * @return list with events after 'from' and before 'to' filtered by 'filter'
+     * @param limit  maximal number of events in response
+     * @param cursor cursor of next page from previous response
+     * @return list with events after 'from' and before 'to' filtered by 'filter';
+     *         when limit is reached cursor of next page is in header
      */
+    @RateLimit(cost = 10, budget = 60)
     @GetMapping("/{id}/events")
-    public Set<Event> getEvents(@NotNull @Parameter(hidden = true) User user, @PathVariable long id, long from,
-            long to, @ModelAttribute EventFilter filter) {
+    public ResponseEntity<List<Event>> getEvents(@NotNull @Parameter(hidden = true) User user, @PathVariable long id,
+            long from, long to, @ModelAttribute EventFilter filter, @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
         Project project = projectRepository.findByIdAndMemberOrThrow(id, user);
-        return eventService.getProjectEvents(project, new Date(from), new Date(to), filter);
+        return eventService.getProjectEvents(project, new Date(from), new Date(to), filter, cursor, limit)
+                .toResponse();
     }
 
     /**
      * Update project logo. Given file will be converted to image/webp format with
-     * resolution 400x400. Alpha channel is supported.
+     * resolution 400x400. Alpha channel is supported. Images are converted by
+     * {@link ImageProcessingService}, which rejects uploads when it is busy.
      * 
      * @param user logged in user
      * @param id   ID of project
@@ -385,12 +405,14 @@ public class ProjectController {
     @PostMapping(path = "/{id}/logo", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @ApiResponse(description = "Project logo changed.", responseCode = "200")
     @ApiResponse(description = "Cannot convert image.", responseCode = "400", content = @Content(schema = @Schema(implementation = ErrorType.class)))
+    @ApiResponse(description = "Too many images are being converted.", responseCode = "503", content = @Content(schema = @Schema(implementation = ErrorType.class)))
     public File uploadLogo(@NotNull @Parameter(hidden = true) User user, @PathVariable long id,
             @RequestParam("file") MultipartFile file) {
         Project project = projectRepository.findByIdAndMemberOrThrow(id, user);
         byte[] converted;
-        try {
-            converted = ImageConverter.convertImage(file.getOriginalFilename(), file.getBytes());
+        try (InputStream in = file.getInputStream()) {
+            converted = imageProcessingService.convert(file.getOriginalFilename(), in, file.getSize(),
+                    ImageConverter.SIZE).get(0);
         } catch (IOException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
@@ -417,26 +439,28 @@ public class ProjectController {
      * Create calendar synchronization link. Creates link for iCalendar format
      * synchronization of project calendar.
      * 
-     * @param user logged in user
-     * @param id   ID of project
+     * @param user      logged in user
+     * @param id        ID of project
+     * @param lookBack  number of days before now with events in calendar
+     * @param lookAhead number of days after now with events in calendar
      * @return link to project calendar in iCalendar format
      */
     @PostMapping("/{id}/events/sync")
-    public String createCalendarSync(@NotNull @Parameter(hidden = true) User user, @PathVariable long id) {
+    public String createCalendarSync(@NotNull @Parameter(hidden = true) User user, @PathVariable long id,
+            @RequestParam(required = false) Integer lookBack, @RequestParam(required = false) Integer lookAhead) {
         Project project = projectRepository.findByIdAndMemberOrThrow(id, user);
         String key = SecureStringUtils.generateRandomSecureString();
         while (calendarRepository.findByKey(key).isPresent()) {
             key = SecureStringUtils.generateRandomSecureString();
         }
         Optional<CalendarIntegration> integration = calendarRepository.findByUserAndProject(user, project);
-        if (integration.isPresent()) {
-            key = integration.get().getKey();
-        } else {
-            calendarRepository.save(new CalendarIntegration(user, project, key));
-        }
-        return "https://vernite.dev/api/webhook/calendar?key=" + key;
+        CalendarIntegration calendar = integration.orElse(new CalendarIntegration(user, project, key));
+        calendarSyncService.setWindow(calendar, lookBack, lookAhead);
+        calendar = calendarRepository.save(calendar);
+        return "https://vernite.dev/api/webhook/calendar?key=" + calendar.getKey();
     }
 
+    @RateLimit(cost = 5, budget = 60)
     @GetMapping("/{id}/auditlog")
     public List<AuditLog> getAuditLog(@NotNull @Parameter(hidden = true) User user, @PathVariable long id) {
         Project project = projectRepository.findByIdAndMemberOrThrow(id, user);
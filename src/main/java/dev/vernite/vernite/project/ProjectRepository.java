@@ -27,6 +27,10 @@
 
 package dev.vernite.vernite.project;
 
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+
 import dev.vernite.vernite.common.exception.EntityNotFoundException;
 import dev.vernite.vernite.user.User;
 import dev.vernite.vernite.utils.SoftDeleteRepository;
@@ -36,6 +40,18 @@ import dev.vernite.vernite.utils.SoftDeleteRepository;
  */
 public interface ProjectRepository extends SoftDeleteRepository<Project, Long> {
 
+    /**
+     * Retrieves active project with given id together with its logo and task
+     * counter.
+     * 
+     * @param id must not be {@literal null}.
+     * @return the project with the given id or {@literal Optional#empty()} if
+     *         none found.
+     */
+    @Override
+    @EntityGraph(Project.DETAIL_GRAPH)
+    Optional<Project> findByIdAndActiveNull(Long id);
+
     /**
      * Finds active project by id and checks if user is member of project.
      * 
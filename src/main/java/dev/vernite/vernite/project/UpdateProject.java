@@ -64,4 +64,15 @@ public class UpdateProject {
     @PositiveOrZero(message = "workspace id must be positive or zero")
     private Long workspaceId;
 
+    /**
+     * Whether task numbers in project must be gap-free. Numbers are gap-free
+     * from next reservation onward: numbers already reserved in blocks by other
+     * running instances before the switch can still be skipped.
+     */
+    private Boolean strictTaskNumbers;
+
+    public UpdateProject(String name, String description, Long workspaceId) {
+        this(name, description, workspaceId, null);
+    }
+
 }
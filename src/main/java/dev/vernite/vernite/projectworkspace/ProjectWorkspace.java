@@ -29,6 +29,7 @@ package dev.vernite.vernite.projectworkspace;
 
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.MapsId;
@@ -36,6 +37,7 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import dev.vernite.vernite.integration.calendar.CalendarFeedListener;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.workspace.Workspace;
 
@@ -49,6 +51,7 @@ import org.hibernate.annotations.OnDeleteAction;
 @Data
 @NoArgsConstructor
 @Entity(name = "project_workspace")
+@EntityListeners(CalendarFeedListener.class)
 public class ProjectWorkspace {
     @EmbeddedId
     private ProjectWorkspaceKey id;
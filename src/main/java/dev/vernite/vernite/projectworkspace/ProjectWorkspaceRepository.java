@@ -44,4 +44,12 @@ public interface ProjectWorkspaceRepository extends CrudRepository<ProjectWorksp
     List<ProjectWorkspace> findByProjectOrderByWorkspaceUserUsernameAscWorkspaceUserIdAsc(Project project);
 
     List<ProjectWorkspace> findByWorkspaceUserInAndProject(Iterable<User> user, Project project);
+
+    /**
+     * Finds all project memberships of user.
+     * 
+     * @param user must not be {@literal null}
+     * @return list of connections between user workspaces and projects
+     */
+    List<ProjectWorkspace> findByWorkspaceUser(User user);
 }
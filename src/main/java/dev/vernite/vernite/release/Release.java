@@ -33,6 +33,8 @@ import java.util.List;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -51,7 +53,9 @@ import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import dev.vernite.vernite.integration.calendar.CalendarFeedListener;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.task.Task;
 
@@ -61,6 +65,8 @@ import dev.vernite.vernite.task.Task;
 @Data
 @NoArgsConstructor
 @Entity(name = "releases")
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+@EntityListeners(CalendarFeedListener.class)
 public class Release {
 
     @Id
@@ -86,7 +92,7 @@ public class Release {
     @JsonIgnore
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     @NotNull(message = "release must belong to a project")
     private Project project;
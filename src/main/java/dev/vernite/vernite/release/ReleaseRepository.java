@@ -34,13 +34,17 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.CrudRepository;
 
 import dev.vernite.vernite.common.exception.EntityNotFoundException;
+import dev.vernite.vernite.event.Event;
+import dev.vernite.vernite.event.EventCursor;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.user.User;
+import dev.vernite.vernite.utils.LimitedSpecificationExecutor;
 
 /**
  * CRUD repository for release entity.
  */
-public interface ReleaseRepository extends CrudRepository<Release, Long>, JpaSpecificationExecutor<Release> {
+public interface ReleaseRepository extends CrudRepository<Release, Long>, JpaSpecificationExecutor<Release>,
+        LimitedSpecificationExecutor<Release> {
 
     /**
      * Find release by ID and project.
@@ -65,12 +69,17 @@ public interface ReleaseRepository extends CrudRepository<Release, Long>, JpaSpe
      * @param user      user
      * @param startDate start date
      * @param endDate   end date
-     * @return list of releases
+     * @param after     cursor of last returned event; can be {@literal null}
+     * @param limit     maximal number of releases
+     * @return list of releases after cursor in event order
      */
-    default List<Release> findAllFromUserAndDate(User user, Date startDate, Date endDate) {
+    default List<Release> findAllFromUserAndDate(User user, Date startDate, Date endDate, EventCursor after,
+            int limit) {
         return findAll((root, query, cb) -> cb.and(
                 cb.between(root.get("deadline"), startDate, endDate),
-                cb.equal(root.join("project").join("projectWorkspaces").join("workspace").join("user"), user)));
+                cb.equal(root.join("project").join("projectWorkspaces").join("workspace").join("user"), user),
+                EventCursor.seek(after, Event.Type.RELEASE, query, cb, root.get("deadline"), root.get("deadline"),
+                        root.get("project").get("id"), root.get("id"))), limit);
     }
 
     /**
@@ -79,13 +88,18 @@ public interface ReleaseRepository extends CrudRepository<Release, Long>, JpaSpe
      * @param project   project
      * @param startDate start date
      * @param endDate   end date
-     * @return list of releases
+     * @param after     cursor of last returned event; can be {@literal null}
+     * @param limit     maximal number of releases
+     * @return list of releases after cursor in event order
      */
-    default List<Release> findAllFromProjectAndDate(Project project, Date startDate, Date endDate) {
+    default List<Release> findAllFromProjectAndDate(Project project, Date startDate, Date endDate,
+            EventCursor after, int limit) {
         return findAll((root, query, cb) -> {
             return cb.and(cb.equal(root.get("project"), project),
-                    cb.between(root.get("deadline"), startDate, endDate));
-        });
+                    cb.between(root.get("deadline"), startDate, endDate),
+                    EventCursor.seek(after, Event.Type.RELEASE, query, cb, root.get("deadline"),
+                            root.get("deadline"), root.get("project").get("id"), root.get("id")));
+        }, limit);
     }
 
 }
@@ -36,11 +36,15 @@ import java.util.Set;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.validation.constraints.NotBlank;
@@ -49,6 +53,8 @@ import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import dev.vernite.vernite.integration.calendar.CalendarFeedListener;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.task.Task;
 import dev.vernite.vernite.utils.FieldErrorException;
@@ -66,8 +72,16 @@ import org.hibernate.annotations.OnDeleteAction;
 @Data
 @Entity
 @NoArgsConstructor
+@NamedEntityGraph(name = Sprint.EVENT_GRAPH, attributeNodes = @NamedAttributeNode("project"))
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+@EntityListeners(CalendarFeedListener.class)
 public class Sprint {
 
+    /**
+     * Fetch plan for event feed: project.
+     */
+    public static final String EVENT_GRAPH = "Sprint.event";
+
     public enum Status {
         CREATED, ACTIVE, CLOSED
     }
@@ -98,8 +112,8 @@ public class Sprint {
     @Size(max = 1000, message = "description must be shorter than 1000 characters")
     private String description;
 
-    @ManyToOne
     @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @OnDelete(action = OnDeleteAction.CASCADE)
@@ -27,12 +27,13 @@
 
 package dev.vernite.vernite.sprint;
 
-import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import org.springframework.stereotype.Service;
 
 import dev.vernite.vernite.event.Event;
+import dev.vernite.vernite.event.EventCursor;
 import dev.vernite.vernite.event.EventFilter;
 import dev.vernite.vernite.event.EventProvider;
 import dev.vernite.vernite.project.Project;
@@ -54,14 +55,16 @@ public class SprintEventProvider implements EventProvider {
     private SprintRepository repository;
 
     @Override
-    public Collection<Event> provideUserEvents(User user, Date startDate, Date endDate, EventFilter filter) {
-        return repository.findAllFromUserAndDate(user, startDate, endDate).stream()
+    public List<Event> provideUserEvents(User user, Date startDate, Date endDate, EventFilter filter,
+            EventCursor after, int limit) {
+        return repository.findAllFromUserAndDate(user, startDate, endDate, after, limit).stream()
                 .map(SprintEventProvider::convert).toList();
     }
 
     @Override
-    public Collection<Event> provideProjectEvents(Project project, Date startDate, Date endDate, EventFilter filter) {
-        return repository.findAllFromProjectAndDate(project, startDate, endDate).stream()
+    public List<Event> provideProjectEvents(Project project, Date startDate, Date endDate, EventFilter filter,
+            EventCursor after, int limit) {
+        return repository.findAllFromProjectAndDate(project, startDate, endDate, after, limit).stream()
                 .map(SprintEventProvider::convert).toList();
     }
 
@@ -30,17 +30,34 @@ package dev.vernite.vernite.sprint;
 import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.CrudRepository;
 
 import dev.vernite.vernite.common.exception.EntityNotFoundException;
+import dev.vernite.vernite.event.Event;
+import dev.vernite.vernite.event.EventCursor;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.user.User;
+import dev.vernite.vernite.utils.LimitedSpecificationExecutor;
 
 /**
  * CRUD repository for sprint entity.
  */
-public interface SprintRepository extends CrudRepository<Sprint, Long>, JpaSpecificationExecutor<Sprint> {
+public interface SprintRepository
+        extends CrudRepository<Sprint, Long>, JpaSpecificationExecutor<Sprint>, LimitedSpecificationExecutor<Sprint> {
+
+    /**
+     * Finds first sprints by specification for event feed.
+     * 
+     * @param spec  the specification.
+     * @param limit maximal number of sprints.
+     * @return the sprints with loaded project.
+     */
+    @Override
+    @EntityGraph(Sprint.EVENT_GRAPH)
+    List<Sprint> findAll(Specification<Sprint> spec, int limit);
 
     /**
      * Finds sprint by ID and project.
@@ -65,14 +82,19 @@ public interface SprintRepository extends CrudRepository<Sprint, Long>, JpaSpeci
      * @param user      the user.
      * @param startDate the start date.
      * @param endDate   the end date.
-     * @return the sprints.
+     * @param after     cursor of last returned event; can be {@literal null}.
+     * @param limit     maximal number of sprints.
+     * @return the sprints after cursor in event order.
      */
-    default List<Sprint> findAllFromUserAndDate(User user, Date startDate, Date endDate) {
+    default List<Sprint> findAllFromUserAndDate(User user, Date startDate, Date endDate, EventCursor after,
+            int limit) {
         return findAll((root, query, cb) -> cb.and(
                 cb.or(
                         cb.between(root.get("startDate"), startDate, endDate),
                         cb.between(root.get("finishDate"), startDate, endDate)),
-                cb.equal(root.join("project").join("projectWorkspaces").join("workspace").join("user"), user)));
+                cb.equal(root.join("project").join("projectWorkspaces").join("workspace").join("user"), user),
+                EventCursor.seek(after, Event.Type.SPRINT, query, cb, root.get("startDate"), root.get("finishDate"),
+                        root.get("project").get("id"), root.get("id"))), limit);
     }
 
     /**
@@ -81,14 +103,19 @@ public interface SprintRepository extends CrudRepository<Sprint, Long>, JpaSpeci
      * @param project   the project.
      * @param startDate the start date.
      * @param endDate   the end date.
-     * @return the sprints.
+     * @param after     cursor of last returned event; can be {@literal null}.
+     * @param limit     maximal number of sprints.
+     * @return the sprints after cursor in event order.
      */
-    default List<Sprint> findAllFromProjectAndDate(Project project, Date startDate, Date endDate) {
+    default List<Sprint> findAllFromProjectAndDate(Project project, Date startDate, Date endDate,
+            EventCursor after, int limit) {
         return findAll((root, query, cb) -> cb.and(
                 cb.or(
                         cb.between(root.get("startDate"), startDate, endDate),
                         cb.between(root.get("finishDate"), startDate, endDate)),
-                cb.equal(root.get("project"), project)));
+                cb.equal(root.get("project"), project),
+                EventCursor.seek(after, Event.Type.SPRINT, query, cb, root.get("startDate"), root.get("finishDate"),
+                        root.get("project").get("id"), root.get("id"))), limit);
     }
 
     List<Sprint> findAllByProjectAndStatus(Project project, int status);
@@ -37,16 +37,21 @@ import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -56,32 +61,68 @@ import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonProperty.Access;
 
+import dev.vernite.vernite.integration.calendar.CalendarFeedListener;
 import dev.vernite.vernite.integration.git.Issue;
 import dev.vernite.vernite.integration.git.PullRequest;
 import dev.vernite.vernite.integration.git.github.model.TaskIntegration;
+import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.release.Release;
 import dev.vernite.vernite.sprint.Sprint;
 import dev.vernite.vernite.status.Status;
 import dev.vernite.vernite.task.comment.Comment;
 import dev.vernite.vernite.task.time.TimeTrack;
 import dev.vernite.vernite.user.User;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 
 @Data
 @Entity
 @NoArgsConstructor
 @JsonInclude(Include.NON_NULL)
-@EntityListeners(TaskListener.class)
+@EntityListeners({ TaskListener.class, CalendarFeedListener.class })
+@NamedEntityGraph(name = Task.BOARD_GRAPH, attributeNodes = { @NamedAttributeNode("status"),
+        @NamedAttributeNode("sprint"), @NamedAttributeNode("assignee") })
+@NamedEntityGraph(name = Task.DETAIL_GRAPH, attributeNodes = { @NamedAttributeNode("status"),
+        @NamedAttributeNode("project") })
+@NamedEntityGraph(name = Task.WEBHOOK_GRAPH, attributeNodes = { @NamedAttributeNode("status"),
+        @NamedAttributeNode(value = "project", subgraph = "project") },
+        subgraphs = @NamedSubgraph(name = "project", attributeNodes = @NamedAttributeNode("statuses")))
+@NamedEntityGraph(name = Task.EVENT_GRAPH, attributeNodes = @NamedAttributeNode("status"))
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Task {
 
+    /**
+     * Fetch plan for task lists: status, sprint and assignee.
+     */
+    public static final String BOARD_GRAPH = "Task.board";
+
+    /**
+     * Fetch plan for single task: status and project.
+     */
+    public static final String DETAIL_GRAPH = "Task.detail";
+
+    /**
+     * Fetch plan for webhook updates: status and project with its statuses, used
+     * by {@link #changeStatus(boolean)}.
+     */
+    public static final String WEBHOOK_GRAPH = "Task.webhook";
+
+    /**
+     * Fetch plan for event feed: status.
+     */
+    public static final String EVENT_GRAPH = "Task.event";
+
     public enum Type {
         TASK, USER_STORY, ISSUE, EPIC, SUBTASK;
 
@@ -121,7 +162,7 @@ public class Task {
     @Column(nullable = false, length = 100)
     private String name;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnore
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
@@ -145,16 +186,24 @@ public class Task {
 
     @NotNull
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @OnDelete(action = OnDeleteAction.CASCADE)
     @JoinColumn(nullable = false)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     private Status status;
 
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Setter(AccessLevel.NONE)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Project project;
+
     @NotNull
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @OnDelete(action = OnDeleteAction.CASCADE)
@@ -162,7 +211,7 @@ public class Task {
     private User user;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @OnDelete(action = OnDeleteAction.CASCADE)
@@ -173,7 +222,7 @@ public class Task {
     private int type;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = true)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
@@ -206,7 +255,7 @@ public class Task {
 
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnore
     private Release release;
 
@@ -230,6 +279,14 @@ public class Task {
     @OnDelete(action = OnDeleteAction.CASCADE)
     private List<TaskIntegration> gitHubTaskIntegrations = new ArrayList<>();
 
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private TaskSnapshot snapshot;
+
     /**
      * Default constructor for Task.
      * 
@@ -245,7 +302,7 @@ public class Task {
         this.number = id;
         setName(name);
         setDescription(description);
-        this.status = status;
+        setStatus(status);
         this.user = user;
         this.type = type;
         this.priority = priority;
@@ -335,16 +392,27 @@ public class Task {
         return this.getAssignee() == null ? null : this.getAssignee().getId();
     }
 
+    /**
+     * Sets status of the task. Project of the task is kept equal to project of
+     * the status.
+     * 
+     * @param status new status of the task
+     */
+    public void setStatus(Status status) {
+        this.status = status;
+        this.project = status == null ? null : status.getProject();
+    }
+
     public void changeStatus(boolean isOpen) {
         if (isOpen && !getStatus().isBegin()) {
-            for (Status newStatus : getStatus().getProject().getStatuses()) {
+            for (Status newStatus : getProject().getStatuses()) {
                 if (newStatus.isBegin()) {
                     setStatus(newStatus);
                     break;
                 }
             }
         } else if (!isOpen && !getStatus().isFinal()) {
-            for (Status newStatus : getStatus().getProject().getStatuses()) {
+            for (Status newStatus : getProject().getStatuses()) {
                 if (newStatus.isFinal()) {
                     setStatus(newStatus);
                     break;
@@ -404,6 +472,6 @@ public class Task {
     }
 
     public long getProjectId() {
-        return this.getStatus().getProject().getId();
+        return this.getProject().getId();
     }
 }
@@ -0,0 +1,235 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.task;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.protobuf.Message;
+
+import dev.vernite.protobuf.BasicAction;
+import dev.vernite.vernite.ws.SocketHandler;
+import dev.vernite.vernite.ws.SocketSession;
+
+/**
+ * Collects task changes and broadcasts them to web socket clients. Changes made
+ * in transaction are published only after it commits; rolled back changes are
+ * discarded. Published changes wait for a short window, during which multiple
+ * changes of the same task are coalesced into one packet. Updates are sent as
+ * delta packets carrying only fields changed since the task was loaded.
+ * Values of task are captured on the thread making the change, so packets are
+ * built without touching the entity, which may be detached or modified again
+ * by the time they are sent.
+ */
+@Component
+public class TaskChangeNotifier {
+
+    /**
+     * Values of task sent to clients, captured when change is recorded.
+     * 
+     * @param id        ID of task
+     * @param projectId ID of project of task
+     * @param createdAt creation time of task in milliseconds
+     * @param createdBy ID of user who created task
+     * @param fields    values of fields which can change
+     */
+    record TaskState(long id, long projectId, long createdAt, long createdBy, TaskSnapshot fields) {
+
+        /**
+         * Captures current values of task.
+         * 
+         * @param task must not be {@literal null}
+         * @return state of task
+         */
+        static TaskState of(Task task) {
+            return new TaskState(task.getId(), task.getProjectId(), task.getCreatedAt().getTime(),
+                    task.getCreatedBy(), TaskSnapshot.of(task));
+        }
+
+        /**
+         * Serializes whole task into packet sent to web socket clients.
+         * 
+         * @return builder of packet without action
+         */
+        dev.vernite.protobuf.Task.Builder serialize() {
+            return dev.vernite.protobuf.Task.newBuilder()
+                    .setName(fields.name())
+                    .setDescription(fields.description())
+                    .setCreatedAt(createdAt)
+                    .setType(fields.type())
+                    .setPriority(fields.priority())
+                    .setStatusId(fields.statusId())
+                    .setCreatedBy(createdBy)
+                    .setProjectId(projectId)
+                    .setId(id);
+        }
+
+    }
+
+    /**
+     * Pending change of task.
+     * 
+     * @param task   values of changed task
+     * @param action action to send to clients
+     * @param base   values of task before first of coalesced changes; can be
+     *               {@literal null} if unknown
+     */
+    record TaskChange(TaskState task, BasicAction action, TaskSnapshot base) {
+    }
+
+    private static final Map<Long, TaskChange> PENDING = new ConcurrentHashMap<>();
+
+    @Value("${vernite.ws.task-delta:true}")
+    private boolean delta = true;
+
+    /**
+     * Records change of task. Should be called from entity lifecycle callbacks.
+     * 
+     * @param task   changed task
+     * @param action type of change
+     */
+    public static void record(Task task, BasicAction action) {
+        TaskState state = TaskState.of(task);
+        TaskChange change = new TaskChange(state, action, task.getSnapshot());
+        if (action != BasicAction.REMOVED) {
+            task.setSnapshot(state.fields());
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(change);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, TaskChange> changes = (Map<Long, TaskChange>) TransactionSynchronizationManager
+                .getResource(TaskChangeNotifier.class);
+        if (changes == null) {
+            changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(TaskChangeNotifier.class, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionChanges(changes));
+        }
+        changes.merge(task.getId(), change, TaskChangeNotifier::merge);
+    }
+
+    private static void publish(TaskChange change) {
+        PENDING.merge(change.task().id(), change, TaskChangeNotifier::merge);
+    }
+
+    /**
+     * Merges two consecutive changes of the same task.
+     * 
+     * @param previous earlier change
+     * @param change   later change
+     * @return merged change; {@literal null} if changes cancel out
+     */
+    static TaskChange merge(TaskChange previous, TaskChange change) {
+        if (previous.action() == BasicAction.ADDED) {
+            if (change.action() == BasicAction.REMOVED) {
+                return null;
+            }
+            return new TaskChange(change.task(), BasicAction.ADDED, null);
+        }
+        if (previous.action() == BasicAction.UPDATED && change.action() == BasicAction.UPDATED) {
+            return new TaskChange(change.task(), BasicAction.UPDATED, previous.base());
+        }
+        return change;
+    }
+
+    /**
+     * Returns changes waiting for broadcast.
+     * 
+     * @return unmodifiable view of pending changes by task ID
+     */
+    static Map<Long, TaskChange> getPending() {
+        return Collections.unmodifiableMap(PENDING);
+    }
+
+    /**
+     * Broadcasts pending changes. Runs once per coalescing window.
+     */
+    @Scheduled(fixedDelayString = "${vernite.ws.task-window:100}")
+    public void flush() {
+        for (Long id : PENDING.keySet()) {
+            TaskChange change = PENDING.remove(id);
+            if (change == null) {
+                continue;
+            }
+            Message packet = delta ? delta(change) : null;
+            if (packet != null) {
+                SocketHandler.bc(change.task().projectId(), packet, SocketSession.DELTA);
+            } else {
+                SocketHandler.bc(change.task().projectId(),
+                        change.task().serialize().setAction(change.action()).build());
+            }
+        }
+    }
+
+    /**
+     * Creates packet with fields changed by update.
+     * 
+     * @param change change of task
+     * @return delta packet; {@literal null} if change cannot be sent as delta
+     */
+    static dev.vernite.protobuf.Task delta(TaskChange change) {
+        if (change.action() != BasicAction.UPDATED || change.base() == null) {
+            return null;
+        }
+        TaskState task = change.task();
+        dev.vernite.protobuf.Task.Builder builder = dev.vernite.protobuf.Task.newBuilder().setId(task.id())
+                .setProjectId(task.projectId()).setAction(BasicAction.UPDATED);
+        if (!change.base().delta(task.fields(), builder)) {
+            return null;
+        }
+        return builder.build();
+    }
+
+    private static class TransactionChanges implements TransactionSynchronization {
+
+        private final Map<Long, TaskChange> changes;
+
+        TransactionChanges(Map<Long, TaskChange> changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TaskChangeNotifier.class);
+            if (status == STATUS_COMMITTED) {
+                changes.values().forEach(TaskChangeNotifier::publish);
+            }
+        }
+
+    }
+
+}
@@ -51,7 +51,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import dev.vernite.vernite.auditlog.AuditLog;
 import dev.vernite.vernite.auditlog.AuditLogRepository;
 import dev.vernite.vernite.auditlog.JsonDiff;
-import dev.vernite.vernite.common.utils.counter.CounterSequenceRepository;
+import dev.vernite.vernite.common.ratelimit.RateLimit;
+import dev.vernite.vernite.common.utils.counter.CounterAllocator;
 import dev.vernite.vernite.integration.git.GitTaskService;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.project.ProjectRepository;
@@ -95,7 +96,7 @@ public class TaskController {
 
     private ReleaseRepository releaseRepository;
 
-    private CounterSequenceRepository counterSequenceRepository;
+    private CounterAllocator counterAllocator;
 
     private GitTaskService service;
 
@@ -146,7 +147,7 @@ public class TaskController {
         User assignee = null;
         if (assigneeId.isPresent()) {
             assignee = userRepository.findById(assigneeId.get()).orElse(null);
-            if (!task.getStatus().getProject().isMember(assignee)) {
+            if (!task.getProject().isMember(assignee)) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid assignee");
             }
         }
@@ -179,11 +180,12 @@ public class TaskController {
      * @param filter    filter for tasks
      * @return list of tasks
      */
+    @RateLimit(cost = 5)
     @GetMapping
-    public List<Task> getAll(@NotNull @Parameter(hidden = true) User user, @PathVariable long projectId,
+    public List<TaskView> getAll(@NotNull @Parameter(hidden = true) User user, @PathVariable long projectId,
             @ModelAttribute TaskFilter filter) {
         var project = projectRepository.findByIdAndMemberOrThrow(projectId, user);
-        return taskRepository.findAllOrdered(filter.toSpecification(project));
+        return taskRepository.findAllViews(filter.toSpecification(project));
     }
 
     /**
@@ -213,7 +215,7 @@ public class TaskController {
             @RequestBody @Valid CreateTask create) {
         var project = projectRepository.findByIdAndMemberOrThrow(projectId, user);
         var status = statusRepository.findByIdAndProjectOrThrow(create.getStatusId(), project);
-        var id = counterSequenceRepository.getIncrementCounter(project.getTaskCounter().getId());
+        var id = counterAllocator.next(project.getTaskCounter());
         var task = new Task(id, status, user, create);
 
         handleSprint(create.getSprintId(), task, project);
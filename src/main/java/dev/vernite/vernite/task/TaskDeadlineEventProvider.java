@@ -27,12 +27,13 @@
 
 package dev.vernite.vernite.task;
 
-import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import org.springframework.stereotype.Service;
 
 import dev.vernite.vernite.event.Event;
+import dev.vernite.vernite.event.EventCursor;
 import dev.vernite.vernite.event.EventFilter;
 import dev.vernite.vernite.event.EventProvider;
 import dev.vernite.vernite.project.Project;
@@ -47,21 +48,23 @@ import lombok.AllArgsConstructor;
 public class TaskDeadlineEventProvider implements EventProvider {
 
     private static Event convert(Task task) {
-        return new Event(task.getStatus().getProject().getId(), Event.Type.TASK_DEADLINE, task.getNumber(),
+        return new Event(task.getProjectId(), Event.Type.TASK_DEADLINE, task.getNumber(),
                 task.getName(), task.getDescription(), null, task.getDeadline(), null);
     }
 
     private TaskRepository repository;
 
     @Override
-    public Collection<Event> provideUserEvents(User user, Date startDate, Date endDate, EventFilter filter) {
-        return repository.findAllFromUserAndDateDeadline(user, startDate, endDate, filter).stream()
+    public List<Event> provideUserEvents(User user, Date startDate, Date endDate, EventFilter filter,
+            EventCursor after, int limit) {
+        return repository.findAllFromUserAndDateDeadline(user, startDate, endDate, filter, after, limit).stream()
                 .map(TaskDeadlineEventProvider::convert).toList();
     }
 
     @Override
-    public Collection<Event> provideProjectEvents(Project project, Date startDate, Date endDate, EventFilter filter) {
-        return repository.findAllFromProjectAndDateDeadline(project, startDate, endDate, filter).stream()
+    public List<Event> provideProjectEvents(Project project, Date startDate, Date endDate, EventFilter filter,
+            EventCursor after, int limit) {
+        return repository.findAllFromProjectAndDateDeadline(project, startDate, endDate, filter, after, limit).stream()
                 .map(TaskDeadlineEventProvider::convert).toList();
     }
 
@@ -96,7 +96,7 @@ public class TaskFilter {
     public Specification<Task> toSpecification(Project project) {
         return (Root<Task> root, CriteriaQuery<?> query, CriteriaBuilder builder) -> {
             List<Predicate> predicates = new ArrayList<>();
-            predicates.add(builder.equal(root.get(STATUS).get("project"), project));
+            predicates.add(builder.equal(root.get("project"), project));
             predicates.add(builder.notEqual(root.get("type"), Type.SUBTASK.ordinal()));
             sprintId.ifPresent(id -> predicates
                     .add(builder.or(builder.in(root.join("archiveSprints", JoinType.LEFT).get("id")).value(id),
@@ -29,38 +29,40 @@ package dev.vernite.vernite.task;
 
 import dev.vernite.protobuf.BasicAction;
 import dev.vernite.protobuf.Task.Builder;
-import dev.vernite.vernite.ws.SocketHandler;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.PostPersist;
 import jakarta.persistence.PostRemove;
 import jakarta.persistence.PostUpdate;
 
 public class TaskListener {
 
-    private static Builder serialize(Task task) {
-        return dev.vernite.protobuf.Task.newBuilder()
-            .setName(task.getName())
-            .setDescription(task.getDescription())
-            .setCreatedAt(task.getCreatedAt().getTime())
-            .setType(task.getType())
-            .setPriority(task.getPriority())
-            .setStatusId(task.getStatus().getId())
-            .setCreatedBy(task.getCreatedBy())
-            .setProjectId(task.getStatus().getProject().getId())
-            .setId(task.getId());
+    /**
+     * Serializes whole task into packet sent to web socket clients.
+     * 
+     * @param task must not be {@literal null}
+     * @return builder of packet without action
+     */
+    public static Builder serialize(Task task) {
+        return TaskChangeNotifier.TaskState.of(task).serialize();
+    }
+
+    @PostLoad
+    private void postLoad(Task task) {
+        task.setSnapshot(TaskSnapshot.of(task));
     }
 
     @PostPersist
     private void postPersist(Task task) {
-        SocketHandler.bc(task, serialize(task).setAction(BasicAction.ADDED).build());
+        TaskChangeNotifier.record(task, BasicAction.ADDED);
     }
 
     @PostUpdate
     private void postUpdate(Task task) {
-        SocketHandler.bc(task, serialize(task).setAction(BasicAction.UPDATED).build());
+        TaskChangeNotifier.record(task, BasicAction.UPDATED);
     }
 
     @PostRemove
     private void postRemove(Task task) {
-        SocketHandler.bc(task, serialize(task).setAction(BasicAction.REMOVED).build());
+        TaskChangeNotifier.record(task, BasicAction.REMOVED);
     }
 }
@@ -37,19 +37,25 @@ import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import dev.vernite.vernite.common.exception.EntityNotFoundException;
+import dev.vernite.vernite.event.Event;
+import dev.vernite.vernite.event.EventCursor;
 import dev.vernite.vernite.event.EventFilter;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.user.User;
+import dev.vernite.vernite.utils.LimitedSpecificationExecutor;
 import dev.vernite.vernite.utils.ObjectNotFoundException;
 
 /**
  * CRUD repository for task entity.
  */
-public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecificationExecutor<Task> {
+public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecificationExecutor<Task>,
+        LimitedSpecificationExecutor<Task>, TaskViewRepository {
 
     /**
      * Finds a task by its number and project.
@@ -58,7 +64,41 @@ public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecifica
      * @param number  the number of the task.
      * @return optional of the task.
      */
-    Optional<Task> findByStatusProjectAndNumber(Project project, long number);
+    @EntityGraph(Task.DETAIL_GRAPH)
+    Optional<Task> findByProjectAndNumber(Project project, long number);
+
+    /**
+     * Finds a task by its number and project together with project statuses
+     * needed to change its status.
+     * 
+     * @param project the project.
+     * @param number  the number of the task.
+     * @return optional of the task.
+     */
+    @EntityGraph(Task.WEBHOOK_GRAPH)
+    Optional<Task> findForWebhookByProjectAndNumber(Project project, long number);
+
+    /**
+     * Finds first tasks by specification for event feed.
+     * 
+     * @param spec  the specification.
+     * @param limit maximal number of tasks.
+     * @return the tasks with loaded status.
+     */
+    @Override
+    @EntityGraph(Task.EVENT_GRAPH)
+    List<Task> findAll(Specification<Task> spec, int limit);
+
+    /**
+     * Finds tasks by specification for task lists.
+     * 
+     * @param spec the specification.
+     * @param sort the sort.
+     * @return the tasks with loaded status, sprint and assignee.
+     */
+    @Override
+    @EntityGraph(Task.BOARD_GRAPH)
+    List<Task> findAll(Specification<Task> spec, Sort sort);
 
     /**
      * Finds a task by its number and project or throws error when not found.
@@ -69,7 +109,7 @@ public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecifica
      * @throws ObjectNotFoundException when not found.
      */
     default Task findByProjectAndNumberOrThrow(Project project, long number) {
-        return findByStatusProjectAndNumber(project, number)
+        return findByProjectAndNumber(project, number)
                 .orElseThrow(() -> new EntityNotFoundException("task", number));
     }
 
@@ -89,9 +129,13 @@ public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecifica
      * @param user      the user.
      * @param startDate the start date.
      * @param endDate   the end date.
-     * @return the tasks.
+     * @param filter    the filter.
+     * @param after     cursor of last returned event; can be {@literal null}.
+     * @param limit     maximal number of tasks.
+     * @return the tasks after cursor in event order.
      */
-    default List<Task> findAllFromUserAndDateDeadline(User user, Date startDate, Date endDate, EventFilter filter) {
+    default List<Task> findAllFromUserAndDateDeadline(User user, Date startDate, Date endDate, EventFilter filter,
+            EventCursor after, int limit) {
         return findAll((root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
             predicates.add(cb.isNotNull(root.get("assignee")));
@@ -102,8 +146,10 @@ public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecifica
             predicates.add(cb.and(
                     cb.isNotNull(root.get("deadline")),
                     cb.between(root.get("deadline"), startDate, endDate)));
+            predicates.add(EventCursor.seek(after, Event.Type.TASK_DEADLINE, query, cb, root.get("deadline"),
+                    root.get("deadline"), root.get("project").get("id"), root.get("number")));
             return cb.and(predicates.toArray(new Predicate[0]));
-        });
+        }, limit);
     }
 
     /**
@@ -112,21 +158,26 @@ public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecifica
      * @param project   the project.
      * @param startDate the start date.
      * @param endDate   the end date.
-     * @return the tasks.
+     * @param filter    the filter.
+     * @param after     cursor of last returned event; can be {@literal null}.
+     * @param limit     maximal number of tasks.
+     * @return the tasks after cursor in event order.
      */
     default List<Task> findAllFromProjectAndDateDeadline(Project project, Date startDate, Date endDate,
-            EventFilter filter) {
+            EventFilter filter, EventCursor after, int limit) {
         return findAll((root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
-            predicates.add(cb.equal(root.get("status").get("project"), project));
+            predicates.add(cb.equal(root.get("project"), project));
             if (filter.isShowEnded()) {
                 predicates.add(cb.equal(root.get("status").get("isFinal"), false));
             }
             predicates.add(cb.and(
                     cb.isNotNull(root.get("deadline")),
                     cb.between(root.get("deadline"), startDate, endDate)));
+            predicates.add(EventCursor.seek(after, Event.Type.TASK_DEADLINE, query, cb, root.get("deadline"),
+                    root.get("deadline"), root.get("project").get("id"), root.get("number")));
             return cb.and(predicates.toArray(new Predicate[0]));
-        });
+        }, limit);
     }
 
     /**
@@ -135,9 +186,13 @@ public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecifica
      * @param user      the user.
      * @param startDate the start date.
      * @param endDate   the end date.
-     * @return the tasks.
+     * @param filter    the filter.
+     * @param after     cursor of last returned event; can be {@literal null}.
+     * @param limit     maximal number of tasks.
+     * @return the tasks after cursor in event order.
      */
-    default List<Task> findAllFromUserAndDateEstimate(User user, Date startDate, Date endDate, EventFilter filter) {
+    default List<Task> findAllFromUserAndDateEstimate(User user, Date startDate, Date endDate, EventFilter filter,
+            EventCursor after, int limit) {
         return findAll((root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
             predicates.add(cb.isNotNull(root.get("assignee")));
@@ -149,8 +204,10 @@ public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecifica
                     cb.and(
                             cb.isNotNull(root.get("estimatedDate")),
                             cb.between(root.get("estimatedDate"), startDate, endDate)));
+            predicates.add(EventCursor.seek(after, Event.Type.TASK_ESTIMATE, query, cb, root.get("estimatedDate"),
+                    root.get("estimatedDate"), root.get("project").get("id"), root.get("number")));
             return cb.and(predicates.toArray(new Predicate[0]));
-        });
+        }, limit);
     }
 
     /**
@@ -159,13 +216,16 @@ public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecifica
      * @param project   the project.
      * @param startDate the start date.
      * @param endDate   the end date.
-     * @return the tasks.
+     * @param filter    the filter.
+     * @param after     cursor of last returned event; can be {@literal null}.
+     * @param limit     maximal number of tasks.
+     * @return the tasks after cursor in event order.
      */
     default List<Task> findAllFromProjectAndDateEstimate(Project project, Date startDate, Date endDate,
-            EventFilter filter) {
+            EventFilter filter, EventCursor after, int limit) {
         return findAll((root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
-            predicates.add(cb.equal(root.get("status").get("project"), project));
+            predicates.add(cb.equal(root.get("project"), project));
             if (filter.isShowEnded()) {
                 predicates.add(cb.equal(root.get("status").get("isFinal"), false));
             }
@@ -173,10 +233,22 @@ public interface TaskRepository extends CrudRepository<Task, Long>, JpaSpecifica
                     cb.and(
                             cb.isNotNull(root.get("estimatedDate")),
                             cb.between(root.get("estimatedDate"), startDate, endDate)));
+            predicates.add(EventCursor.seek(after, Event.Type.TASK_ESTIMATE, query, cb, root.get("estimatedDate"),
+                    root.get("estimatedDate"), root.get("project").get("id"), root.get("number")));
             return cb.and(predicates.toArray(new Predicate[0]));
-        });
+        }, limit);
     }
 
     List<Task> findByAssigneeAndStatusIsFinalFalse(User loggedUser);
 
+    /**
+     * Finds all tasks in project.
+     * 
+     * @param projectId ID of project
+     * @return list of tasks
+     */
+    @EntityGraph(Task.BOARD_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.project.id = ?1")
+    List<Task> findByProjectId(long projectId);
+
 }
@@ -0,0 +1,99 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.task;
+
+import java.util.Objects;
+
+/**
+ * Values of task fields sent to web socket clients, captured when task is
+ * loaded or broadcast. Used to find fields changed since then.
+ * 
+ * @param name        name of task
+ * @param description description of task
+ * @param statusId    ID of status of task
+ * @param type        type of task
+ * @param priority    priority of task
+ */
+record TaskSnapshot(String name, String description, long statusId, int type, String priority) {
+
+    /**
+     * Captures current values of task.
+     * 
+     * @param task must not be {@literal null}
+     * @return snapshot of task
+     */
+    static TaskSnapshot of(Task task) {
+        return new TaskSnapshot(task.getName(), task.getDescription(), task.getStatus().getId(), task.getType(),
+                task.getPriority());
+    }
+
+    /**
+     * Writes fields which differ from this snapshot into builder. Protobuf cannot
+     * distinguish field set to default value from missing one, so such change
+     * cannot be sent as delta.
+     * 
+     * @param current current values of task
+     * @param builder builder of delta packet
+     * @return {@literal false} if some changed field has default value and whole
+     *         task has to be sent instead
+     */
+    boolean delta(TaskSnapshot current, dev.vernite.protobuf.Task.Builder builder) {
+        if (!Objects.equals(name, current.name)) {
+            if (current.name == null || current.name.isEmpty()) {
+                return false;
+            }
+            builder.setName(current.name);
+        }
+        if (!Objects.equals(description, current.description)) {
+            if (current.description == null || current.description.isEmpty()) {
+                return false;
+            }
+            builder.setDescription(current.description);
+        }
+        if (statusId != current.statusId) {
+            if (current.statusId == 0) {
+                return false;
+            }
+            builder.setStatusId(current.statusId);
+        }
+        if (type != current.type) {
+            if (current.type == 0) {
+                return false;
+            }
+            builder.setType(current.type);
+        }
+        if (!Objects.equals(priority, current.priority)) {
+            if (current.priority == null || current.priority.isEmpty()) {
+                return false;
+            }
+            builder.setPriority(current.priority);
+        }
+        return true;
+    }
+
+}
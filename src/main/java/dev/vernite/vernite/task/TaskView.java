@@ -0,0 +1,90 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.task;
+
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import dev.vernite.vernite.integration.git.Issue;
+import dev.vernite.vernite.integration.git.PullRequest;
+
+/**
+ * Read-only view of task used by task list. It has the same JSON shape as
+ * {@link Task}, but is built from a fixed number of queries instead of lazy
+ * loading associations of every task.
+ *
+ * @param id                number of task in project
+ * @param name              name of task
+ * @param description       description of task
+ * @param createdAt         creation date
+ * @param type              ordinal of task type
+ * @param deadline          deadline of task
+ * @param estimatedDate     estimated date of task
+ * @param priority          priority of task
+ * @param storyPoints       story points of task
+ * @param lastUpdated       date of last update
+ * @param statusId          ID of status
+ * @param createdBy         ID of user who created task
+ * @param assigneeId        ID of assignee
+ * @param parentTaskId      number of parent task
+ * @param releaseId         ID of release
+ * @param sprintId          ID of current sprint
+ * @param projectId         ID of project
+ * @param archivedSprintIds IDs of archived sprints
+ * @param pull              linked pull request
+ * @param issue             linked issue
+ * @param timeTracks        time tracks of task
+ * @param subTasks          subtasks of task
+ */
+@JsonInclude(Include.NON_NULL)
+public record TaskView(long id, String name, String description, Date createdAt, int type, Date deadline,
+        Date estimatedDate, String priority, long storyPoints, Date lastUpdated, long statusId, long createdBy,
+        Long assigneeId, Long parentTaskId, Long releaseId, Long sprintId, long projectId,
+        List<Long> archivedSprintIds, PullRequest pull, Issue issue, List<TimeTrackView> timeTracks,
+        List<TaskView> subTasks) {
+
+    /**
+     * Read-only view of time track with the same JSON shape as
+     * {@link dev.vernite.vernite.task.time.TimeTrack}.
+     *
+     * @param id        ID of time track
+     * @param edited    whether time track was edited
+     * @param startDate start date
+     * @param endDate   end date
+     * @param taskId    number of task
+     * @param projectId ID of project
+     * @param userId    ID of user
+     */
+    public record TimeTrackView(long id, boolean edited, Date startDate, Date endDate, long taskId, long projectId,
+            long userId) {
+    }
+
+}
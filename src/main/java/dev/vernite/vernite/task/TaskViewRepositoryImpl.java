@@ -0,0 +1,214 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import dev.vernite.vernite.integration.git.Issue;
+import dev.vernite.vernite.integration.git.PullRequest;
+import dev.vernite.vernite.integration.git.github.model.TaskIntegration;
+import dev.vernite.vernite.task.TaskView.TimeTrackView;
+
+/**
+ * Implementation of {@link TaskViewRepository}. Selects only columns needed by
+ * {@link TaskView}; associations are loaded with one query per kind for all
+ * tasks at once.
+ */
+class TaskViewRepositoryImpl implements TaskViewRepository {
+
+    private static final String ARCHIVED_SPRINTS = "SELECT t.id, s.id FROM Task t JOIN t.archiveSprints s "
+            + "WHERE t.id IN :ids";
+
+    private static final String INTEGRATIONS = "SELECT i.task.id, i.id.type, i.issueId, i.merged, i.branch, "
+            + "p.repositoryOwner, p.repositoryName FROM github_task_integration i JOIN i.projectIntegration p "
+            + "WHERE i.task.id IN :ids";
+
+    private static final String TIME_TRACKS = "SELECT t.id, t.edited, t.startDate, t.endDate, t.task.id, t.user.id "
+            + "FROM TimeTrack t WHERE t.task.id IN :ids ORDER BY t.id";
+
+    private record Row(long id, long number, String name, String description, Date createdAt, int type,
+            Date deadline, Date estimatedDate, String priority, long storyPoints, Date lastUpdated, long statusId,
+            long createdBy, Long assigneeId, Long parentTaskId, Long releaseId, Long sprintId, long projectId,
+            Long parentId) {
+
+        boolean hasSubTasks() {
+            return type != Task.Type.EPIC.ordinal();
+        }
+    }
+
+    private static class Related {
+
+        private final List<Long> archivedSprintIds = new ArrayList<>();
+
+        private final List<TimeTrackView> timeTracks = new ArrayList<>();
+
+        private PullRequest pull;
+
+        private Issue issue;
+
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskView> findAllViews(Specification<Task> spec) {
+        List<Row> top = select(spec, true);
+        Map<Long, Row> rows = new LinkedHashMap<>();
+        top.forEach(row -> rows.put(row.id(), row));
+
+        Map<Long, List<Row>> children = new HashMap<>();
+        Set<Long> frontier = new HashSet<>();
+        top.stream().filter(Row::hasSubTasks).forEach(row -> frontier.add(row.id()));
+        Set<Long> expanded = new HashSet<>();
+        while (!frontier.isEmpty()) {
+            expanded.addAll(frontier);
+            Collection<Long> parents = List.copyOf(frontier);
+            frontier.clear();
+            for (Row row : select((root, query, cb) -> root.get("parentTask").get("id").in(parents), false)) {
+                children.computeIfAbsent(row.parentId(), id -> new ArrayList<>()).add(row);
+                rows.putIfAbsent(row.id(), row);
+                if (row.hasSubTasks() && !expanded.contains(row.id())) {
+                    frontier.add(row.id());
+                }
+            }
+        }
+
+        Map<Long, Related> related = loadRelated(rows);
+        Map<Long, TaskView> views = new HashMap<>();
+        List<TaskView> result = new ArrayList<>(top.size());
+        for (Row row : top) {
+            result.add(view(row, children, related, views));
+        }
+        return result;
+    }
+
+    private TaskView view(Row row, Map<Long, List<Row>> children, Map<Long, Related> related,
+            Map<Long, TaskView> views) {
+        TaskView cached = views.get(row.id());
+        if (cached != null) {
+            return cached;
+        }
+        List<TaskView> subTasks = new ArrayList<>();
+        if (row.hasSubTasks()) {
+            for (Row child : children.getOrDefault(row.id(), List.of())) {
+                subTasks.add(view(child, children, related, views));
+            }
+        }
+        Related r = related.get(row.id());
+        TaskView view = new TaskView(row.number(), row.name(), row.description(), row.createdAt(), row.type(),
+                row.deadline(), row.estimatedDate(), row.priority(), row.storyPoints(), row.lastUpdated(),
+                row.statusId(), row.createdBy(), row.assigneeId(), row.parentTaskId(), row.releaseId(),
+                row.sprintId(), row.projectId(), r.archivedSprintIds, r.pull, r.issue, r.timeTracks, subTasks);
+        views.put(row.id(), view);
+        return view;
+    }
+
+    private Map<Long, Related> loadRelated(Map<Long, Row> rows) {
+        Map<Long, Related> related = new HashMap<>();
+        rows.keySet().forEach(id -> related.put(id, new Related()));
+        if (rows.isEmpty()) {
+            return related;
+        }
+        Set<Long> ids = rows.keySet();
+        for (Object[] sprint : query(ARCHIVED_SPRINTS, ids)) {
+            related.get((Long) sprint[0]).archivedSprintIds.add((Long) sprint[1]);
+        }
+        for (Object[] integration : query(INTEGRATIONS, ids)) {
+            Row row = rows.get((Long) integration[0]);
+            Related r = related.get(row.id());
+            int type = (Integer) integration[1];
+            long issueId = (Long) integration[2];
+            String link = TaskIntegration.link((String) integration[5], (String) integration[6], type, issueId);
+            if (type == TaskIntegration.Type.PULL_REQUEST.ordinal() && r.pull == null) {
+                r.pull = new PullRequest(issueId, link, row.name(), row.description(), "github",
+                        (String) integration[4]);
+                if ((Boolean) integration[3]) {
+                    r.pull.setState("merged");
+                }
+            } else if (type == TaskIntegration.Type.ISSUE.ordinal() && r.issue == null) {
+                r.issue = new Issue(issueId, link, row.name(), row.description(), "github");
+            }
+        }
+        for (Object[] track : query(TIME_TRACKS, ids)) {
+            Row row = rows.get((Long) track[4]);
+            related.get(row.id()).timeTracks.add(new TimeTrackView((Long) track[0], (Boolean) track[1],
+                    (Date) track[2], (Date) track[3], row.number(), row.projectId(), (Long) track[5]));
+        }
+        return related;
+    }
+
+    private List<Object[]> query(String jpql, Collection<Long> ids) {
+        return entityManager.createQuery(jpql, Object[].class).setParameter("ids", ids).getResultList();
+    }
+
+    private List<Row> select(Specification<Task> spec, boolean distinct) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+        var status = root.join("status");
+        var parent = root.join("parentTask", JoinType.LEFT);
+        query.multiselect(root.get("id"), root.get("number"), root.get("name"), root.get("description"),
+                root.get("createdAt"), root.get("type"), root.get("deadline"), root.get("estimatedDate"),
+                root.get("priority"), root.get("storyPoints"), root.get("lastUpdated"), status.get("id"),
+                root.join("user").get("id"), root.join("assignee", JoinType.LEFT).get("id"), parent.get("number"),
+                root.join("release", JoinType.LEFT).get("id"), root.join("sprint", JoinType.LEFT).get("id"),
+                root.get("project").get("id"), parent.get("id"));
+        query.where(spec.toPredicate(root, query, cb));
+        query.distinct(distinct);
+        query.orderBy(cb.asc(root.get("name")), cb.asc(root.get(distinct ? "number" : "id")));
+        List<Row> result = new ArrayList<>();
+        for (Tuple t : entityManager.createQuery(query).getResultList()) {
+            result.add(new Row(t.get(0, Long.class), t.get(1, Long.class), t.get(2, String.class),
+                    t.get(3, String.class), t.get(4, Date.class), t.get(5, Integer.class), t.get(6, Date.class),
+                    t.get(7, Date.class), t.get(8, String.class), t.get(9, Long.class), t.get(10, Date.class),
+                    t.get(11, Long.class), t.get(12, Long.class), t.get(13, Long.class), t.get(14, Long.class),
+                    t.get(15, Long.class), t.get(16, Long.class), t.get(17, Long.class), t.get(18, Long.class)));
+        }
+        return result;
+    }
+
+}
@@ -155,7 +155,7 @@ public class TimeTrack {
     }
 
     public long getProjectId() {
-        return task.getStatus().getProject().getId();
+        return task.getProjectId();
     }
 
     public long getUserId() {
@@ -65,7 +65,7 @@ public interface TimeTrackRepository extends CrudRepository<TimeTrack, Long> {
      * @param project the project.
      * @return list with time tracks.
      */
-    List<TimeTrack> findByTaskStatusProject(Project project);
+    List<TimeTrack> findByTaskProject(Project project);
 
     /**
      * Finds time tracks for a user.
@@ -32,7 +32,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import dev.vernite.vernite.common.utils.counter.CounterSequenceRepository;
+import dev.vernite.vernite.common.utils.counter.CounterAllocator;
 import dev.vernite.vernite.integration.git.GitTaskService;
 import dev.vernite.vernite.project.ProjectRepository;
 import dev.vernite.vernite.task.Task;
@@ -54,7 +54,7 @@ public class TicketController {
 
     private TaskRepository taskRepository;
 
-    private CounterSequenceRepository counterSequenceRepository;
+    private CounterAllocator counterAllocator;
 
     private ProjectRepository projectRepository;
 
@@ -71,7 +71,7 @@ public class TicketController {
     public Mono<CreateTicket> createTicket(@NotNull @Parameter(hidden = true) User user,
             @RequestBody @Valid CreateTicket createTicket) {
         var project = projectRepository.findById(1L).orElseThrow();
-        var id = counterSequenceRepository.getIncrementCounter(project.getTaskCounter().getId());
+        var id = counterAllocator.next(project.getTaskCounter());
         var status = project.getStatuses().stream().filter(x -> x.isBegin()).findFirst().get();
         var title = createTicket.getTitle();
         var description = createTicket.getDescription();
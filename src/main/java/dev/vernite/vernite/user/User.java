@@ -38,6 +38,7 @@ import java.util.List;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -53,6 +54,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import dev.vernite.vernite.common.utils.counter.CounterSequence;
+import dev.vernite.vernite.integration.calendar.CalendarFeedListener;
 import dev.vernite.vernite.workspace.Workspace;
 
 import org.hibernate.annotations.OnDelete;
@@ -60,6 +62,7 @@ import org.hibernate.annotations.OnDeleteAction;
 
 @Entity
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+@EntityListeners(CalendarFeedListener.class)
 public class User {
 
     @Id
@@ -27,7 +27,6 @@
 
 package dev.vernite.vernite.user;
 
-import java.util.Date;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +41,11 @@ import org.springframework.web.method.support.ModelAndViewContainer;
 import org.springframework.web.server.ResponseStatusException;
 
 import dev.vernite.vernite.user.auth.AuthController;
+import dev.vernite.vernite.user.session.SessionAccessBuffer;
+import dev.vernite.vernite.user.session.SessionCache;
+import dev.vernite.vernite.user.session.SessionCache.CachedSession;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.NotNull;
@@ -50,7 +54,13 @@ import jakarta.validation.constraints.NotNull;
 public class UserResolver implements HandlerMethodArgumentResolver {
 
     @Autowired
-    private UserSessionRepository userSessionRepository;
+    private SessionAccessBuffer sessionAccessBuffer;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private SessionCache sessionCache;
 
     @Override
     public Object resolveArgument(MethodParameter parameter, @Nullable ModelAndViewContainer mavContainer,
@@ -59,33 +69,25 @@ public class UserResolver implements HandlerMethodArgumentResolver {
         if (req != null && req.getCookies() != null) {
             for (Cookie c : req.getCookies()) {
                 if (c.getName().equals(AuthController.COOKIE_NAME)) {
-                    Optional<UserSession> session = userSessionRepository.findBySession(c.getValue());
+                    Optional<CachedSession> session = sessionCache.get(c.getValue());
                     if (!session.isPresent()) {
                         break;
                     }
-                    UserSession us = session.get();
-                    boolean dirty = false;
+                    CachedSession us = session.get();
                     long now = System.currentTimeMillis();
-                    if (us.getLastUsed() == null || now - us.getLastUsed().getTime() >= 60_000) {
-                        us.setLastUsed(new Date(now));
-                        dirty = true;
-                    }
                     String ip = req.getHeader("X-Forwarded-For");
                     if (ip == null) {
                         ip = req.getRemoteAddr();
                     }
-                    if (!ip.equals(us.getIp())) {
-                        us.setIp(ip);
-                        dirty = true;
-                    }
-                    if (dirty) {
-                        userSessionRepository.save(us);
+                    if (now - us.lastUsed() >= 60_000 || !ip.equals(us.ip())) {
+                        sessionAccessBuffer.record(us.id(), ip, now);
+                        sessionCache.update(c.getValue(), us.withAccess(ip, now));
                     }
-                    if (us.getUser().isDeleted() && parameter.hasParameterAnnotation(NotNull.class)) {
+                    if (us.userDeleted() && parameter.hasParameterAnnotation(NotNull.class)) {
                         throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "user deleted");
                     }
-                    req.setAttribute("userID", us.getId());
-                    return us.getUser();
+                    req.setAttribute("userID", us.id());
+                    return entityManager.getReference(User.class, us.userId());
                 }
             }
         }
@@ -40,7 +40,6 @@ import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -64,6 +63,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -71,12 +71,14 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import dev.vernite.vernite.common.ratelimit.RateLimit;
 import dev.vernite.vernite.common.utils.counter.CounterSequence;
 import dev.vernite.vernite.event.Event;
 import dev.vernite.vernite.event.EventFilter;
 import dev.vernite.vernite.event.EventService;
 import dev.vernite.vernite.integration.calendar.CalendarIntegration;
 import dev.vernite.vernite.integration.calendar.CalendarIntegrationRepository;
+import dev.vernite.vernite.integration.calendar.CalendarSyncService;
 import dev.vernite.vernite.task.time.TimeTrack;
 import dev.vernite.vernite.task.time.TimeTrackRepository;
 import dev.vernite.vernite.user.DeleteAccountRequest;
@@ -87,6 +89,7 @@ import dev.vernite.vernite.user.User;
 import dev.vernite.vernite.user.UserRepository;
 import dev.vernite.vernite.user.UserSession;
 import dev.vernite.vernite.user.UserSessionRepository;
+import dev.vernite.vernite.user.session.SessionCache;
 import dev.vernite.vernite.utils.ErrorType;
 import dev.vernite.vernite.utils.ObjectNotFoundException;
 import dev.vernite.vernite.utils.SecureStringUtils;
@@ -125,6 +128,9 @@ public class AuthController {
     @Autowired
     private UserSessionRepository userSessionRepository;
 
+    @Autowired
+    private SessionCache sessionCache;
+
     @Autowired
     private JavaMailSender javaMailSender;
 
@@ -143,6 +149,9 @@ public class AuthController {
     @Autowired
     private CalendarIntegrationRepository calendarRepository;
 
+    @Autowired
+    private CalendarSyncService calendarSyncService;
+
     @Setter
     @Value("${server.servlet.context-path}")
     private String cookiePath;
@@ -167,30 +176,34 @@ public class AuthController {
     }
 
     @Operation(summary = "Get user events", description = "This method gets events for logged in user. `From` and `to` are required timestamps.")
-    @ApiResponse(responseCode = "200", description = "List with events for current user. Empty list if no events. Tasks are only displayed if they are not finished and assigned to user.")
+    @ApiResponse(responseCode = "200", description = "List with events for current user. Empty list if no events. Tasks are only displayed if they are not finished and assigned to user. When `limit` is reached, `X-Next-Cursor` header contains `cursor` of next page. When some events could not be loaded, `X-Incomplete-Page` header is set and there is no next page cursor.")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or limit.", content = @Content())
     @ApiResponse(responseCode = "401", description = "User is not logged.", content = @Content())
+    @RateLimit(cost = 10, budget = 60)
     @GetMapping("/me/events")
-    public Set<Event> getEvents(@NotNull @Parameter(hidden = true) User loggedUser, long from, long to,
-            @ModelAttribute EventFilter filter) {
-        return eventService.getUserEvents(loggedUser, new Date(from), new Date(to), filter);
+    public ResponseEntity<List<Event>> getEvents(@NotNull @Parameter(hidden = true) User loggedUser, long from,
+            long to, @ModelAttribute EventFilter filter, @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        return eventService.getUserEvents(loggedUser, new Date(from), new Date(to), filter, cursor, limit)
+                .toResponse();
     }
 
-    @Operation(summary = "Create synchronization link", description = "Creates synchronization link for user events calendar")
+    @Operation(summary = "Create synchronization link", description = "Creates synchronization link for user events calendar. Optional `lookBack` and `lookAhead` set number of days before and after now with events in calendar.")
     @ApiResponse(description = "Link.", responseCode = "200")
+    @ApiResponse(description = "Invalid calendar window.", responseCode = "400", content = @Content(schema = @Schema(implementation = ErrorType.class)))
     @ApiResponse(description = "No user logged in.", responseCode = "401", content = @Content(schema = @Schema(implementation = ErrorType.class)))
     @PostMapping("/me/events/sync")
-    public String createCalendarSync(@NotNull @Parameter(hidden = true) User loggedUser) {
+    public String createCalendarSync(@NotNull @Parameter(hidden = true) User loggedUser,
+            @RequestParam(required = false) Integer lookBack, @RequestParam(required = false) Integer lookAhead) {
         String key = SecureStringUtils.generateRandomSecureString();
         while (calendarRepository.findByKey(key).isPresent()) {
             key = SecureStringUtils.generateRandomSecureString();
         }
         Optional<CalendarIntegration> integration = calendarRepository.findByUserAndProjectNull(loggedUser);
-        if (integration.isPresent()) {
-            key = integration.get().getKey();
-        } else {
-            calendarRepository.save(new CalendarIntegration(loggedUser, key));
-        }
-        return "https://vernite.dev/api/webhook/calendar?key=" + key;
+        CalendarIntegration calendar = integration.orElse(new CalendarIntegration(loggedUser, key));
+        calendarSyncService.setWindow(calendar, lookBack, lookAhead);
+        calendar = calendarRepository.save(calendar);
+        return "https://vernite.dev/api/webhook/calendar?key=" + calendar.getKey();
     }
 
     @Operation(summary = "Delete account", description = "This method deletes currently logged user by sending an e-mail with a confirmation link.")
@@ -235,6 +248,7 @@ public class AuthController {
         deleteAccountRepository.delete(d);
         loggedUser.setDeleted(new Date());
         userRepository.save(loggedUser);
+        sessionCache.invalidateUser(loggedUser.getId());
     }
 
     @Operation(summary = "Recover deleted account", description = "This method recovers a deleted account if it was deleted in less than 1 week.")
@@ -252,6 +266,7 @@ public class AuthController {
         }
         loggedUser.setDeleted(null);
         this.userRepository.save(loggedUser);
+        sessionCache.invalidateUser(loggedUser.getId());
         return loggedUser;
     }
 
@@ -413,6 +428,7 @@ public class AuthController {
             @Parameter(hidden = true) @CookieValue(value = AuthController.COOKIE_NAME, required = false) String session) {
         if (session != null) {
             this.userSessionRepository.deleteBySession(session);
+            sessionCache.invalidate(session);
             Cookie cookie = new Cookie(COOKIE_NAME, null);
             cookie.setPath("/api");
             cookie.setMaxAge(0);
@@ -596,5 +612,6 @@ public class AuthController {
             u.setEmail("(deleted) " + SecureStringUtils.generateRandomSecureString());
         }
         this.userRepository.saveAll(users);
+        users.forEach(u -> sessionCache.invalidateUser(u.getId()));
     }
 }
@@ -0,0 +1,127 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.user.session;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer of session accesses. Request path only records the
+ * latest access of each session in memory; accesses are written to database in
+ * one batch every few seconds. Flush interval has to stay well below the 30
+ * minute expiry of not remembered sessions in {@code remove_old_content} event.
+ */
+@Component
+public class SessionAccessBuffer {
+
+    private static final Logger L = LoggerFactory.getLogger(SessionAccessBuffer.class);
+
+    private static final String UPDATE = "UPDATE `user_session` SET `last_used` = ?, `ip` = ? WHERE `id` = ?";
+
+    private record Access(String ip, long time) {
+    }
+
+    private final Map<Long, Access> pending = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SessionAccessBuffer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records access to session. Older not flushed access of the same session is
+     * replaced.
+     * 
+     * @param sessionId id of session
+     * @param ip        ip address of client
+     * @param time      time of access in milliseconds
+     */
+    public void record(long sessionId, String ip, long time) {
+        pending.merge(sessionId, new Access(ip, time), (old, access) -> old.time() > access.time() ? old : access);
+    }
+
+    /**
+     * Returns number of sessions waiting for flush.
+     * 
+     * @return number of sessions
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Writes recorded accesses to database. Accesses of sessions which were
+     * deleted in the meantime do not update anything. On failure accesses are
+     * kept for next flush unless newer ones were recorded.
+     */
+    @Scheduled(fixedDelayString = "${vernite.session-access.flush-interval:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pending.keySet());
+        List<Access> accesses = new ArrayList<>(ids.size());
+        List<Object[]> batch = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Access access = pending.remove(id);
+            if (access != null) {
+                accesses.add(access);
+                batch.add(new Object[] { new Timestamp(access.time()), access.ip(), id });
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE, batch);
+        } catch (DataAccessException e) {
+            L.warn("Cannot flush session accesses: {}", e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                record((Long) batch.get(i)[2], accesses.get(i).ip(), accesses.get(i).time());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.user.session;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import dev.vernite.vernite.user.UserSession;
+import dev.vernite.vernite.user.UserSessionRepository;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache of user sessions keyed by session token. It keeps only data needed to
+ * authenticate request, so user entity is not loaded from database on every
+ * call. Entries expire after short time to bound how long changes made outside
+ * of this instance (other instances, database events) stay invisible; changes
+ * made by this application must call one of invalidate methods.
+ */
+@Component
+public class SessionCache {
+
+    /**
+     * Authentication data of cached session.
+     * 
+     * @param id          session id
+     * @param userId      id of session owner
+     * @param userDeleted whether session owner has deleted account
+     * @param ip          last known ip address of session
+     * @param lastUsed    time of last use in milliseconds
+     */
+    public record CachedSession(long id, long userId, boolean userDeleted, String ip, long lastUsed) {
+
+        static CachedSession of(UserSession session) {
+            long lastUsed = session.getLastUsed() == null ? 0 : session.getLastUsed().getTime();
+            return new CachedSession(session.getId(), session.getUser().getId(), session.getUser().isDeleted(),
+                    session.getIp(), lastUsed);
+        }
+
+        /**
+         * Returns copy of this session with updated access data.
+         * 
+         * @param ip       new ip address
+         * @param lastUsed new time of last use
+         * @return updated session
+         */
+        public CachedSession withAccess(String ip, long lastUsed) {
+            return new CachedSession(id, userId, userDeleted, ip, lastUsed);
+        }
+    }
+
+    private final UserSessionRepository userSessionRepository;
+
+    private final Cache<String, CachedSession> cache;
+
+    @Autowired
+    public SessionCache(UserSessionRepository userSessionRepository,
+            @Value("${vernite.session-cache.max-size:10000}") long maxSize,
+            @Value("${vernite.session-cache.ttl:60}") long ttl) {
+        this.userSessionRepository = userSessionRepository;
+        this.cache = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofSeconds(ttl))
+                .recordStats().build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, "userSessions");
+    }
+
+    /**
+     * Finds session with given token. On cache miss session is loaded from
+     * database; missing sessions are not cached.
+     * 
+     * @param token session token
+     * @return cached session or empty optional if session does not exist
+     */
+    public Optional<CachedSession> get(String token) {
+        return Optional.ofNullable(cache.get(token,
+                key -> userSessionRepository.findBySession(key).map(CachedSession::of).orElse(null)));
+    }
+
+    /**
+     * Replaces cached data of session; does nothing if session is not cached.
+     * 
+     * @param token   session token
+     * @param session new session data
+     */
+    public void update(String token, CachedSession session) {
+        cache.asMap().computeIfPresent(token, (key, old) -> session);
+    }
+
+    /**
+     * Removes session with given token from cache.
+     * 
+     * @param token session token
+     */
+    public void invalidate(String token) {
+        cache.invalidate(token);
+    }
+
+    /**
+     * Removes all sessions of given user from cache.
+     * 
+     * @param userId id of user
+     */
+    public void invalidateUser(long userId) {
+        cache.asMap().values().removeIf(session -> session.userId() == userId);
+    }
+
+    /**
+     * Removes all sessions from cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+}
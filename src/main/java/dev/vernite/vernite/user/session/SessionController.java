@@ -81,6 +81,9 @@ public class SessionController {
     @Autowired
     private UserSessionRepository userSessionRepository;
 
+    @Autowired
+    private SessionCache sessionCache;
+
     @Value("${maxmindPassword}")
     private String maxmindPassword;
 
@@ -162,5 +165,6 @@ public class SessionController {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "cannot revoke session with given ID");
         }
         this.userSessionRepository.delete(sess);
+        sessionCache.invalidate(sess.getSession());
     }
 }
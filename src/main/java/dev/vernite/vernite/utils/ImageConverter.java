@@ -1,7 +1,12 @@
 package dev.vernite.vernite.utils;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.bytedeco.ffmpeg.avcodec.AVCodec;
 import org.bytedeco.ffmpeg.avcodec.AVCodecContext;
@@ -16,9 +21,61 @@ import org.bytedeco.ffmpeg.global.avutil;
 import org.bytedeco.ffmpeg.global.swscale;
 import org.bytedeco.ffmpeg.swscale.SwsContext;
 import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.DoublePointer;
 import org.bytedeco.javacpp.Pointer;
 
-public class ImageConverter {
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Converter of images to webp. Instance of converter keeps frames, packet and
+ * scaler context between conversions, so it should be reused by single thread;
+ * it must be closed to free native memory.
+ */
+public class ImageConverter implements AutoCloseable {
+
+    /**
+     * Size of converted images.
+     */
+    public static final int SIZE = 400;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final AtomicLong NATIVE_MEMORY = new AtomicLong();
+
+    private static final Timer DECODE_TIMER = Timer.builder("vernite.image.decode")
+            .description("Time of decoding images").register(Metrics.globalRegistry);
+
+    private static final Timer ENCODE_TIMER = Timer.builder("vernite.image.encode")
+            .description("Time of scaling and encoding images").register(Metrics.globalRegistry);
+
+    private final AVFrame src;
+
+    private final AVFrame dst;
+
+    private final AVPacket pkt;
+
+    private SwsContext swsCtx;
+
+    public ImageConverter() {
+        src = avutil.av_frame_alloc();
+        dst = avutil.av_frame_alloc();
+        pkt = avcodec.av_packet_alloc();
+        if (src == null || dst == null || pkt == null) {
+            close();
+            throw new IllegalStateException("Could not allocate frame");
+        }
+    }
+
+    /**
+     * Returns size of input buffers currently allocated in native memory by all
+     * converters.
+     * 
+     * @return size in bytes
+     */
+    public static long nativeMemory() {
+        return NATIVE_MEMORY.get();
+    }
 
     /**
      * converts any video/image/picture to webp. Default settings: 75% quality,
@@ -28,30 +85,88 @@ public class ImageConverter {
      * @return byte array
      */
     public static byte[] convertImage(String filename, byte[] b) throws IOException {
+        return convertImage(filename, new ByteArrayInputStream(b), b.length);
+    }
+
+    /**
+     * converts any video/image/picture to webp. Input is copied straight from the
+     * stream to native memory, without buffering it on heap.
+     * 
+     * @param filename name of input file
+     * @param in       stream with input; it is read but not closed
+     * @param size     size of input in bytes
+     * @return byte array
+     */
+    public static byte[] convertImage(String filename, InputStream in, long size) throws IOException {
+        try (ImageConverter converter = new ImageConverter()) {
+            return converter.convert(filename, in, size, SIZE).get(0);
+        }
+    }
+
+    /**
+     * Converts any video/image/picture to square webp images. Input is decoded
+     * once and scaled to each of given sizes. Default settings: 75% quality,
+     * lossy, YUVA420P
+     * 
+     * @param filename name of input file
+     * @param in       stream with input; it is read but not closed
+     * @param size     size of input in bytes
+     * @param sizes    widths and heights of output images
+     * @return encoded images in order of sizes
+     * @throws IOException when input cannot be read or converted
+     */
+    public List<byte[]> convert(String filename, InputStream in, long size, int... sizes) throws IOException {
+        try {
+            Timer.Sample sample = Timer.start();
+            decode(filename, in, size);
+            sample.stop(DECODE_TIMER);
+            List<byte[]> result = new ArrayList<>(sizes.length);
+            for (int dimension : sizes) {
+                sample = Timer.start();
+                result.add(encode(dimension));
+                sample.stop(ENCODE_TIMER);
+            }
+            return result;
+        } finally {
+            avutil.av_frame_unref(src);
+            avutil.av_frame_unref(dst);
+            avcodec.av_packet_unref(pkt);
+        }
+    }
+
+    /**
+     * Decodes first frame of input into {@link #src}.
+     */
+    private void decode(String filename, InputStream in, long size) throws IOException {
         Pointer mem = null;
         AVIOContext pb = null;
         AVFormatContext ifCtx = null;
         AVCodecContext decCtx = null;
-        AVFrame src = null;
-        AVFrame dst = null;
-        AVPacket pkt = null;
-        SwsContext swsCtx = null;
-        AVCodecContext encCtx = null;
         BytePointer data = null;
         try {
-            mem = avutil.av_malloc(b.length + 16);
+            mem = avutil.av_malloc(size + 16);
             if (mem == null || mem.address() == 0) {
                 throw new IOException("Could not allocate memory");
             }
-            mem.capacity(b.length + 16);
+            NATIVE_MEMORY.addAndGet(size + 16);
+            mem.capacity(size + 16);
             data = new BytePointer(mem);
             // 0: cursor
             // 8: capacity
             // 16: data
+            byte[] buffer = new byte[(int) Math.min(size, BUFFER_SIZE)];
+            long copied = 0;
+            while (copied < size) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, size - copied));
+                if (read < 0) {
+                    throw new IOException("Unexpected end of input");
+                }
+                data.position(16 + copied).put(buffer, 0, read);
+                copied += read;
+            }
             data.position(16);
-            data.put(b);
             data.putLong(-16, 0); // cursor
-            data.putLong(-8, b.length); // capacity
+            data.putLong(-8, size); // capacity
             pb = avformat.avio_alloc_context((BytePointer) null, 0, 0, mem, null, null, null);
             if (pb == null) {
                 throw new IOException("Could not allocate AVIOContext");
@@ -83,12 +198,6 @@ public class ImageConverter {
             if (avcodec.avcodec_open2(decCtx, decoder, (AVDictionary) null) < 0) {
                 throw new IOException("Could not open decoder");
             }
-            src = avutil.av_frame_alloc();
-            dst = avutil.av_frame_alloc();
-            if (src == null || dst == null) {
-                throw new IOException("Could not allocate frame");
-            }
-            pkt = avcodec.av_packet_alloc();
             boolean gotFrame = false;
             while (!gotFrame) {
                 int ret2 = avformat.av_read_frame(ifCtx, pkt);
@@ -118,13 +227,44 @@ public class ImageConverter {
             if (!gotFrame) {
                 throw new IOException("Could not read frame");
             }
-            dst.width(400);
-            dst.height(400);
+        } finally {
+            if (decCtx != null) {
+                avcodec.avcodec_free_context(decCtx);
+            }
+            if (ifCtx != null) {
+                avformat.avformat_free_context(ifCtx);
+            }
+            if (pb != null) {
+                /* note: the internal buffer could have changed, and be != avio_ctx_buffer */
+                avutil.av_free(pb.buffer());
+                pb.buffer(null);
+                avformat.avio_context_free(pb);
+            }
+            if (mem != null) {
+                avutil.av_free(mem);
+                mem.close();
+                NATIVE_MEMORY.addAndGet(-(size + 16));
+            }
+            if (data != null) {
+                data.close();
+            }
+        }
+    }
+
+    /**
+     * Scales {@link #src} to square of given size and encodes it to webp.
+     */
+    private byte[] encode(int dimension) throws IOException {
+        AVCodecContext encCtx = null;
+        try {
+            avutil.av_frame_unref(dst);
+            dst.width(dimension);
+            dst.height(dimension);
             dst.format(avutil.AV_PIX_FMT_YUVA420P);
-            swsCtx = swscale.sws_getContext(
+            swsCtx = swscale.sws_getCachedContext(swsCtx,
                     src.width(), src.height(), src.format(),
                     dst.width(), dst.height(), dst.format(),
-                    swscale.SWS_BICUBIC, null, null, (double[]) null);
+                    swscale.SWS_BICUBIC, null, null, (DoublePointer) null);
             if (swsCtx == null) {
                 throw new IOException("Could not initialize the conversion context");
             }
@@ -151,22 +291,12 @@ public class ImageConverter {
                 throw new IOException("Error while sending a frame to the encoder");
             }
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            while (avcodec.avcodec_receive_packet(encCtx, pkt) >= 0) {
-                BytePointer d = pkt.data();
-                byte[] bytes = new byte[pkt.size()];
-                d.get(bytes);
-                baos.write(bytes, 0, bytes.length);
-            }
+            receivePackets(encCtx, baos);
             // flush packet
             if (avcodec.avcodec_send_frame(encCtx, null) < 0) {
                 throw new IOException("Error while sending a frame to the encoder");
             }
-            while (avcodec.avcodec_receive_packet(encCtx, pkt) >= 0) {
-                BytePointer d = pkt.data();
-                byte[] bytes = new byte[pkt.size()];
-                d.get(bytes);
-                baos.write(bytes, 0, bytes.length);
-            }
+            receivePackets(encCtx, baos);
             if (baos.size() == 0) {
                 throw new IOException("Could not encode");
             }
@@ -175,37 +305,33 @@ public class ImageConverter {
             if (encCtx != null) {
                 avcodec.avcodec_free_context(encCtx);
             }
-            if (swsCtx != null) {
-                swscale.sws_freeContext(swsCtx);
-            }
-            if (pkt != null) {
-                avcodec.av_packet_free(pkt);
-            }
-            if (dst != null) {
-                avutil.av_frame_free(dst);
-            }
-            if (src != null) {
-                avutil.av_frame_free(src);
-            }
-            if (decCtx != null) {
-                avcodec.avcodec_free_context(decCtx);
-            }
-            if (ifCtx != null) {
-                avformat.avformat_free_context(ifCtx);
-            }
-            if (pb != null) {
-                /* note: the internal buffer could have changed, and be != avio_ctx_buffer */
-                avutil.av_free(pb.buffer());
-                pb.buffer(null);
-                avformat.avio_context_free(pb);
-            }
-            if (mem != null) {
-                avutil.av_free(mem);
-                mem.close();
-            }
-            if (data != null) {
-                data.close();
-            }
+        }
+    }
+
+    private void receivePackets(AVCodecContext encCtx, ByteArrayOutputStream baos) {
+        while (avcodec.avcodec_receive_packet(encCtx, pkt) >= 0) {
+            BytePointer d = pkt.data();
+            byte[] bytes = new byte[pkt.size()];
+            d.get(bytes);
+            baos.write(bytes, 0, bytes.length);
+            avcodec.av_packet_unref(pkt);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (swsCtx != null) {
+            swscale.sws_freeContext(swsCtx);
+            swsCtx = null;
+        }
+        if (pkt != null) {
+            avcodec.av_packet_free(pkt);
+        }
+        if (dst != null) {
+            avutil.av_frame_free(dst);
+        }
+        if (src != null) {
+            avutil.av_frame_free(src);
         }
     }
 
@@ -251,13 +377,13 @@ public class ImageConverter {
                 switch (whence) {
                     case 0 -> pos = offset; // SEEK_SET
                     case 1 -> pos = pos + offset; // SEEK_CUR
-                    case 2 -> pos = capacity + offset; // SEEK_END
+                    case 2 -> pos = size + offset; // SEEK_END
                 }
-                if (offset < 0 || offset > size) {
+                if (pos < 0 || pos > size) {
                     return avutil.AVERROR_EOF();
                 }
                 p.putLong(0, pos);
-                return 0;
+                return pos;
             } finally {
                 p.close();
             }
@@ -33,7 +33,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 
 import dev.vernite.vernite.common.exception.ConflictStateException;
-import dev.vernite.vernite.common.utils.counter.CounterSequenceRepository;
+import dev.vernite.vernite.common.utils.counter.CounterAllocator;
 import dev.vernite.vernite.user.User;
 
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -56,7 +56,7 @@ import lombok.AllArgsConstructor;
 @RequestMapping("/workspace")
 public class WorkspaceController {
 
-    private CounterSequenceRepository counterRepository;
+    private CounterAllocator counterAllocator;
 
     private WorkspaceRepository workspaceRepository;
 
@@ -82,7 +82,7 @@ public class WorkspaceController {
      */
     @PostMapping
     public Workspace create(@NotNull @Parameter(hidden = true) User user, @RequestBody @Valid CreateWorkspace create) {
-        long id = counterRepository.getIncrementCounter(user.getCounterSequence().getId());
+        long id = counterAllocator.next(user.getCounterSequence());
         return workspaceRepository.save(new Workspace(id, user, create));
     }
 
@@ -31,7 +31,12 @@ import java.lang.reflect.ParameterizedType;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Logger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
 
 import com.google.protobuf.Any;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -40,24 +45,62 @@ import com.google.protobuf.Message;
 
 import dev.vernite.protobuf.VerniteProtobuf;
 
+/**
+ * Dispatches packets received from clients to handlers. Handler of packet
+ * {@code Foo} is class {@code packets.FooHandler} implementing
+ * {@link IHandler}. Handlers which are Spring beans are taken from application
+ * context, so they get their dependencies injected; other handlers are
+ * instantiated with default constructor.
+ */
+@Component
 public class PacketExecutor {
-    private static final Logger L = Logger.getLogger("PacketExecutor");
+    private static final Logger L = LoggerFactory.getLogger(PacketExecutor.class);
+
+    private final Map<String, IHandler<? extends Message>> handlers;
+    private final Map<String, Class<? extends Message>> packetClasses;
 
-    private static final Map<String, IHandler<? extends Message>> HANDLERS;
-    private static final Map<String, Class<? extends Message>> PACKET_CLASSES;
+    @Autowired
+    public PacketExecutor(ApplicationContext context) {
+        HashMap<String, Class<? extends Message>> classes = new HashMap<>();
+        HashMap<String, IHandler<? extends Message>> map = new HashMap<>();
+        for (Descriptor m : VerniteProtobuf.getDescriptor().getMessageTypes()) {
+            fill(context, classes, map, m);
+        }
+        this.handlers = Collections.unmodifiableMap(map);
+        this.packetClasses = Collections.unmodifiableMap(classes);
+    }
+
+    PacketExecutor(Map<String, IHandler<? extends Message>> handlers,
+            Map<String, Class<? extends Message>> packetClasses) {
+        this.handlers = handlers;
+        this.packetClasses = packetClasses;
+    }
 
-    public static void call(SocketSession session, Any payload) throws InvalidProtocolBufferException {
+    public void call(SocketSession session, Any payload) throws InvalidProtocolBufferException {
         String type = getTypeNameFromTypeUrl(payload.getTypeUrl());
         @SuppressWarnings("unchecked")
-        IHandler<Message> handler = (IHandler<Message>) HANDLERS.get(type);
+        IHandler<Message> handler = (IHandler<Message>) handlers.get(type);
         if (handler == null) {
-            L.warning(session + ": No handler for " + type);
+            L.warn("{}: No handler for {}", session, type);
             return;
         }
-        Message m = payload.unpack(PACKET_CLASSES.get(type));
+        Message m = payload.unpack(packetClasses.get(type));
         handler.handle(session, m);
     }
 
+    /**
+     * Returns name of packet type which has handler, for use in logs and metrics.
+     * Type url is chosen by client, so unknown types are all reported as
+     * {@code UNKNOWN}.
+     * 
+     * @param payload packet received from client
+     * @return full name of packet type or {@code UNKNOWN}
+     */
+    public String getPacketName(Any payload) {
+        String type = getTypeNameFromTypeUrl(payload.getTypeUrl());
+        return handlers.containsKey(type) ? type : "UNKNOWN";
+    }
+
     private static String getTypeNameFromTypeUrl(String typeUrl) {
         int pos = typeUrl.lastIndexOf('/');
         if (pos == -1) {
@@ -66,7 +109,7 @@ public class PacketExecutor {
         return typeUrl.substring(pos + 1);
     }
 
-    private static void fill(HashMap<String, Class<? extends Message>> packetClasses,
+    private static void fill(ApplicationContext context, HashMap<String, Class<? extends Message>> packetClasses,
             HashMap<String, IHandler<? extends Message>> handlers, Descriptor descriptor) {
         if (handlers.containsKey(descriptor.getFullName())) {
             throw new RuntimeException("Duplicate handler: " + descriptor.getFullName());
@@ -88,7 +131,8 @@ public class PacketExecutor {
                 Class<? extends Message> clazz = (Class<? extends Message>) pt.getActualTypeArguments()[0];
                 packetClasses.put(descriptor.getFullName(), clazz);
             }
-            IHandler<?> handler = (IHandler<?>) cl.getDeclaredConstructor().newInstance();
+            Object bean = context.getBeanProvider(cl).getIfAvailable();
+            IHandler<?> handler = (IHandler<?>) (bean != null ? bean : cl.getDeclaredConstructor().newInstance());
             handlers.put(descriptor.getFullName(), handler);
 
         } catch (ClassNotFoundException e) {
@@ -97,17 +141,7 @@ public class PacketExecutor {
             throw new RuntimeException(e);
         }
         for (Descriptor i : descriptor.getNestedTypes()) {
-            fill(packetClasses, handlers, i);
-        }
-    }
-
-    static {
-        HashMap<String, Class<? extends Message>> packetClasses = new HashMap<>();
-        HashMap<String, IHandler<? extends Message>> map = new HashMap<>();
-        for (Descriptor m : VerniteProtobuf.getDescriptor().getMessageTypes()) {
-            fill(packetClasses, map, m);
+            fill(context, packetClasses, handlers, i);
         }
-        HANDLERS = Collections.unmodifiableMap(map);
-        PACKET_CLASSES = Collections.unmodifiableMap(packetClasses);
     }
 }
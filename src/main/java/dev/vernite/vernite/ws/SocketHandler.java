@@ -32,8 +32,15 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
@@ -43,14 +50,123 @@ import org.springframework.web.socket.handler.BinaryWebSocketHandler;
 import com.google.protobuf.Any;
 import com.google.protobuf.Message;
 
-import dev.vernite.protobuf.KeepAlive;
+import dev.vernite.vernite.common.profiling.QueryProfile;
+import dev.vernite.vernite.common.profiling.QueryProfileReporter;
+import dev.vernite.vernite.common.profiling.QueryProfiler;
+import dev.vernite.vernite.common.utils.TimerWheel;
+import dev.vernite.vernite.projectworkspace.ProjectWorkspace;
+import dev.vernite.vernite.projectworkspace.ProjectWorkspaceRepository;
 import dev.vernite.vernite.task.Task;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
 
 @Component
 public class SocketHandler extends BinaryWebSocketHandler {
     private static final Set<SocketSession> SESSIONS = new CopyOnWriteArraySet<>();
     private static final Map<WebSocketSession, SocketSession> SESSION_MAP = new ConcurrentHashMap<>();
     private static final Map<Long, Set<SocketSession>> SESSIONS_BY_USER = new ConcurrentHashMap<>();
+    private static final Map<Long, Set<SocketSession>> SESSIONS_BY_PROJECT = new ConcurrentHashMap<>();
+    private static final long KEEP_ALIVE_TICK = 100;
+
+    static {
+        Gauge.builder("vernite.ws.session.queue.max", SESSIONS,
+                sessions -> sessions.stream().mapToInt(SocketSession::getQueueDepth).max().orElse(0))
+                .description("Depth of the longest web socket session outbound queue")
+                .register(Metrics.globalRegistry);
+    }
+
+    private final ProjectWorkspaceRepository projectWorkspaceRepository;
+    private final PacketExecutor packetExecutor;
+    private final QueryProfileReporter profiler;
+    private final Executor writer;
+    private final int queueSize;
+    private final OverflowPolicy overflowPolicy;
+    private final long keepAliveInterval;
+    private final int maxMissedPongs;
+    private final TimerWheel<SocketSession> keepAliveWheel;
+
+    @Autowired
+    public SocketHandler(ProjectWorkspaceRepository projectWorkspaceRepository, PacketExecutor packetExecutor,
+            QueryProfileReporter profiler, @Value("${vernite.ws.writer-threads:4}") int writerThreads,
+            @Value("${vernite.ws.queue-size:256}") int queueSize,
+            @Value("${vernite.ws.overflow-policy:COALESCE}") OverflowPolicy overflowPolicy,
+            @Value("${vernite.ws.keep-alive.interval:15000}") long keepAliveInterval,
+            @Value("${vernite.ws.keep-alive.max-missed:3}") int maxMissedPongs) {
+        this(projectWorkspaceRepository, packetExecutor, profiler, createWriter(writerThreads), queueSize,
+                overflowPolicy, keepAliveInterval, maxMissedPongs);
+    }
+
+    SocketHandler(ProjectWorkspaceRepository projectWorkspaceRepository, PacketExecutor packetExecutor,
+            QueryProfileReporter profiler, Executor writer, int queueSize, OverflowPolicy overflowPolicy,
+            long keepAliveInterval, int maxMissedPongs) {
+        this.projectWorkspaceRepository = projectWorkspaceRepository;
+        this.packetExecutor = packetExecutor;
+        this.profiler = profiler;
+        this.writer = writer;
+        this.queueSize = queueSize;
+        this.overflowPolicy = overflowPolicy;
+        this.keepAliveInterval = keepAliveInterval;
+        this.maxMissedPongs = maxMissedPongs;
+        this.keepAliveWheel = new TimerWheel<>(512, KEEP_ALIVE_TICK);
+    }
+
+    private static Executor createWriter(int threads) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("ws-writer-");
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer instanceof ThreadPoolTaskExecutor executor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Subscribes all open sessions of user to broadcasts of given project. Should
+     * be called after user becomes member of project.
+     * 
+     * @param userId    ID of user
+     * @param projectId ID of project
+     */
+    public static void subscribe(long userId, long projectId) {
+        Set<SocketSession> sessions = SESSIONS_BY_USER.get(userId);
+        if (sessions != null) {
+            for (SocketSession s : sessions) {
+                subscribe(s, projectId);
+            }
+        }
+    }
+
+    /**
+     * Unsubscribes all open sessions of user from broadcasts of given project.
+     * Should be called after user stops being member of project.
+     * 
+     * @param userId    ID of user
+     * @param projectId ID of project
+     */
+    public static void unsubscribe(long userId, long projectId) {
+        Set<SocketSession> sessions = SESSIONS_BY_USER.get(userId);
+        if (sessions != null) {
+            for (SocketSession s : sessions) {
+                unsubscribe(s, projectId);
+            }
+        }
+    }
+
+    private static void subscribe(SocketSession session, long projectId) {
+        session.getProjects().add(projectId);
+        SESSIONS_BY_PROJECT.computeIfAbsent(projectId, k -> new CopyOnWriteArraySet<>()).add(session);
+    }
+
+    private static void unsubscribe(SocketSession session, long projectId) {
+        session.getProjects().remove(projectId);
+        SESSIONS_BY_PROJECT.computeIfPresent(projectId, (k, v) -> v.remove(session) && v.isEmpty() ? null : v);
+    }
 
     public static void sendToUser(long userId, Message.Builder message) {
         sendToUser(userId, message.build());
@@ -71,9 +187,25 @@ public class SocketHandler extends BinaryWebSocketHandler {
         SocketHandler.bc(SESSIONS, message);
     }
 
-    private static void bc(Collection<SocketSession> sessions, Message message) {
+    /**
+     * Sends message to given sessions. Message is serialized once and the same
+     * payload is shared between all recipients.
+     * 
+     * @param sessions recipients
+     * @param message  message to send
+     */
+    static void bc(Collection<SocketSession> sessions, Message message) {
+        bc(sessions, message, SocketSession.FULL);
+    }
+
+    private static void bc(Collection<SocketSession> sessions, Message message, String typeUrlPrefix) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        byte[] payload = SocketSession.encode(message, typeUrlPrefix);
+        String key = SocketSession.FULL.equals(typeUrlPrefix) ? SocketSession.coalesceKey(message) : null;
         for (SocketSession s : sessions) {
-            s.send(message);
+            s.send(payload, key);
         }
     }
 
@@ -82,17 +214,32 @@ public class SocketHandler extends BinaryWebSocketHandler {
     }
 
     public static void bc(Task task, Message message) {
-        SocketHandler.bc(task, SESSIONS, message);
+        SocketHandler.bc(task.getProjectId(), message);
     }
 
-    private static void bc(Task task, Collection<SocketSession> sessions, Message message) {
-        for (SocketSession s : sessions) {
-            if (s.getUser() == null) {
-                continue;
-            }
-            if (task.getStatus().getProject().member(s.getUser()) != -1) {
-                s.send(message);
-            }
+    /**
+     * Sends message to all sessions of users who are members of given project.
+     * 
+     * @param projectId ID of project
+     * @param message   message to send
+     */
+    public static void bc(long projectId, Message message) {
+        SocketHandler.bc(projectId, message, SocketSession.FULL);
+    }
+
+    /**
+     * Sends message to all sessions of users who are members of given project.
+     * Type URL prefix tells clients how to apply the message, for example
+     * {@link SocketSession#DELTA} marks message carrying only changed fields.
+     * 
+     * @param projectId     ID of project
+     * @param message       message to send
+     * @param typeUrlPrefix prefix of type URL of packed message
+     */
+    public static void bc(long projectId, Message message, String typeUrlPrefix) {
+        Set<SocketSession> sessions = SESSIONS_BY_PROJECT.get(projectId);
+        if (sessions != null) {
+            bc(sessions, message, typeUrlPrefix);
         }
     }
 
@@ -103,8 +250,20 @@ public class SocketHandler extends BinaryWebSocketHandler {
             session.close();
             return;
         }
+        s.received();
         Any payload = Any.parseFrom(message.getPayload());
-        PacketExecutor.call(s, payload);
+        if (!profiler.isEnabled()) {
+            packetExecutor.call(s, payload);
+            return;
+        }
+        QueryProfile profile = new QueryProfile();
+        QueryProfiler.resume(profile);
+        try {
+            packetExecutor.call(s, payload);
+        } finally {
+            QueryProfiler.stop();
+            profiler.report("packet", packetExecutor.getPacketName(payload), profile);
+        }
     }
 
     @Override
@@ -114,7 +273,10 @@ public class SocketHandler extends BinaryWebSocketHandler {
             SESSIONS.remove(s);
             SESSION_MAP.remove(session);
             if (s.getUser() != null) {
-                SESSIONS_BY_USER.get(s.getUser().getId()).remove(s);
+                SESSIONS_BY_USER.computeIfPresent(s.getUser().getId(), (k, v) -> v.remove(s) && v.isEmpty() ? null : v);
+            }
+            for (long projectId : s.getProjects()) {
+                unsubscribe(s, projectId);
             }
             s.close();
         }
@@ -122,18 +284,48 @@ public class SocketHandler extends BinaryWebSocketHandler {
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        SocketSession s = new SocketSession(session);
+        SocketSession s = new SocketSession(session, writer, queueSize, overflowPolicy);
         SESSIONS.add(s);
         SESSION_MAP.put(session, s);
+        keepAliveWheel.schedule(s, ThreadLocalRandom.current().nextLong(keepAliveInterval) + 1);
         if (s.getUser() != null) {
             SESSIONS_BY_USER.computeIfAbsent(s.getUser().getId(), k -> new CopyOnWriteArraySet<>()).add(s);
+            for (ProjectWorkspace pw : projectWorkspaceRepository.findByWorkspaceUser(s.getUser())) {
+                subscribe(s, pw.getId().getProjectId());
+            }
         }
     }
 
-    @Scheduled(cron = "* * * * * *")
-    public void ping() {
-        for (SocketSession s : SESSIONS) {
-            s.send(KeepAlive.newBuilder().setId(System.currentTimeMillis()));
+    /**
+     * Advances keep alive timer wheel. Sessions are checked once per keep alive
+     * interval, with first check spread randomly over the interval so pings
+     * are not sent in bursts.
+     */
+    @Scheduled(fixedRate = KEEP_ALIVE_TICK)
+    public void tick() {
+        keepAliveWheel.advance(this::keepAlive);
+    }
+
+    /**
+     * Pings session when nothing was received from it for keep alive interval
+     * and disconnects it after too many missed pongs.
+     * 
+     * @param s session to check
+     */
+    void keepAlive(SocketSession s) {
+        if (s.isClosed()) {
+            return;
+        }
+        long idle = System.currentTimeMillis() - s.getLastReceived();
+        if (idle < keepAliveInterval) {
+            keepAliveWheel.schedule(s, keepAliveInterval - idle);
+            return;
+        }
+        if (s.getMissedPongs() >= maxMissedPongs) {
+            s.disconnect(CloseStatus.SESSION_NOT_RELIABLE);
+            return;
         }
+        s.ping();
+        keepAliveWheel.schedule(s, keepAliveInterval);
     }
 }
@@ -29,40 +29,186 @@ package dev.vernite.vernite.ws;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
 
 import com.google.protobuf.Any;
 import com.google.protobuf.Message;
 
+import dev.vernite.protobuf.BasicAction;
+import dev.vernite.protobuf.KeepAlive;
 import dev.vernite.vernite.user.User;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
 
+/**
+ * Web socket connection of client. Packets are not written on the calling
+ * thread; they are put into bounded outbound queue which is drained by shared
+ * writer executor, so slow client cannot stall threads broadcasting packets.
+ */
 public class SocketSession implements Closeable {
 
+    private static final Logger L = LoggerFactory.getLogger(SocketSession.class);
+
     private static final AtomicLong ID = new AtomicLong();
 
+    /**
+     * Type URL prefix of packets carrying whole state of object.
+     */
+    public static final String FULL = "";
+
+    /**
+     * Type URL prefix of packets carrying only changed fields of object. Fields
+     * not present in packet are unchanged.
+     */
+    public static final String DELTA = "delta";
+
+    /**
+     * Maximum number of packets written in one writer task before giving the
+     * thread to other sessions.
+     */
+    private static final int DRAIN_BATCH = 64;
+
+    /**
+     * Number of packets waiting in outbound queues of all sessions.
+     */
+    private static final AtomicLong QUEUED = new AtomicLong();
+
+    private static final DistributionSummary QUEUE_DEPTH = DistributionSummary
+            .builder("vernite.ws.session.queue.depth")
+            .description("Depth of web socket session outbound queue sampled on enqueue")
+            .register(Metrics.globalRegistry);
+
+    static {
+        Gauge.builder("vernite.ws.session.queue.packets", QUEUED, AtomicLong::get)
+                .description("Number of packets waiting in outbound queues of all web socket sessions")
+                .register(Metrics.globalRegistry);
+    }
+
     private final WebSocketSession session;
-    private boolean closed = false;
+    private volatile boolean closed = false;
     private final long id;
     private final String ip;
     private final User user;
+    private final Set<Long> projects = ConcurrentHashMap.newKeySet();
 
-    public SocketSession(WebSocketSession session) {
+    private final Executor writer;
+    private final int queueSize;
+    private final OverflowPolicy overflowPolicy;
+    private final ArrayDeque<OutboundPacket> queue = new ArrayDeque<>();
+    private ArrayDeque<byte[]> snapshot = new ArrayDeque<>();
+    private int beforeSnapshot = 0;
+    private boolean draining = false;
+    private volatile long lastReceived = System.currentTimeMillis();
+    private volatile int missedPongs = 0;
+
+    /**
+     * Creates session with outbound queue.
+     * 
+     * @param session        underlying web socket session
+     * @param writer         executor which writes queued packets
+     * @param queueSize      maximum number of queued packets
+     * @param overflowPolicy what to do when queue is full
+     */
+    public SocketSession(WebSocketSession session, Executor writer, int queueSize, OverflowPolicy overflowPolicy) {
         this.id = ID.incrementAndGet();
         this.session = session;
         this.ip = session.getHandshakeHeaders().getFirst("X-Forwarded-For") != null
                 ? session.getHandshakeHeaders().getFirst("X-Forwarded-For")
                 : Objects.toString(session.getRemoteAddress());
         this.user = (User) session.getAttributes().get("user");
+        this.writer = writer;
+        this.queueSize = queueSize;
+        this.overflowPolicy = overflowPolicy;
     }
 
     public User getUser() {
         return this.user;
     }
 
+    /**
+     * Returns IDs of projects this session is subscribed to.
+     * 
+     * @return mutable set of project IDs
+     */
+    public Set<Long> getProjects() {
+        return this.projects;
+    }
+
+    /**
+     * Returns number of packets waiting to be written.
+     * 
+     * @return outbound queue depth
+     */
+    public int getQueueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Returns number of packets waiting in outbound queues of all sessions.
+     * 
+     * @return number of queued packets
+     */
+    static long getQueuedPackets() {
+        return QUEUED.get();
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Returns time of last packet received from client. Packets sent to client
+     * do not count, as they do not prove that connection is alive.
+     * 
+     * @return time in milliseconds
+     */
+    public long getLastReceived() {
+        return this.lastReceived;
+    }
+
+    /**
+     * Returns number of keep alive packets sent since last packet received from
+     * client.
+     * 
+     * @return number of missed pongs
+     */
+    public int getMissedPongs() {
+        return this.missedPongs;
+    }
+
+    /**
+     * Marks that packet was received from client.
+     */
+    void received() {
+        this.missedPongs = 0;
+        this.lastReceived = System.currentTimeMillis();
+    }
+
+    /**
+     * Sends keep alive packet. Client is expected to echo it back.
+     */
+    void ping() {
+        this.missedPongs++;
+        send(KeepAlive.newBuilder().setId(System.currentTimeMillis()));
+    }
+
     public void send(Message.Builder message) {
         send(message.build());
     }
@@ -71,20 +217,244 @@ public class SocketSession implements Closeable {
         if (closed) {
             return;
         }
+        send(encode(message), coalesceKey(message));
+    }
+
+    /**
+     * Sends whole state of objects, for example all tasks of project requested
+     * by resync. Snapshot can be larger than outbound queue, so it is not put
+     * into queue; its packets are written in batches by writer executor after
+     * packets queued earlier and before packets queued later. New snapshot
+     * replaces part of previous one which was not written yet.
+     * 
+     * @param messages messages carrying state of objects
+     */
+    public void sendSnapshot(List<? extends Message> messages) {
+        ArrayDeque<byte[]> payloads = new ArrayDeque<>(messages.size());
+        for (Message message : messages) {
+            payloads.add(encode(message));
+        }
+        boolean schedule = false;
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            snapshot = payloads;
+            beforeSnapshot = queue.size();
+            if (!draining) {
+                draining = true;
+                schedule = true;
+            }
+        }
+        if (schedule) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Queues already encoded packet. Payload is wrapped without copying so the
+     * same array can be shared between many sessions; it must not be modified
+     * afterwards.
+     * 
+     * @param payload packet encoded with {@link #encode(Message)}
+     * @param key     coalescing key from {@link #coalesceKey(Message)}
+     */
+    void send(byte[] payload, String key) {
+        boolean overflow = false;
+        boolean schedule = false;
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() >= queueSize && !makeRoom(key)) {
+                overflow = true;
+            } else {
+                queue.add(new OutboundPacket(payload, key));
+                QUEUED.incrementAndGet();
+                QUEUE_DEPTH.record(queue.size());
+                if (!draining) {
+                    draining = true;
+                    schedule = true;
+                }
+            }
+        }
+        if (overflow) {
+            Metrics.counter("vernite.ws.session.overflow", "policy", overflowPolicy.name()).increment();
+            L.warn("Outbound queue of {} is full, disconnecting", this);
+            disconnect(CloseStatus.SESSION_NOT_RELIABLE);
+        } else if (schedule) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Removes packet from full queue according to overflow policy. Must be called
+     * with queue lock held.
+     * 
+     * @param key coalescing key of new packet
+     * @return {@literal true} if there is room for new packet
+     */
+    private boolean makeRoom(String key) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                queue.poll();
+                QUEUED.decrementAndGet();
+                if (beforeSnapshot > 0) {
+                    beforeSnapshot--;
+                }
+                Metrics.counter("vernite.ws.packets.dropped", "policy", overflowPolicy.name()).increment();
+                return true;
+            case COALESCE:
+                if (key == null) {
+                    return false;
+                }
+                Iterator<OutboundPacket> iterator = queue.iterator();
+                for (int i = 0; iterator.hasNext(); i++) {
+                    if (key.equals(iterator.next().key())) {
+                        iterator.remove();
+                        QUEUED.decrementAndGet();
+                        if (i < beforeSnapshot) {
+                            beforeSnapshot--;
+                        }
+                        Metrics.counter("vernite.ws.packets.dropped", "policy", overflowPolicy.name()).increment();
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private void scheduleDrain() {
         try {
-            session.sendMessage(new BinaryMessage(Any.pack(message, "").toByteArray()));
-        } catch (IOException e) {
-            e.printStackTrace();
+            writer.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            synchronized (queue) {
+                clear();
+                draining = false;
+            }
+        }
+    }
+
+    /**
+     * Removes all queued packets. Must be called with queue lock held.
+     */
+    private void clear() {
+        QUEUED.addAndGet(-queue.size());
+        queue.clear();
+        snapshot.clear();
+        beforeSnapshot = 0;
+    }
+
+    /**
+     * Takes next packet to write. Must be called with queue lock held.
+     * 
+     * @return payload of packet; {@literal null} if there is nothing to write
+     */
+    private byte[] next() {
+        if (beforeSnapshot == 0 && !snapshot.isEmpty()) {
+            return snapshot.poll();
+        }
+        OutboundPacket packet = queue.poll();
+        if (packet == null) {
+            return null;
+        }
+        QUEUED.decrementAndGet();
+        if (beforeSnapshot > 0) {
+            beforeSnapshot--;
+        }
+        return packet.payload();
+    }
+
+    private void drain() {
+        for (int i = 0; i < DRAIN_BATCH; i++) {
+            byte[] payload;
+            synchronized (queue) {
+                payload = next();
+                if (payload == null) {
+                    draining = false;
+                    return;
+                }
+            }
             try {
-                session.close();
-            } catch (IOException e1) {
+                session.sendMessage(new BinaryMessage(payload));
+            } catch (IOException | RuntimeException e) {
+                L.warn("Cannot send packet to {}: {}", this, e.getMessage());
+                synchronized (queue) {
+                    clear();
+                    draining = false;
+                }
+                disconnect(CloseStatus.SERVER_ERROR);
+                return;
             }
         }
+        scheduleDrain();
+    }
+
+    /**
+     * Closes session and underlying connection without waiting for queued
+     * packets.
+     * 
+     * @param status close status sent to client
+     */
+    void disconnect(CloseStatus status) {
+        close();
+        try {
+            writer.execute(() -> {
+                try {
+                    session.close(status);
+                } catch (IOException e) {
+                }
+            });
+        } catch (RejectedExecutionException e) {
+        }
+    }
+
+    /**
+     * Encodes message into packet sent to clients.
+     * 
+     * @param message message to encode
+     * @return encoded packet
+     */
+    static byte[] encode(Message message) {
+        return encode(message, FULL);
+    }
+
+    /**
+     * Encodes message into packet sent to clients.
+     * 
+     * @param message       message to encode
+     * @param typeUrlPrefix prefix of type URL of packed message
+     * @return encoded packet
+     */
+    static byte[] encode(Message message, String typeUrlPrefix) {
+        return Any.pack(message, typeUrlPrefix).toByteArray();
+    }
+
+    /**
+     * Returns key of state carried by message. Queued packet can be replaced by
+     * newer packet with the same key without losing information.
+     * 
+     * @param message message to inspect
+     * @return coalescing key; {@literal null} if message cannot be coalesced
+     */
+    static String coalesceKey(Message message) {
+        if (message instanceof dev.vernite.protobuf.Task task && task.getAction() == BasicAction.UPDATED) {
+            return "Task#" + task.getId();
+        }
+        if (message instanceof KeepAlive) {
+            return "KeepAlive";
+        }
+        return null;
     }
 
     @Override
     public void close() {
-        this.closed = true;
+        synchronized (queue) {
+            this.closed = true;
+            clear();
+        }
     }
 
     @Override
@@ -28,7 +28,6 @@
 package dev.vernite.vernite.ws;
 
 import java.net.HttpCookie;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -42,9 +41,12 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 
-import dev.vernite.vernite.user.UserSession;
-import dev.vernite.vernite.user.UserSessionRepository;
+import dev.vernite.vernite.user.User;
+import dev.vernite.vernite.user.UserRepository;
 import dev.vernite.vernite.user.auth.AuthController;
+import dev.vernite.vernite.user.session.SessionAccessBuffer;
+import dev.vernite.vernite.user.session.SessionCache;
+import dev.vernite.vernite.user.session.SessionCache.CachedSession;
 
 @Component
 public class WebSocketInterceptor implements HandshakeInterceptor {
@@ -52,7 +54,13 @@ public class WebSocketInterceptor implements HandshakeInterceptor {
     private static final Logger L = Logger.getLogger("WebSocketInterceptor");
 
     @Autowired
-    private UserSessionRepository userSessionRepository;
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionCache sessionCache;
+
+    @Autowired
+    private SessionAccessBuffer sessionAccessBuffer;
 
     @Override
     public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
@@ -73,21 +81,25 @@ public class WebSocketInterceptor implements HandshakeInterceptor {
         for (String c : cookie) {
             for (HttpCookie parsed : HttpCookie.parse(c)) {
                 if (parsed.getName().equals(AuthController.COOKIE_NAME)) {
-                    Optional<UserSession> session = userSessionRepository.findBySession(parsed.getValue());
+                    Optional<CachedSession> session = sessionCache.get(parsed.getValue());
                     if (!session.isPresent()) {
                         break;
                     }
-                    UserSession us = session.get();
-                    us.setIp(request.getHeaders().getFirst("X-Forwarded-For"));
-                    if (us.getIp() == null) {
-                        us.setIp(request.getRemoteAddress().getAddress().getHostAddress());
+                    CachedSession us = session.get();
+                    String ip = request.getHeaders().getFirst("X-Forwarded-For");
+                    if (ip == null) {
+                        ip = request.getRemoteAddress().getAddress().getHostAddress();
                     }
-                    us.setLastUsed(new Date());
-                    userSessionRepository.save(us);
-                    if (!us.getUser().isDeleted()) {
-                        L.info("User " + us.getUser().getUsername() + " connected from " + us.getIp());
-                        attributes.put("user", us.getUser());
-                        return true;
+                    long now = System.currentTimeMillis();
+                    sessionAccessBuffer.record(us.id(), ip, now);
+                    sessionCache.update(parsed.getValue(), us.withAccess(ip, now));
+                    if (!us.userDeleted()) {
+                        Optional<User> user = userRepository.findById(us.userId());
+                        if (user.isPresent()) {
+                            L.info("User " + user.get().getUsername() + " connected from " + ip);
+                            attributes.put("user", user.get());
+                            return true;
+                        }
                     }
                 }
             }
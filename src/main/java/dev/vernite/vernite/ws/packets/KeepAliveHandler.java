@@ -27,20 +27,25 @@
 
 package dev.vernite.vernite.ws.packets;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.concurrent.TimeUnit;
 
 import dev.vernite.protobuf.KeepAlive;
 import dev.vernite.vernite.ws.IHandler;
 import dev.vernite.vernite.ws.SocketSession;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 
 public class KeepAliveHandler implements IHandler<KeepAlive> {
 
-    private static final Logger L = LoggerFactory.getLogger(KeepAliveHandler.class);
+    private static final Timer RTT = Timer.builder("vernite.ws.keepalive.rtt")
+            .description("Round trip time of web socket keep alive packets").publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
 
     @Override
     public void handle(SocketSession session, KeepAlive packet) {
         long t = System.currentTimeMillis() - packet.getId();
-        L.debug("KeepAlive from " + session + ": " + t + " ms");
+        if (t >= 0) {
+            RTT.record(t, TimeUnit.MILLISECONDS);
+        }
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.ws.packets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import dev.vernite.protobuf.BasicAction;
+import dev.vernite.protobuf.Task;
+import dev.vernite.vernite.task.TaskListener;
+import dev.vernite.vernite.task.TaskRepository;
+import dev.vernite.vernite.ws.IHandler;
+import dev.vernite.vernite.ws.PacketExecutor;
+import dev.vernite.vernite.ws.SocketSession;
+
+/**
+ * Handles resync requests. Client which missed task packets (for example after
+ * queue overflow or reconnect) sends task with project ID and optionally ID of
+ * single task; server replies with whole tasks. Tasks of project are sent as
+ * snapshot, which is not limited by size of outbound queue. Handler is a
+ * Spring bean taken by {@link PacketExecutor}.
+ */
+@Component
+public class TaskHandler implements IHandler<Task> {
+
+    private static final Logger L = LoggerFactory.getLogger(TaskHandler.class);
+
+    private final TaskRepository taskRepository;
+
+    public TaskHandler(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    @Override
+    public void handle(SocketSession session, Task packet) {
+        if (session.getUser() == null) {
+            L.warn("{}: User not logged in", session);
+            return;
+        }
+        if (!session.getProjects().contains(packet.getProjectId())) {
+            L.warn("{}: Not member of project {}", session, packet.getProjectId());
+            return;
+        }
+        if (packet.getId() != 0) {
+            taskRepository.findById(packet.getId()).filter(task -> task.getProjectId() == packet.getProjectId())
+                    .ifPresent(task -> session.send(TaskListener.serialize(task).setAction(BasicAction.UPDATED)));
+            return;
+        }
+        session.sendSnapshot(taskRepository.findByProjectId(packet.getProjectId()).stream()
+                .map(task -> TaskListener.serialize(task).setAction(BasicAction.UPDATED).build()).toList());
+    }
+
+}
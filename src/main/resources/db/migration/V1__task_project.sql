@@ -0,0 +1,7 @@
+-- Project of task denormalized from its status, so task lookups by project
+-- don't join status. Kept up to date by Task#setStatus.
+UPDATE `task` `t` JOIN `status` `s` ON `s`.`id` = `t`.`status_id`
+SET `t`.`project_id` = `s`.`project_id`
+WHERE `t`.`project_id` IS NULL ^;
+
+ALTER TABLE `task` MODIFY `project_id` bigint NOT NULL ^;
@@ -0,0 +1,16 @@
+-- TaskRepository#findByProjectAndNumber and task lists of project
+CREATE INDEX `idx_task_project_number` ON `task` (`project_id`, `number`) ^;
+
+-- TaskRepository#findAllFromProjectAndDateDeadline and #findAllFromProjectAndDateEstimate
+CREATE INDEX `idx_task_project_deadline` ON `task` (`project_id`, `deadline`) ^;
+CREATE INDEX `idx_task_project_estimated_date` ON `task` (`project_id`, `estimated_date`) ^;
+
+-- TaskRepository#findAllFromUserAndDateDeadline and #findAllFromUserAndDateEstimate
+CREATE INDEX `idx_task_assignee_deadline` ON `task` (`assignee`, `deadline`) ^;
+CREATE INDEX `idx_task_assignee_estimated_date` ON `task` (`assignee`, `estimated_date`) ^;
+
+-- AuditLogRepository#findByProject
+CREATE INDEX `idx_audit_log_project_date` ON `audit_log` (`project_id`, `date`) ^;
+
+-- cleanup of not remembered sessions in remove_old_content event
+CREATE INDEX `idx_user_session_remembered_last_used` ON `user_session` (`remembered`, `last_used`) ^;
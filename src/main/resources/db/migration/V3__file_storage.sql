@@ -0,0 +1,3 @@
+-- Contents of new files are kept in FileStorage; column holds contents of
+-- files not yet moved out of database.
+ALTER TABLE `file` MODIFY `file` longblob NULL ^;
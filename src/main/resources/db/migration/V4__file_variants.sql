@@ -0,0 +1,2 @@
+-- FileRepository#findBySourceAndVariant; one derived file per variant of source
+CREATE UNIQUE INDEX `idx_file_source_variant` ON `file` (`source`, `variant`) ^;
@@ -8,6 +8,25 @@ BEGIN
     COMMIT;
 END ^;
 
+DROP PROCEDURE IF EXISTS `counter_reserve` ^;
+
+CREATE PROCEDURE `counter_reserve` (IN `counter_id` bigint, IN `size` int, OUT `result` bigint)
+BEGIN
+    UPDATE `counter_sequence` SET `counter_value` = LAST_INSERT_ID(`counter_value` + `size`) WHERE `id` = `counter_id`;
+    IF ROW_COUNT() = 0 THEN
+        SET `result` = 0;
+    ELSE
+        SET `result` = LAST_INSERT_ID();
+    END IF;
+END ^;
+
+CREATE TABLE IF NOT EXISTS `rate_limit_counter` (
+    `rl_key` varchar(191) NOT NULL,
+    `window_start` bigint NOT NULL,
+    `hits` bigint NOT NULL,
+    PRIMARY KEY (`rl_key`, `window_start`)
+) ^;
+
 DROP EVENT IF EXISTS `remove_old_content` ^;
 CREATE EVENT `remove_old_content` ON SCHEDULE EVERY 1 MINUTE ON COMPLETION NOT PRESERVE ENABLE DO
 BEGIN
@@ -19,6 +38,7 @@ BEGIN
     DELETE FROM `status` WHERE `active` IS NOT NULL AND `active` < NOW();
     DELETE FROM `status` WHERE `active` IS NOT NULL AND `active` < NOW();
     DELETE FROM `task` WHERE `active` IS NOT NULL AND `active` < NOW();
+    DELETE FROM `rate_limit_counter` WHERE `window_start` < (UNIX_TIMESTAMP() - 3600) * 1000;
     DELETE FROM `user_session` WHERE `last_used` < DATE_SUB(NOW(), INTERVAL 30 MINUTE) AND `remembered` = 0;
     -- userów trzeba inaczej
     DELETE FROM `workspace` WHERE `active` IS NOT NULL AND `active` < NOW();
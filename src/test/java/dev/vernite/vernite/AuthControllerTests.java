@@ -27,6 +27,8 @@
 
 package dev.vernite.vernite;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.util.Date;
 import java.util.Optional;
 
@@ -47,6 +49,7 @@ import dev.vernite.vernite.user.UserRepository;
 import dev.vernite.vernite.user.UserSession;
 import dev.vernite.vernite.user.UserSessionRepository;
 import dev.vernite.vernite.user.auth.AuthController;
+import dev.vernite.vernite.user.session.SessionCache;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -62,10 +65,14 @@ public class AuthControllerTests {
 
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private SessionCache sessionCache;
     
     @BeforeEach
     void reset() {
         userSessionRepository.deleteAll();
+        sessionCache.invalidateAll();
         // userRepository.deleteAllByEmailNot("contact@vernite.dev");
     }
 
@@ -225,4 +232,29 @@ public class AuthControllerTests {
                 .cookie(AuthController.COOKIE_NAME, session.getSession()).exchange().expectStatus().isOk()
                 .expectBodyList(Event.class).hasSize(0);
     }
+
+    @Test
+    void logoutInvalidatesCachedSession() {
+        User u = new User("name", "surname", "usernameX", "contact+3@vernite.dev", "password", "English", "YYYY-MM-DD");
+        User registeredUser = Optional.ofNullable(userRepository.findByUsername("usernameX")).orElseGet(() -> userRepository.save(u));
+
+        UserSession session = new UserSession();
+        session.setIp("127.0.0.1");
+        session.setSession("session_token_logout_tests");
+        session.setLastUsed(new Date());
+        session.setRemembered(true);
+        session.setUserAgent("userAgent");
+        session.setUser(registeredUser);
+        session = userSessionRepository.save(session);
+
+        client.get().uri("/auth/me").cookie(AuthController.COOKIE_NAME, session.getSession()).exchange()
+                .expectStatus().isOk();
+        assertTrue(sessionCache.get(session.getSession()).isPresent());
+
+        client.post().uri("/auth/logout").cookie(AuthController.COOKIE_NAME, session.getSession()).exchange()
+                .expectStatus().isOk();
+
+        client.get().uri("/auth/me").cookie(AuthController.COOKIE_NAME, session.getSession()).exchange()
+                .expectStatus().isUnauthorized();
+    }
 }
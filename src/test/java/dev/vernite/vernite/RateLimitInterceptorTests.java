@@ -0,0 +1,146 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import dev.vernite.vernite.common.ratelimit.RateLimitRoutes;
+import dev.vernite.vernite.common.ratelimit.RateLimitRoutes.Route;
+import dev.vernite.vernite.integration.WebhookController;
+import dev.vernite.vernite.project.ProjectController;
+import dev.vernite.vernite.status.StatusController;
+
+@SpringBootTest
+@TestInstance(Lifecycle.PER_CLASS)
+@TestPropertySource({ "classpath:application.properties", "classpath:application-test.properties" })
+class RateLimitInterceptorTests {
+
+    @Autowired
+    private RateLimitInterceptor interceptor;
+
+    @Autowired
+    private RateLimitRoutes routes;
+
+    @Autowired
+    private ProjectController projectController;
+
+    @Autowired
+    private StatusController statusController;
+
+    @Autowired
+    private WebhookController webhookController;
+
+    private HandlerMethod handler(Object controller, String name) {
+        for (var method : ClassUtils.getUserClass(controller).getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                return new HandlerMethod(controller, method);
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private MockHttpServletRequest request(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/project/1/events");
+        request.setRemoteAddr(ip);
+        return request;
+    }
+
+    @Test
+    void routesTest() {
+        Route events = routes.get(handler(projectController, "getEvents"));
+        assertEquals(10, events.cost());
+        assertEquals(60, events.budget());
+
+        Route status = routes.get(handler(statusController, "getAll"));
+        assertEquals(1, status.cost());
+        assertEquals(0, status.budget());
+        assertNull(status.route());
+    }
+
+    @Test
+    void costTest() throws Exception {
+        HandlerMethod events = handler(projectController, "getEvents");
+        HandlerMethod status = handler(statusController, "getAll");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request("10.0.0.1"), response, status));
+        assertEquals("999", response.getHeader("X-Rate-Limit-Remaining"));
+
+        response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request("10.0.0.1"), response, events));
+        assertEquals("59", response.getHeader("X-Rate-Limit-Remaining"));
+
+        response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request("10.0.0.1"), response, status));
+        assertEquals("988", response.getHeader("X-Rate-Limit-Remaining"));
+    }
+
+    @Test
+    void budgetTest() throws Exception {
+        HandlerMethod events = handler(projectController, "getEvents");
+        for (int i = 0; i < 60; i++) {
+            assertTrue(interceptor.preHandle(request("10.0.0.2"), new MockHttpServletResponse(), events));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("10.0.0.2"), response, events));
+        assertEquals(429, response.getStatus());
+
+        response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request("10.0.0.2"), response, handler(statusController, "getAll")));
+    }
+
+    @Test
+    void randomCalendarKeysTest() throws Exception {
+        HandlerMethod calendar = handler(webhookController, "calendar");
+        for (int i = 0; i < 100; i++) {
+            MockHttpServletRequest request = request("10.0.0.3");
+            request.setParameter("key", "random" + i);
+            assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), calendar));
+        }
+        MockHttpServletRequest request = request("10.0.0.3");
+        request.setParameter("key", "random100");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request, response, calendar));
+        assertEquals(429, response.getStatus());
+    }
+
+}
@@ -49,6 +49,7 @@ import dev.vernite.vernite.user.UserRepository;
 import dev.vernite.vernite.user.UserSession;
 import dev.vernite.vernite.user.UserSessionRepository;
 import dev.vernite.vernite.user.auth.AuthController;
+import dev.vernite.vernite.user.session.SessionCache;
 import dev.vernite.vernite.user.auth.LoginRequest;
 
 @SpringBootTest
@@ -65,10 +66,14 @@ public class SessionControllerTests {
 
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private SessionCache sessionCache;
     
     @BeforeEach
     void reset() {
         userSessionRepository.deleteAll();
+        sessionCache.invalidateAll();
         userRepository.deleteAllByEmailNot("contact@vernite.dev");
     }
 
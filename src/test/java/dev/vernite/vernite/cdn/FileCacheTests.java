@@ -0,0 +1,100 @@
+package dev.vernite.vernite.cdn;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+
+import dev.vernite.vernite.cdn.FileCache.CachedFile;
+
+public class FileCacheTests {
+
+    private static final byte[] CONTENT = "cached content".getBytes(StandardCharsets.UTF_8);
+
+    private static File file() {
+        File file = new File();
+        file.setHash("hash");
+        file.setContentType("text/plain");
+        file.setUploaded(new Date(1000));
+        return file;
+    }
+
+    private static CachedFile read(byte[] content) {
+        return FileCache.read(file(), content.length, Channels.newChannel(new ByteArrayInputStream(content)));
+    }
+
+    @Test
+    void readContent() throws IOException {
+        CachedFile cached = read(CONTENT);
+
+        assertEquals("text/plain", cached.contentType());
+        assertEquals(1000, cached.uploaded());
+        assertTrue(cached.content().isDirect());
+        assertTrue(cached.content().isReadOnly());
+
+        Resource resource = cached.resource();
+        assertEquals(CONTENT.length, resource.contentLength());
+        try (InputStream in = resource.getInputStream()) {
+            assertArrayEquals(CONTENT, in.readAllBytes());
+        }
+        try (InputStream in = resource.getInputStream()) {
+            assertEquals(7, in.skip(7));
+            assertEquals(CONTENT.length - 7, in.available());
+            assertEquals(CONTENT[7], in.read());
+        }
+        assertEquals(0, cached.content().position());
+    }
+
+    @Test
+    void readTooShortContent() {
+        assertThrows(UncheckedIOException.class, () -> FileCache.read(file(), CONTENT.length + 1,
+                Channels.newChannel(new ByteArrayInputStream(CONTENT))));
+    }
+
+    @Test
+    void loadOnce() {
+        FileCache cache = new FileCache(1024, 64);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get("hash"));
+        CachedFile cached = cache.get("hash", hash -> {
+            loads.incrementAndGet();
+            return read(CONTENT);
+        });
+        assertSame(cached, cache.get("hash", hash -> {
+            loads.incrementAndGet();
+            return read(CONTENT);
+        }));
+        assertSame(cached, cache.get("hash"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void boundedBySize() {
+        FileCache cache = new FileCache(1024, 64);
+
+        assertTrue(cache.accepts(64));
+        assertFalse(cache.accepts(65));
+        for (int i = 0; i < 100; i++) {
+            cache.get("hash" + i, hash -> read(new byte[64]));
+        }
+        cache.cleanUp();
+        assertTrue(cache.size() <= 1024 / 64);
+    }
+
+}
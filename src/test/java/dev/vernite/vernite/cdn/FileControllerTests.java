@@ -0,0 +1,145 @@
+package dev.vernite.vernite.cdn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HexFormat;
+
+import javax.sql.rowset.serial.SerialBlob;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource({ "classpath:application.properties", "classpath:application-test.properties" })
+class FileControllerTests {
+
+    @Autowired
+    private WebTestClient client;
+    @Autowired
+    private FileManager fileManager;
+    @Autowired
+    private FileRepository fileRepository;
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Test
+    void getStoredFile() {
+        byte[] content = ("stored " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+        File file = fileManager.uploadFile("text/plain", content);
+
+        assertNull(fileRepository.findByHash(file.getHash()).getFile());
+        assertTrue(fileStorage.exists(file.getHash()));
+        client.get().uri("/cdn/" + file.getHash()).exchange().expectStatus().isOk().expectHeader()
+                .contentLength(content.length).expectBody(byte[].class).isEqualTo(content);
+        client.get().uri("/cdn/" + file.getHash()).header("If-None-Match", '"' + file.getHash() + '"').exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void moveDatabaseFileToStorage() throws SQLException, IOException {
+        byte[] content = ("database " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+        File file = new File();
+        file.setContentType("text/plain");
+        file.setHash(HexFormat.of().formatHex(LocalFileStorage.sha256().digest(content)));
+        file.setUploaded(new Date());
+        file.setFile(new SerialBlob(content));
+        file = fileRepository.save(file);
+
+        client.get().uri("/cdn/" + file.getHash()).exchange().expectStatus().isOk().expectBody(byte[].class)
+                .isEqualTo(content);
+
+        assertTrue(fileManager.moveToStorage(file.getId()));
+        assertFalse(fileManager.moveToStorage(file.getId()));
+        assertNull(fileRepository.findById(file.getId()).orElseThrow().getFile());
+        assertEquals(content.length, fileStorage.size(file.getHash()));
+        client.get().uri("/cdn/" + file.getHash()).exchange().expectStatus().isOk().expectBody(byte[].class)
+                .isEqualTo(content);
+    }
+
+    @Test
+    void getFileRanges() {
+        byte[] content = ("ranges " + System.nanoTime()).repeat(1000).getBytes(StandardCharsets.UTF_8);
+        File file = fileManager.uploadFile("text/plain", content);
+        String uri = "/cdn/" + file.getHash();
+
+        client.get().uri(uri).header("Range", "bytes=0-9").exchange().expectStatus()
+                .isEqualTo(HttpStatus.PARTIAL_CONTENT).expectHeader()
+                .valueEquals("Content-Range", "bytes 0-9/" + content.length).expectBody(byte[].class)
+                .isEqualTo(Arrays.copyOfRange(content, 0, 10));
+        client.get().uri(uri).header("Range", "bytes=-5").exchange().expectStatus()
+                .isEqualTo(HttpStatus.PARTIAL_CONTENT).expectBody(byte[].class)
+                .isEqualTo(Arrays.copyOfRange(content, content.length - 5, content.length));
+        client.get().uri(uri).header("Range", "bytes=0-1,5-6").exchange().expectStatus()
+                .isEqualTo(HttpStatus.PARTIAL_CONTENT).expectHeader()
+                .contentTypeCompatibleWith(MediaType.parseMediaType("multipart/byteranges"));
+        client.get().uri(uri).header("Range", "bytes=" + content.length + "-").exchange().expectStatus()
+                .isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    @Test
+    void getLargeDatabaseFile() throws SQLException {
+        byte[] content = ("large " + System.nanoTime()).repeat(100_000).getBytes(StandardCharsets.UTF_8);
+        File file = new File();
+        file.setContentType("text/plain");
+        file.setHash(HexFormat.of().formatHex(LocalFileStorage.sha256().digest(content)));
+        file.setUploaded(new Date());
+        file.setFile(new SerialBlob(content));
+        file = fileRepository.save(file);
+        String uri = "/cdn/" + file.getHash();
+
+        client.get().uri(uri).exchange().expectStatus().isOk().expectHeader().contentLength(content.length)
+                .expectBody(byte[].class).isEqualTo(content);
+        client.get().uri(uri).header("Range", "bytes=1000-1009").exchange().expectStatus()
+                .isEqualTo(HttpStatus.PARTIAL_CONTENT).expectHeader()
+                .valueEquals("Content-Range", "bytes 1000-1009/" + content.length).expectBody(byte[].class)
+                .isEqualTo(Arrays.copyOfRange(content, 1000, 1010));
+    }
+
+    @Test
+    void getImageVariant() throws IOException {
+        byte[] png = ImageProcessingServiceTests.png(64 + (int) (System.nanoTime() % 64), 64);
+        File file = fileManager.uploadFile("image/png", png);
+        String uri = "/cdn/" + file.getHash();
+
+        byte[] variant = client.get().uri(uri + "?size=48").exchange().expectStatus().isOk().expectHeader()
+                .contentType("image/webp").expectBody(byte[].class).returnResult().getResponseBody();
+        assertEquals("RIFF", new String(variant, 0, 4, StandardCharsets.US_ASCII));
+        client.get().uri(uri + "?size=48&format=webp").exchange().expectStatus().isOk().expectBody(byte[].class)
+                .isEqualTo(variant);
+
+        File derived = fileRepository.findBySourceAndVariant(file.getHash(), "48.webp");
+        assertEquals(HexFormat.of().formatHex(LocalFileStorage.sha256().digest(variant)), derived.getHash());
+        assertNotNull(fileRepository.findBySourceAndVariant(file.getHash(), "24.webp"));
+        client.get().uri(uri + "?size=24").header("If-None-Match", '"' + derived.getHash() + '"').exchange()
+                .expectStatus().isOk();
+        client.get().uri(uri + "?size=48").header("If-None-Match", '"' + derived.getHash() + '"').exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void getUnsupportedVariant() {
+        byte[] content = ("text " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+        File file = fileManager.uploadFile("text/plain", content);
+
+        client.get().uri("/cdn/" + file.getHash() + "?size=47").exchange().expectStatus().isBadRequest();
+        client.get().uri("/cdn/" + file.getHash() + "?format=png").exchange().expectStatus().isBadRequest();
+        client.get().uri("/cdn/" + file.getHash() + "?size=48").exchange().expectStatus().isBadRequest();
+    }
+
+}
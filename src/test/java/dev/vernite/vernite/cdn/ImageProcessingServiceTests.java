@@ -0,0 +1,119 @@
+package dev.vernite.vernite.cdn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+public class ImageProcessingServiceTests {
+
+    private ImageProcessingService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, 0x80000000 | (x * 255 / width) << 16 | (y * 255 / height) << 8);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static void assertWebp(byte[] image) {
+        assertEquals("RIFF", new String(Arrays.copyOfRange(image, 0, 4), StandardCharsets.US_ASCII));
+        assertEquals("WEBP", new String(Arrays.copyOfRange(image, 8, 12), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void convertToManySizes() throws IOException {
+        service = new ImageProcessingService(1, 1, 5);
+        byte[] png = png(120, 80);
+
+        for (int i = 0; i < 2; i++) {
+            List<byte[]> images = service.convert("logo.png", new ByteArrayInputStream(png), png.length, 400, 48);
+            assertEquals(2, images.size());
+            assertWebp(images.get(0));
+            assertWebp(images.get(1));
+            assertTrue(images.get(1).length < images.get(0).length);
+        }
+    }
+
+    @Test
+    void invalidImage() {
+        service = new ImageProcessingService(1, 1, 5);
+        byte[] data = "not an image".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class,
+                () -> service.convert("logo.png", new ByteArrayInputStream(data), data.length, 400));
+    }
+
+    @Test
+    void rejectWhenQueueIsFull() throws Exception {
+        service = new ImageProcessingService(1, 1, 7);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream blocking = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return -1;
+            }
+        };
+        var running = CompletableFuture.runAsync(() -> convertQuietly(blocking));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        var queued = CompletableFuture.runAsync(() -> convertQuietly(InputStream.nullInputStream()));
+        while (!queued.isDone() && service.queueSize() == 0) {
+            Thread.onSpinWait();
+        }
+
+        var e = assertThrows(ImageProcessingService.BusyException.class,
+                () -> service.convert("logo.png", InputStream.nullInputStream(), 1, 400));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals("7", e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        queued.get(10, TimeUnit.SECONDS);
+    }
+
+    private void convertQuietly(InputStream in) {
+        try {
+            service.convert("logo.png", in, 1, 400);
+        } catch (IOException e) {
+            // expected for empty input
+        }
+    }
+
+}
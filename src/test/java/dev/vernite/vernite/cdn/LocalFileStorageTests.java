@@ -0,0 +1,114 @@
+package dev.vernite.vernite.cdn;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocalFileStorageTests {
+
+    private static final byte[] CONTENT = "file content".repeat(10000).getBytes(StandardCharsets.UTF_8);
+
+    private static final String HASH = HexFormat.of().formatHex(LocalFileStorage.sha256().digest(CONTENT));
+
+    @TempDir
+    Path root;
+
+    private LocalFileStorage storage;
+
+    @BeforeEach
+    void init() throws IOException {
+        storage = new LocalFileStorage(root);
+    }
+
+    @Test
+    void storeAndRead() throws IOException {
+        assertFalse(storage.exists(HASH));
+        storage.store(HASH, new ByteArrayInputStream(CONTENT));
+
+        assertTrue(storage.exists(HASH));
+        assertEquals(CONTENT.length, storage.size(HASH));
+        assertEquals(root.resolve(HASH.substring(0, 2)).resolve(HASH.substring(2, 4)).resolve(HASH),
+                storage.localPath(HASH).orElseThrow());
+        try (InputStream in = Channels.newInputStream(storage.open(HASH))) {
+            assertArrayEquals(CONTENT, in.readAllBytes());
+        }
+        assertEquals(CONTENT.length, storage.resource(HASH).contentLength());
+        try (InputStream in = storage.resource(HASH).getInputStream()) {
+            assertArrayEquals(CONTENT, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void storeIsIdempotent() throws IOException {
+        storage.store(HASH, new ByteArrayInputStream(CONTENT));
+        ByteArrayInputStream again = new ByteArrayInputStream(CONTENT);
+        storage.store(HASH, again);
+
+        assertEquals(0, again.available());
+        assertEquals(CONTENT.length, storage.size(HASH));
+    }
+
+    @Test
+    void contentMustMatchHash() throws IOException {
+        assertThrows(IOException.class, () -> storage.store(HASH, new ByteArrayInputStream(new byte[] { 1 })));
+
+        assertFalse(storage.exists(HASH));
+        try (var files = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void storeComputesHash() throws IOException {
+        assertEquals(HASH, storage.store(new ByteArrayInputStream(CONTENT), CONTENT.length));
+        assertEquals(HASH, storage.store(new ByteArrayInputStream(CONTENT), CONTENT.length));
+
+        assertEquals(CONTENT.length, storage.size(HASH));
+        try (var files = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void storeRejectsTooLargeContent() throws IOException {
+        assertThrows(FileTooLargeException.class,
+                () -> storage.store(new ByteArrayInputStream(CONTENT), CONTENT.length - 1));
+
+        assertFalse(storage.exists(HASH));
+        try (var files = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void invalidHashIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> storage.exists("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> storage.open(HASH.toUpperCase()));
+    }
+
+    @Test
+    void delete() throws IOException {
+        storage.store(HASH, new ByteArrayInputStream(CONTENT));
+        storage.delete(HASH);
+        storage.delete(HASH);
+
+        assertFalse(storage.exists(HASH));
+        assertTrue(storage.localPath(HASH).isEmpty());
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import dev.vernite.vernite.project.Project;
+import dev.vernite.vernite.project.ProjectRepository;
+import dev.vernite.vernite.status.Status;
+import dev.vernite.vernite.task.Task;
+import dev.vernite.vernite.task.TaskRepository;
+import dev.vernite.vernite.user.User;
+import dev.vernite.vernite.user.UserRepository;
+
+/**
+ * EXPLAIN based checks that hot queries can use indexes created by migrations.
+ * Queries mirror SQL generated by repository methods named in
+ * {@code V2__hot_query_indexes.sql}. Runs against local MySQL like other
+ * integration tests.
+ */
+@SpringBootTest
+@TestInstance(Lifecycle.PER_CLASS)
+@TestPropertySource({ "classpath:application.properties", "classpath:application-test.properties" })
+class IndexUsageTests {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private User user;
+    private Project project;
+
+    @BeforeAll
+    void init() {
+        user = userRepository.findByUsername("index_usage_tests");
+        if (user == null) {
+            user = userRepository.save(new User("Name", "Surname", "index_usage_tests", "index_usage@test.pl", "1"));
+        }
+        for (int p = 0; p < 3; p++) {
+            project = new Project("Index usage " + p, "");
+            project.getStatuses().add(new Status("To Do", 0, 0, false, true, project));
+            project = projectRepository.save(project);
+            for (int i = 1; i <= 30; i++) {
+                Task task = new Task(i, "name", "description", project.getStatuses().get(0), user, 0, "low");
+                task.setDeadline(new Date(i * 86_400_000L));
+                task.setEstimatedDate(new Date(i * 86_400_000L));
+                if (i % 3 == 0) {
+                    task.setAssignee(user);
+                }
+                taskRepository.save(task);
+            }
+        }
+        jdbc.execute("ANALYZE TABLE `task`, `audit_log`, `user_session`");
+    }
+
+    private Map<String, Object> explain(String table, String sql, Object... args) {
+        List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN " + sql, args);
+        return plan.stream().filter(row -> table.equals(row.get("table"))).findFirst()
+                .orElseThrow(() -> new AssertionError("no plan for " + table + ": " + plan));
+    }
+
+    private void assertUsable(String index, Map<String, Object> row) {
+        Object keys = row.get("possible_keys");
+        assertNotNull(keys, "no usable index: " + row);
+        assertTrue(List.of(keys.toString().split(",")).contains(index), index + " not usable: " + row);
+    }
+
+    @Test
+    void taskByProjectAndNumber() {
+        var row = explain("t", "SELECT * FROM `task` `t` WHERE `t`.`project_id` = ? AND `t`.`number` = ?",
+                project.getId(), 5);
+        assertEquals("idx_task_project_number", row.get("key"), row.toString());
+        assertEquals("ref", row.get("type"), row.toString());
+    }
+
+    @Test
+    void taskByProjectAndDeadline() {
+        assertUsable("idx_task_project_deadline", explain("t", "SELECT `t`.* FROM `task` `t` "
+                + "JOIN `status` `s` ON `s`.`id` = `t`.`status_id` WHERE `t`.`project_id` = ? "
+                + "AND `t`.`deadline` IS NOT NULL AND `t`.`deadline` BETWEEN ? AND ?",
+                project.getId(), new Date(0), new Date(5 * 86_400_000L)));
+        assertUsable("idx_task_project_estimated_date", explain("t", "SELECT `t`.* FROM `task` `t` "
+                + "JOIN `status` `s` ON `s`.`id` = `t`.`status_id` WHERE `t`.`project_id` = ? "
+                + "AND `t`.`estimated_date` IS NOT NULL AND `t`.`estimated_date` BETWEEN ? AND ?",
+                project.getId(), new Date(0), new Date(5 * 86_400_000L)));
+    }
+
+    @Test
+    void taskByAssigneeAndDeadline() {
+        assertUsable("idx_task_assignee_deadline", explain("t", "SELECT `t`.* FROM `task` `t` "
+                + "WHERE `t`.`assignee` IS NOT NULL AND `t`.`assignee` = ? "
+                + "AND `t`.`deadline` IS NOT NULL AND `t`.`deadline` BETWEEN ? AND ?",
+                user.getId(), new Date(0), new Date(5 * 86_400_000L)));
+        assertUsable("idx_task_assignee_estimated_date", explain("t", "SELECT `t`.* FROM `task` `t` "
+                + "WHERE `t`.`assignee` IS NOT NULL AND `t`.`assignee` = ? "
+                + "AND `t`.`estimated_date` IS NOT NULL AND `t`.`estimated_date` BETWEEN ? AND ?",
+                user.getId(), new Date(0), new Date(5 * 86_400_000L)));
+    }
+
+    @Test
+    void auditLogByProject() {
+        assertUsable("idx_audit_log_project_date",
+                explain("a", "SELECT * FROM `audit_log` `a` WHERE `a`.`project_id` = ?", project.getId()));
+    }
+
+    @Test
+    void userSessionBySession() {
+        var row = explain("s", "SELECT * FROM `user_session` `s` WHERE `s`.`session` = ?", "token");
+        assertNotNull(row.get("possible_keys"), row.toString());
+        assertNotEquals("ALL", row.get("type"), row.toString());
+        assertUsable("idx_user_session_remembered_last_used", explain("s", "SELECT `s`.`id` FROM `user_session` `s` "
+                + "WHERE `s`.`last_used` < ? AND `s`.`remembered` = 0", new Date()));
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest
+@TestPropertySource({ "classpath:application.properties", "classpath:application-test.properties" })
+class SchemaMigratorTests {
+
+    @Autowired
+    private SchemaMigrator migrator;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void migrationsAreAppliedOnce() throws Exception {
+        List<Integer> versions = migrator.load().stream().map(SchemaMigrator.Migration::version).toList();
+        assertEquals(versions, jdbc.queryForList("SELECT `version` FROM `schema_migration` ORDER BY `version`",
+                Integer.class));
+        assertTrue(migrator.migrate().isEmpty());
+    }
+
+    @Test
+    void loadOrdersByVersion() throws Exception {
+        var migrations = migrator.load();
+        for (int i = 1; i < migrations.size(); i++) {
+            assertTrue(migrations.get(i - 1).version() < migrations.get(i).version());
+        }
+        assertEquals("task project", migrations.get(0).description());
+    }
+
+    @Test
+    void taskProjectIsNotNull() {
+        assertEquals("NO", jdbc.queryForObject("SELECT `IS_NULLABLE` FROM `information_schema`.`COLUMNS` "
+                + "WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = 'task' AND `COLUMN_NAME` = 'project_id'",
+                String.class));
+    }
+
+}
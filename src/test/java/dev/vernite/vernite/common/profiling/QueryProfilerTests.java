@@ -0,0 +1,155 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.profiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public class QueryProfilerTests {
+
+    private final ProfilingStatementInspector inspector = new ProfilingStatementInspector();
+
+    /**
+     * Creates assertion for query statistics header that its value is at most
+     * given budget.
+     * 
+     * @param budget maximal value of header
+     * @return assertion usable with {@code expectHeader().value(...)}
+     */
+    public static Consumer<String> atMost(int budget) {
+        return value -> {
+            int actual = Integer.parseInt(value);
+            if (actual > budget) {
+                throw new AssertionError("query budget exceeded: " + actual + " > " + budget);
+            }
+        };
+    }
+
+    @AfterEach
+    void cleanup() {
+        QueryProfiler.stop();
+    }
+
+    @Test
+    void shapeIgnoresValues() {
+        assertEquals("select * from task where id=? and name=?",
+                QueryProfiler.shape("select * from task where id=15 and name='it''s'"));
+        assertEquals("select * from task t1_0 where t1_0.id in (?)",
+                QueryProfiler.shape("select * from task t1_0 where t1_0.id in (?, ?,?)"));
+        assertEquals(QueryProfiler.shape("select * from task where id in (?,?)"),
+                QueryProfiler.shape("select * from task where id in (?,?,?,?)"));
+    }
+
+    @Test
+    void inspectorRecordsIntoCurrentProfile() {
+        String sql = "select * from task where id=?";
+        assertSame(sql, inspector.inspect(sql));
+
+        QueryProfile profile = new QueryProfile();
+        QueryProfiler.resume(profile);
+        inspector.inspect(sql);
+        inspector.inspect(sql);
+        inspector.inspect("select * from status where id=?");
+        assertSame(profile, QueryProfiler.stop());
+        inspector.inspect(sql);
+
+        assertEquals(3, profile.getStatements());
+        assertEquals(2, profile.getMaxRepeats());
+        assertEquals(sql, profile.getMostRepeated());
+    }
+
+    @Test
+    void inspectorCountsJoins() {
+        QueryProfile profile = new QueryProfile();
+        QueryProfiler.resume(profile);
+        inspector.inspect("select * from task t left join status s on s.id=t.status_id join project p on p.id=s.project_id");
+        inspector.inspect("select * from task t JOIN sprint s on s.id=t.sprint_id where t.name='a join b join c'");
+        QueryProfiler.stop();
+
+        assertEquals(2, profile.getMaxJoins());
+    }
+
+    @Test
+    void emptyProfile() {
+        QueryProfile profile = new QueryProfile();
+        assertEquals(0, profile.getStatements());
+        assertEquals(0, profile.getMaxJoins());
+        assertEquals(0, profile.getMaxRepeats());
+        assertNull(profile.getMostRepeated());
+    }
+
+    @Test
+    void listenerMeasuresExecutions() throws InterruptedException {
+        ProfilingSessionListener listener = new ProfilingSessionListener();
+        QueryProfile profile = new QueryProfile();
+        QueryProfiler.resume(profile);
+        listener.jdbcExecuteStatementStart();
+        Thread.sleep(5);
+        listener.jdbcExecuteStatementEnd();
+        listener.jdbcExecuteStatementEnd();
+        QueryProfiler.stop();
+
+        long nanos = profile.getJdbcNanos();
+        assertTrue(nanos >= 5_000_000 && nanos < 1_000_000_000);
+    }
+
+    @Test
+    void filterBuffersBodyUnlessDisabled() throws Exception {
+        QueryProfilerFilter filter = new QueryProfilerFilter(new QueryProfileReporter(true, 10));
+        MockHttpServletResponse buffered = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), buffered, (request, response) -> {
+            response.getOutputStream().write('a');
+            assertFalse(buffered.isCommitted());
+            assertEquals(0, buffered.getContentAsByteArray().length);
+        });
+        assertEquals("a", buffered.getContentAsString());
+        assertEquals("0", buffered.getHeader(QueryProfilerFilter.COUNT_HEADER));
+
+        MockHttpServletResponse streamed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), streamed, (request, response) -> {
+            QueryProfilerFilter.disableBuffering((HttpServletRequest) request);
+            response.getOutputStream().write('b');
+            assertEquals("b", streamed.getContentAsString());
+        });
+        assertEquals("b", streamed.getContentAsString());
+        assertNull(streamed.getHeader(QueryProfilerFilter.COUNT_HEADER));
+    }
+
+}
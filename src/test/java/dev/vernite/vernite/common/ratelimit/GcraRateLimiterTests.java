@@ -0,0 +1,91 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import dev.vernite.vernite.common.ratelimit.RateLimitStore.Result;
+
+class GcraRateLimiterTests {
+
+    private static final long PERIOD = 60_000;
+
+    @Test
+    void burstUpToLimitTest() {
+        GcraRateLimiter limiter = new GcraRateLimiter(100, Duration.ofMillis(PERIOD));
+        for (int i = 0; i < 10; i++) {
+            Result result = limiter.acquire("key", 1000, 10, PERIOD, 1);
+            assertTrue(result.allowed());
+            assertEquals(9 - i, result.remaining());
+        }
+        Result result = limiter.acquire("key", 1000, 10, PERIOD, 1);
+        assertFalse(result.allowed());
+        assertEquals(0, result.remaining());
+        assertEquals(6000, result.retryAfter());
+    }
+
+    @Test
+    void refillTest() {
+        GcraRateLimiter limiter = new GcraRateLimiter(100, Duration.ofMillis(PERIOD));
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("key", 1000, 10, PERIOD, 1);
+        }
+        assertFalse(limiter.acquire("key", 6999, 10, PERIOD, 1).allowed());
+        assertTrue(limiter.acquire("key", 7000, 10, PERIOD, 1).allowed());
+        assertFalse(limiter.acquire("key", 7000, 10, PERIOD, 1).allowed());
+
+        Result result = limiter.acquire("key", 1000 + 2 * PERIOD, 10, PERIOD, 1);
+        assertTrue(result.allowed());
+        assertEquals(9, result.remaining());
+    }
+
+    @Test
+    void costTest() {
+        GcraRateLimiter limiter = new GcraRateLimiter(100, Duration.ofMillis(PERIOD));
+        Result result = limiter.acquire("key", 1000, 10, PERIOD, 4);
+        assertTrue(result.allowed());
+        assertEquals(6, result.remaining());
+        assertTrue(limiter.acquire("key", 1000, 10, PERIOD, 6).allowed());
+        assertFalse(limiter.acquire("key", 1000, 10, PERIOD, 1).allowed());
+    }
+
+    @Test
+    void separateKeysTest() {
+        GcraRateLimiter limiter = new GcraRateLimiter(100, Duration.ofMillis(PERIOD));
+        assertTrue(limiter.acquire("a", 1000, 1, PERIOD, 1).allowed());
+        assertFalse(limiter.acquire("a", 1000, 1, PERIOD, 1).allowed());
+        assertTrue(limiter.acquire("b", 1000, 1, PERIOD, 1).allowed());
+    }
+
+}
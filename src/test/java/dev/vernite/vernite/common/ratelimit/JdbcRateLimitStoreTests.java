@@ -0,0 +1,98 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import dev.vernite.vernite.common.ratelimit.RateLimitStore.Result;
+
+@SpringBootTest
+@TestInstance(Lifecycle.PER_CLASS)
+@TestPropertySource({ "classpath:application.properties", "classpath:application-test.properties" })
+class JdbcRateLimitStoreTests {
+
+    private static final long PERIOD = 60_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void reset() {
+        jdbcTemplate.update("DELETE FROM `rate_limit_counter`");
+    }
+
+    @Test
+    void localLimitTest() {
+        JdbcRateLimitStore store = new JdbcRateLimitStore(jdbcTemplate, 100, Duration.ofMillis(PERIOD));
+        for (int i = 0; i < 3; i++) {
+            Result result = store.acquire("key", 1000, 3, PERIOD, 1);
+            assertTrue(result.allowed());
+            assertEquals(2 - i, result.remaining());
+        }
+        Result result = store.acquire("key", 1000, 3, PERIOD, 1);
+        assertFalse(result.allowed());
+        assertEquals(PERIOD - 1000, result.retryAfter());
+        assertTrue(store.acquire("key", PERIOD, 3, PERIOD, 1).allowed());
+    }
+
+    @Test
+    void sharedLimitTest() {
+        JdbcRateLimitStore first = new JdbcRateLimitStore(jdbcTemplate, 100, Duration.ofMillis(PERIOD));
+        JdbcRateLimitStore second = new JdbcRateLimitStore(jdbcTemplate, 100, Duration.ofMillis(PERIOD));
+
+        assertTrue(first.acquire("key", 1000, 4, PERIOD, 2).allowed());
+        first.sync();
+        assertTrue(second.acquire("key", 1000, 4, PERIOD, 1).allowed());
+        second.sync();
+
+        assertEquals(3L, jdbcTemplate.queryForObject("SELECT `hits` FROM `rate_limit_counter` WHERE `rl_key` = 'key'",
+                Long.class));
+        assertFalse(second.acquire("key", 1000, 4, PERIOD, 2).allowed());
+        assertTrue(second.acquire("key", 1000, 4, PERIOD, 1).allowed());
+        second.sync();
+
+        // first instance does not know about hits of second one until next sync
+        assertTrue(first.acquire("key", 1000, 4, PERIOD, 1).allowed());
+        first.sync();
+        assertFalse(first.acquire("key", 1000, 4, PERIOD, 1).allowed());
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link GcraRateLimiter} with previous rate limiter keeping deque of
+ * request timestamps per client. Number of clients simulates normal traffic
+ * (few keys) and scrape from many addresses (many keys).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final long TIME_LIMIT = TimeUnit.MINUTES.toMillis(1);
+    private static final int LIMIT = 1000;
+
+    @Param({ "16", "1000000" })
+    private int clients;
+
+    private String[] keys;
+
+    private GcraRateLimiter gcra;
+
+    private final Map<String, ArrayDeque<Long>> deques = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setup() {
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+        }
+        gcra = new GcraRateLimiter(100_000, Duration.ofMillis(TIME_LIMIT));
+    }
+
+    private String key() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    @Benchmark
+    public boolean gcra() {
+        return gcra.acquire(key(), System.currentTimeMillis(), LIMIT, TIME_LIMIT, 1).allowed();
+    }
+
+    @Benchmark
+    public boolean deque() {
+        return increment(key(), deques, System.currentTimeMillis(), LIMIT) >= 0;
+    }
+
+    /**
+     * Previous implementation from RateLimitInterceptor.
+     */
+    private static <T> int increment(T key, Map<T, ArrayDeque<Long>> map, long time, int maxSize) {
+        ArrayDeque<Long> deque = map.get(key);
+        if (deque == null) {
+            deque = new ArrayDeque<>();
+            deque.addLast(time);
+            map.put(key, deque);
+            return maxSize - 1;
+        } else {
+            synchronized (deque) {
+                while (!deque.isEmpty() && time - deque.getFirst() > TIME_LIMIT) {
+                    deque.removeFirst();
+                }
+                if (deque.size() >= maxSize) {
+                    return -1;
+                }
+                deque.addLast(time);
+                map.putIfAbsent(key, deque);
+                return maxSize - deque.size();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimiterBenchmark.class.getSimpleName())
+                .addProfiler("gc").build()).run();
+    }
+
+}
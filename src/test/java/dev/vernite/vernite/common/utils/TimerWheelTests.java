@@ -0,0 +1,94 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTests {
+
+    @Test
+    void expireAfterDelayTest() {
+        TimerWheel<String> wheel = new TimerWheel<>(8, 100);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 100);
+        assertEquals(2, wheel.size());
+
+        wheel.advance(expired::add);
+        assertEquals(List.of("b"), expired);
+        wheel.advance(expired::add);
+        assertEquals(List.of("b"), expired);
+        wheel.advance(expired::add);
+        assertEquals(List.of("b", "a"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void delayLongerThanWheelTest() {
+        TimerWheel<String> wheel = new TimerWheel<>(4, 10);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("a", 100);
+
+        for (int i = 0; i < 9; i++) {
+            wheel.advance(expired::add);
+        }
+        assertTrue(expired.isEmpty());
+        wheel.advance(expired::add);
+        assertEquals(List.of("a"), expired);
+    }
+
+    @Test
+    void rescheduleFromConsumerTest() {
+        TimerWheel<String> wheel = new TimerWheel<>(4, 10);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("a", 0);
+
+        for (int i = 0; i < 4; i++) {
+            wheel.advance(item -> {
+                expired.add(item);
+                wheel.schedule(item, 10);
+            });
+        }
+        assertEquals(List.of("a", "a", "a", "a"), expired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void invalidArgumentsTest() {
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<>(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<>(4, 0));
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.utils.counter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+class CounterAllocatorTests {
+
+    private final InMemoryCounters counters = new InMemoryCounters(0);
+
+    private final CounterAllocator allocator = new CounterAllocator(counters.repository(),
+            TransactionOperations.withoutTransaction(), 10);
+
+    @Test
+    void nextReservesBlocks() {
+        CounterSequence counter = counters.create(1, false);
+        for (int i = 1; i <= 25; i++) {
+            assertEquals(i, allocator.next(counter));
+        }
+        assertEquals(3, counters.roundTrips());
+        assertEquals(30, counters.value(1));
+    }
+
+    @Test
+    void nextStrictIncrementsEveryTime() {
+        CounterSequence counter = counters.create(1, true);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i, allocator.next(counter));
+        }
+        assertEquals(5, counters.roundTrips());
+        assertEquals(5, counters.value(1));
+    }
+
+    @Test
+    void nextSkipsValuesReservedElsewhere() {
+        CounterSequence counter = counters.create(1, false);
+        CounterAllocator other = new CounterAllocator(counters.repository(),
+                TransactionOperations.withoutTransaction(), 10);
+        assertEquals(1, allocator.next(counter));
+        assertEquals(11, other.next(counter));
+        assertEquals(21, counters.repository().getIncrementCounter(1));
+        assertEquals(2, allocator.next(counter));
+    }
+
+    @Test
+    void switchToStrictReleasesBlock() {
+        CounterSequence counter = counters.create(1, false);
+        assertEquals(1, allocator.next(counter));
+        assertEquals(2, allocator.next(counter));
+
+        counter.setStrict(true);
+        assertEquals(3, allocator.next(counter));
+        assertEquals(4, allocator.next(counter));
+        assertEquals(4, counters.value(1));
+
+        counter.setStrict(false);
+        assertEquals(5, allocator.next(counter));
+        assertEquals(14, counters.value(1));
+    }
+
+    @Test
+    void switchToStrictAfterOtherReservation() {
+        CounterSequence counter = counters.create(1, false);
+        CounterAllocator other = new CounterAllocator(counters.repository(),
+                TransactionOperations.withoutTransaction(), 10);
+        assertEquals(1, allocator.next(counter));
+        assertEquals(11, other.next(counter));
+
+        counter.setStrict(true);
+        assertEquals(21, allocator.next(counter));
+        assertEquals(22, other.next(counter));
+
+        counter.setStrict(false);
+        assertEquals(23, allocator.next(counter));
+        assertEquals(33, other.next(counter));
+    }
+
+    @Test
+    void nextMissingCounter() {
+        CounterSequence counter = new CounterSequence();
+        counter.setId(7);
+        assertThrows(IllegalStateException.class, () -> allocator.next(counter));
+    }
+
+    @Test
+    void nextConcurrentValuesAreUnique() throws InterruptedException {
+        CounterSequence counter = counters.create(1, false);
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    values.add(allocator.next(counter));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(8000, values.size());
+        assertEquals(8000, counters.value(1));
+    }
+
+    @Test
+    void releaseReturnsUnusedValues() {
+        CounterSequence first = counters.create(1, false);
+        CounterSequence second = counters.create(2, false);
+        allocator.next(first);
+        allocator.next(first);
+        allocator.next(second);
+        counters.repository().reserveCounter(2, 5);
+
+        allocator.release();
+
+        assertEquals(2, counters.value(1));
+        assertEquals(15, counters.value(2));
+        assertEquals(3, allocator.next(first));
+    }
+
+}
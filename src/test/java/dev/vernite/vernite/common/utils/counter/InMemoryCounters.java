@@ -0,0 +1,111 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.common.utils.counter;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-memory counter sequences behind {@link CounterSequenceRepository}
+ * interface. Every call to database procedure holds counter row lock and can
+ * simulate round trip latency.
+ */
+class InMemoryCounters {
+
+    private final Map<Long, long[]> counters = new ConcurrentHashMap<>();
+
+    private final AtomicInteger roundTrips = new AtomicInteger();
+
+    private final long latencyNanos;
+
+    InMemoryCounters(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+    }
+
+    CounterSequence create(long id, boolean strict) {
+        counters.put(id, new long[1]);
+        CounterSequence counter = new CounterSequence();
+        counter.setId(id);
+        counter.setStrict(strict);
+        return counter;
+    }
+
+    long value(long id) {
+        return counters.get(id)[0];
+    }
+
+    int roundTrips() {
+        return roundTrips.get();
+    }
+
+    private long add(long id, long size) {
+        roundTrips.incrementAndGet();
+        long[] row = counters.get(id);
+        if (row == null) {
+            return 0;
+        }
+        synchronized (row) {
+            if (latencyNanos > 0) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+            row[0] += size;
+            return row[0];
+        }
+    }
+
+    private int compareAndSet(long id, long expected, long value) {
+        long[] row = counters.get(id);
+        synchronized (row) {
+            if (row[0] != expected) {
+                return 0;
+            }
+            row[0] = value;
+            return 1;
+        }
+    }
+
+    CounterSequenceRepository repository() {
+        return (CounterSequenceRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { CounterSequenceRepository.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getIncrementCounter":
+                            return add((long) args[0], 1);
+                        case "reserveCounter":
+                            return add((long) args[0], (int) args[1]);
+                        case "compareAndSet":
+                            return compareAndSet((long) args[0], (long) args[1], (long) args[2]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+}
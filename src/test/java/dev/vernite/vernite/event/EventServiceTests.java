@@ -0,0 +1,325 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.server.ResponseStatusException;
+
+import dev.vernite.vernite.common.profiling.QueryProfile;
+import dev.vernite.vernite.common.profiling.QueryProfiler;
+import dev.vernite.vernite.project.Project;
+import dev.vernite.vernite.user.User;
+
+public class EventServiceTests {
+
+    private static class FakeProvider implements EventProvider {
+
+        private final Event.Type type;
+
+        private final Supplier<List<Event>> events;
+
+        FakeProvider(Event.Type type, Supplier<List<Event>> events) {
+            this.type = type;
+            this.events = events;
+        }
+
+        @Override
+        public List<Event> provideUserEvents(User user, Date startDate, Date endDate, EventFilter filter,
+                EventCursor after, int limit) {
+            return page(after, limit);
+        }
+
+        @Override
+        public List<Event> provideProjectEvents(Project project, Date startDate, Date endDate, EventFilter filter,
+                EventCursor after, int limit) {
+            return page(after, limit);
+        }
+
+        private List<Event> page(EventCursor after, int limit) {
+            return events.get().stream().sorted().filter(event -> after == null || after.isBefore(event))
+                    .limit(limit).toList();
+        }
+
+        @Override
+        public String getType() {
+            return type.name();
+        }
+
+    }
+
+    private static Event event(Event.Type type, long id) {
+        return new Event(1, type, id, "name", "", null, new Date(id), null);
+    }
+
+    private static Supplier<List<Event>> slow(long millis, Event event) {
+        return () -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(event);
+        };
+    }
+
+    private ThreadPoolTaskExecutor executor;
+
+    private EventService service;
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    @BeforeEach
+    void init() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.initialize();
+        service = new EventService(executor, 500);
+    }
+
+    @AfterEach
+    void cleanup() {
+        executor.shutdown();
+        QueryProfiler.stop();
+    }
+
+    @Test
+    void providersRunConcurrently() {
+        service.setProviders(List.of(
+                new FakeProvider(Event.Type.MEETING, slow(200, event(Event.Type.MEETING, 2))),
+                new FakeProvider(Event.Type.SPRINT, slow(200, event(Event.Type.SPRINT, 1))),
+                new FakeProvider(Event.Type.RELEASE, slow(200, event(Event.Type.RELEASE, 3)))), environment);
+
+        long start = System.nanoTime();
+        var events = service.getProjectEvents(new Project(), null, null, new EventFilter());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(3, events.size());
+        assertEquals(Event.Type.SPRINT, events.iterator().next().getType());
+        assertTrue(millis < 500, "took " + millis + " ms");
+    }
+
+    @Test
+    void filterSelectsProviders() {
+        service.setProviders(List.of(
+                new FakeProvider(Event.Type.MEETING, () -> List.of(event(Event.Type.MEETING, 1))),
+                new FakeProvider(Event.Type.SPRINT, () -> { throw new AssertionError("not selected"); })),
+                environment);
+        EventFilter filter = new EventFilter();
+        filter.setType(List.of(Event.Type.MEETING.ordinal()));
+
+        assertEquals(1, service.getUserEvents(new User(), null, null, filter).size());
+    }
+
+    @Test
+    void timedOutProviderIsSkipped() {
+        environment.setProperty("vernite.events.task-deadline.timeout", "50");
+        service.setProviders(List.of(
+                new FakeProvider(Event.Type.MEETING, () -> List.of(event(Event.Type.MEETING, 1))),
+                new FakeProvider(Event.Type.TASK_DEADLINE, slow(1000, event(Event.Type.TASK_DEADLINE, 2)))),
+                environment);
+
+        long start = System.nanoTime();
+        var events = service.getUserEvents(new User(), null, null, new EventFilter());
+
+        assertEquals(1, events.size());
+        assertTrue(System.nanoTime() - start < 500_000_000L);
+    }
+
+    @Test
+    void failedProviderIsSkipped() {
+        service.setProviders(List.of(
+                new FakeProvider(Event.Type.MEETING, () -> List.of(event(Event.Type.MEETING, 1))),
+                new FakeProvider(Event.Type.RELEASE, () -> { throw new IllegalArgumentException("broken"); })),
+                environment);
+
+        assertEquals(1, service.getUserEvents(new User(), null, null, new EventFilter()).size());
+    }
+
+    @Test
+    void requiredProviderFails() {
+        environment.setProperty("vernite.events.release.partial", "false");
+        environment.setProperty("vernite.events.sprint.partial", "false");
+        environment.setProperty("vernite.events.sprint.timeout", "50");
+        var broken = new FakeProvider(Event.Type.RELEASE, () -> { throw new IllegalArgumentException("broken"); });
+        var slow = new FakeProvider(Event.Type.SPRINT, slow(1000, event(Event.Type.SPRINT, 1)));
+
+        service.setProviders(List.of(broken), environment);
+        var error = assertThrows(IllegalArgumentException.class,
+                () -> service.getUserEvents(new User(), null, null, new EventFilter()));
+        assertEquals("broken", error.getMessage());
+
+        service.setProviders(List.of(slow), environment);
+        assertThrows(IllegalStateException.class,
+                () -> service.getUserEvents(new User(), null, null, new EventFilter()));
+    }
+
+    @Test
+    void profileOfProvidersIsMerged() {
+        QueryProfile profile = new QueryProfile();
+        QueryProfiler.resume(profile);
+        service.setProviders(List.of(new FakeProvider(Event.Type.MEETING, () -> {
+            QueryProfile worker = QueryProfiler.current();
+            assertTrue(worker != null && worker != profile);
+            return List.of();
+        })), environment);
+
+        service.getUserEvents(new User(), null, null, new EventFilter());
+
+        assertSame(profile, QueryProfiler.current());
+    }
+
+    @Test
+    void mergeKeepsOrderAndLimit() {
+        var first = List.of(event(Event.Type.MEETING, 1), event(Event.Type.MEETING, 4));
+        var second = List.of(event(Event.Type.SPRINT, 2), event(Event.Type.SPRINT, 3), event(Event.Type.SPRINT, 5));
+
+        var merged = EventService.merge(List.of(first, List.of(), second), 4);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), merged.stream().map(Event::getRelatedId).toList());
+        assertEquals(0, EventService.merge(List.of(), 10).size());
+    }
+
+    @Test
+    void mergeSkipsDuplicates() {
+        var merged = EventService.merge(List.of(List.of(event(Event.Type.MEETING, 1)),
+                List.of(event(Event.Type.MEETING, 1), event(Event.Type.MEETING, 2))), 10);
+
+        assertEquals(2, merged.size());
+    }
+
+    @Test
+    void cursorPagesThroughAllEvents() {
+        service.setProviders(List.of(
+                new FakeProvider(Event.Type.MEETING,
+                        () -> LongStream.range(0, 7).mapToObj(i -> event(Event.Type.MEETING, i * 2)).toList()),
+                new FakeProvider(Event.Type.SPRINT,
+                        () -> LongStream.range(0, 6).mapToObj(i -> event(Event.Type.SPRINT, i * 2 + 1)).toList())),
+                environment);
+
+        List<Event> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            EventPage page = service.getUserEvents(new User(), null, null, new EventFilter(), cursor, 5);
+            assertTrue(page.events().size() <= 5);
+            all.addAll(page.events());
+            cursor = page.next() == null ? null : page.next().encode();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(LongStream.range(0, 13).boxed().toList(), all.stream().map(Event::getRelatedId).toList());
+        assertEquals(all, service.getUserEvents(new User(), null, null, new EventFilter()));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        service.setProviders(List.of(new FakeProvider(Event.Type.MEETING, () -> List.of(event(Event.Type.MEETING, 1)))),
+                environment);
+
+        EventPage page = service.getProjectEvents(new Project(), null, null, new EventFilter(), null, 2);
+
+        assertEquals(1, page.events().size());
+        assertNull(page.next());
+        assertNull(page.toResponse().getHeaders().getFirst(EventPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void pageWithFailedProviderHasNoCursor() {
+        environment.setProperty("vernite.events.sprint.timeout", "50");
+        var events = List.of(event(Event.Type.MEETING, 1), event(Event.Type.MEETING, 2),
+                event(Event.Type.MEETING, 3));
+        service.setProviders(List.of(new FakeProvider(Event.Type.MEETING, () -> events),
+                new FakeProvider(Event.Type.RELEASE, () -> { throw new IllegalArgumentException("broken"); })),
+                environment);
+
+        EventPage page = service.getUserEvents(new User(), null, null, new EventFilter(), null, 2);
+
+        assertEquals(2, page.events().size());
+        assertFalse(page.complete());
+        assertNull(page.next());
+        assertNull(page.toResponse().getHeaders().getFirst(EventPage.NEXT_CURSOR_HEADER));
+        assertEquals("true", page.toResponse().getHeaders().getFirst(EventPage.INCOMPLETE_HEADER));
+
+        service.setProviders(List.of(new FakeProvider(Event.Type.MEETING, () -> events),
+                new FakeProvider(Event.Type.SPRINT, slow(1000, event(Event.Type.SPRINT, 4)))), environment);
+
+        page = service.getUserEvents(new User(), null, null, new EventFilter(), null, 2);
+
+        assertFalse(page.complete());
+        assertNull(page.next());
+
+        service.setProviders(List.of(new FakeProvider(Event.Type.MEETING, () -> events)), environment);
+
+        page = service.getUserEvents(new User(), null, null, new EventFilter(), null, 2);
+
+        assertTrue(page.complete());
+        assertNotNull(page.next());
+        assertNull(page.toResponse().getHeaders().getFirst(EventPage.INCOMPLETE_HEADER));
+    }
+
+    @Test
+    void invalidPageRequest() {
+        service.setProviders(List.of(), environment);
+
+        assertThrows(ResponseStatusException.class,
+                () -> service.getUserEvents(new User(), null, null, new EventFilter(), "not a cursor", 10));
+        assertThrows(ResponseStatusException.class,
+                () -> service.getUserEvents(new User(), null, null, new EventFilter(), null, 0));
+    }
+
+    @Test
+    void cursorRoundTrip() {
+        EventCursor cursor = EventCursor.of(event(Event.Type.RELEASE, 42));
+
+        assertEquals(cursor, EventCursor.decode(cursor.encode()));
+        assertTrue(cursor.isBefore(event(Event.Type.RELEASE, 43)));
+        assertTrue(!cursor.isBefore(event(Event.Type.RELEASE, 42)));
+        assertThrows(IllegalArgumentException.class, () -> EventCursor.decode("AAAA"));
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.integration.calendar;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class CalendarFeedCacheTests {
+
+    private static final AtomicLong IDS = new AtomicLong(1_000_000);
+
+    private final CalendarFeedCache cache = new CalendarFeedCache(1 << 20, 60);
+
+    private static CalendarFeed feed(String body, long userId, long... projects) {
+        Set<Long> ids = new HashSet<>();
+        for (long project : projects) {
+            ids.add(project);
+        }
+        return new CalendarFeed(body.getBytes(), "W/\"" + body + "\"", System.currentTimeMillis(),
+                CalendarFeedCache.clock(), userId, ids);
+    }
+
+    @Test
+    void feedIsCachedUntilProjectChanges() {
+        long user = IDS.incrementAndGet();
+        long project = IDS.incrementAndGet();
+        cache.put("key", feed("a", user, project));
+
+        assertNotNull(cache.get("key"));
+        CalendarFeedCache.projectChanged(IDS.incrementAndGet());
+        assertNotNull(cache.get("key"));
+        CalendarFeedCache.projectChanged(project);
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    void feedIsOutdatedWhenUserChanges() {
+        long user = IDS.incrementAndGet();
+        cache.put("key", feed("a", user));
+
+        CalendarFeedCache.userChanged(user);
+
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    void changeDuringRenderingOutdatesFeed() {
+        long project = IDS.incrementAndGet();
+        CalendarFeed feed = feed("a", IDS.incrementAndGet(), project);
+        CalendarFeedCache.projectChanged(project);
+
+        cache.put("key", feed);
+
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    void changeIsRecordedAfterCommit() {
+        long project = IDS.incrementAndGet();
+        cache.put("key", feed("a", IDS.incrementAndGet(), project));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            CalendarFeedCache.projectChanged(project);
+            assertNotNull(cache.get("key"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertNotNull(cache.get("key"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            CalendarFeedCache.projectChanged(project);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    void unchangedEventsKeepPreviousFeed() {
+        long user = IDS.incrementAndGet();
+        CalendarFeed first = cache.put("key", new CalendarFeed("first".getBytes(), "W/\"a\"", 1000,
+                CalendarFeedCache.clock(), user, Set.of()));
+        CalendarFeedCache.userChanged(user);
+
+        CalendarFeed second = cache.put("key", new CalendarFeed("second".getBytes(), "W/\"a\"", 2000,
+                CalendarFeedCache.clock(), user, Set.of()));
+
+        assertEquals(1000, second.lastModified());
+        assertArrayEquals(first.body(), second.body());
+        assertNotNull(cache.get("key"));
+
+        CalendarFeed third = cache.put("key", new CalendarFeed("third".getBytes(), "W/\"b\"", 3000,
+                CalendarFeedCache.clock(), user, Set.of()));
+        assertEquals(3000, third.lastModified());
+    }
+
+    @Test
+    void streamedFeedKeepsOnlyTag() {
+        long user = IDS.incrementAndGet();
+        cache.put("streamed", new CalendarFeed(null, "W/\"1-2\"", 1000, CalendarFeedCache.clock(), user, Set.of()));
+
+        CalendarFeed cached = cache.get("streamed");
+        assertNotNull(cached);
+        assertNull(cached.body());
+        assertEquals("W/\"1-2\"", cached.etag());
+
+        CalendarFeedCache.userChanged(user);
+        assertNull(cache.get("streamed"));
+    }
+
+    @Test
+    void forgottenChangeOutdatesOlderFeeds() {
+        long project = IDS.incrementAndGet();
+        cache.put("old", feed("a", IDS.incrementAndGet(), project));
+        CalendarFeedCache.projectChanged(IDS.incrementAndGet());
+        assertNotNull(cache.get("old"));
+
+        for (int i = 0; i < CalendarFeedCache.MAX_CHANGES + 100; i++) {
+            CalendarFeedCache.projectChanged(IDS.incrementAndGet());
+        }
+
+        assertNull(cache.get("old"));
+        cache.put("new", feed("b", IDS.incrementAndGet(), project));
+        assertNotNull(cache.get("new"));
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.integration.calendar;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import dev.vernite.vernite.event.Event;
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.Property;
+import net.fortuna.ical4j.model.component.VEvent;
+
+public class ICalendarWriterTests {
+
+    private static byte[] write(Event... events) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ICalendarWriter writer = new ICalendarWriter(out, Instant.ofEpochSecond(1_600_000_000));
+        writer.begin("Vernite - test; calendar");
+        for (Event event : events) {
+            writer.write(event);
+        }
+        writer.end();
+        return out.toByteArray();
+    }
+
+    @Test
+    void writtenFeedIsParsed() throws Exception {
+        String description = "Line, with; special \\ chars\nand new line " + "ąęść".repeat(40);
+        Event meeting = new Event(1, Event.Type.MEETING, 2, "Meeting", description, new Date(1_600_000_000_000L),
+                new Date(1_600_003_600_000L), "Room 1");
+        Event deadline = new Event(1, Event.Type.TASK_DEADLINE, 3, "Deadline", null, null,
+                new Date(1_600_100_000_000L), null);
+
+        byte[] body = write(meeting, deadline);
+        Calendar calendar = new CalendarBuilder().build(new ByteArrayInputStream(body));
+
+        assertEquals("Vernite - test; calendar", calendar.getProperty("X-WR-CALNAME").getValue());
+        var events = calendar.getComponents(Component.VEVENT);
+        assertEquals(2, events.size());
+        VEvent first = (VEvent) events.get(0);
+        assertEquals(description, first.getDescription().getValue());
+        assertEquals("Room 1", first.getLocation().getValue());
+        assertEquals(new Date(1_600_000_000_000L), first.getStartDate().getDate());
+        assertEquals(new Date(1_600_003_600_000L), first.getEndDate().getDate());
+        assertEquals("project_1_event_" + Event.Type.MEETING.ordinal() + "_2", first.getUid().getValue());
+        VEvent second = (VEvent) events.get(1);
+        assertEquals("20200914", second.getProperty(Property.DTSTART).getValue());
+        assertEquals(null, second.getDescription());
+    }
+
+    @Test
+    void linesAreFolded() throws Exception {
+        Event event = new Event(1, Event.Type.MEETING, 2, "ż".repeat(100), null, new Date(0), new Date(1), null);
+
+        String body = new String(write(event), StandardCharsets.UTF_8);
+
+        for (String line : body.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        assertTrue(body.endsWith("END:VCALENDAR\r\n"));
+    }
+
+    @Test
+    void textIsEscaped() {
+        assertEquals("a\\,b\\;c\\\\d\\ne\\nf", ICalendarWriter.escape("a,b;c\\d\r\ne\nf"));
+    }
+
+    @Test
+    void spillStreamMovesBytesOverThreshold() throws Exception {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        SpillOutputStream small = new SpillOutputStream(4, () -> target);
+        small.write(new byte[] { 1, 2, 3, 4 });
+        assertFalse(small.isSpilled());
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, small.toByteArray());
+        assertEquals(0, target.size());
+
+        SpillOutputStream big = new SpillOutputStream(4, () -> target);
+        big.write(new byte[] { 1, 2, 3 });
+        big.write(new byte[] { 4, 5 });
+        big.write(6);
+        assertTrue(big.isSpilled());
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6 }, target.toByteArray());
+        assertThrows(IllegalStateException.class, big::toByteArray);
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import dev.vernite.vernite.common.profiling.QueryProfile;
+import dev.vernite.vernite.common.profiling.QueryProfiler;
+import dev.vernite.vernite.event.EventFilter;
+import dev.vernite.vernite.project.Project;
+import dev.vernite.vernite.project.ProjectRepository;
+import dev.vernite.vernite.sprint.Sprint;
+import dev.vernite.vernite.sprint.SprintRepository;
+import dev.vernite.vernite.status.Status;
+import dev.vernite.vernite.user.User;
+import dev.vernite.vernite.user.UserRepository;
+
+@SpringBootTest
+@TestInstance(Lifecycle.PER_CLASS)
+@TestPropertySource(locations = { "classpath:application.properties",
+        "classpath:application-test.properties" }, properties = "vernite.query-profiler.enabled=true")
+class FetchPlanTests {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private SprintRepository sprintRepository;
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private User user;
+    private Project project;
+    private QueryProfile profile;
+
+    @BeforeAll
+    void init() {
+        user = userRepository.findByUsername("fetch_plan_tests");
+        if (user == null) {
+            user = userRepository.save(new User("Name", "Surname", "fetch_plan_tests", "fetch_plan@test.pl", "1"));
+        }
+        project = new Project("Fetch plan project", "");
+        project.getStatuses().add(new Status("To Do", 0, 0, false, true, project));
+        project.getStatuses().add(new Status("Done", 0, 1, true, false, project));
+        project = projectRepository.save(project);
+        Sprint sprint = sprintRepository.save(new Sprint("name", new Date(0), new Date(), Sprint.Status.ACTIVE,
+                "description", project));
+        for (int i = 1; i <= 3; i++) {
+            Task task = new Task(i, "name " + i, "description", project.getStatuses().get(0), user, 0, "low");
+            task.setAssignee(user);
+            task.setSprint(sprint);
+            task.setDeadline(new Date(1000));
+            taskRepository.save(task);
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        QueryProfiler.stop();
+    }
+
+    private <T> T profile(Supplier<T> query) {
+        profile = new QueryProfile();
+        QueryProfiler.resume(profile);
+        try {
+            return query.get();
+        } finally {
+            QueryProfiler.stop();
+        }
+    }
+
+    private void assertBudget(int statements, int joins) {
+        assertTrue(profile.getStatements() <= statements,
+                "statements: " + profile.getStatements() + " > " + statements + " " + profile.getMostRepeated());
+        assertTrue(profile.getMaxJoins() <= joins, "joins: " + profile.getMaxJoins() + " > " + joins);
+    }
+
+    @Test
+    void boardGraph() {
+        List<Task> tasks = profile(() -> taskRepository.findByProjectId(project.getId()));
+        assertBudget(1, 3);
+        assertEquals(3, tasks.size());
+        assertTrue(Hibernate.isInitialized(tasks.get(0).getStatus()));
+        assertTrue(Hibernate.isInitialized(tasks.get(0).getSprint()));
+        assertTrue(Hibernate.isInitialized(tasks.get(0).getAssignee()));
+        assertFalse(Hibernate.isInitialized(tasks.get(0).getUser()));
+
+        tasks = profile(() -> taskRepository
+                .findAllOrdered((root, query, cb) -> cb.equal(root.get("project"), project)));
+        assertBudget(1, 3);
+        assertEquals(3, tasks.size());
+        assertTrue(Hibernate.isInitialized(tasks.get(0).getSprint()));
+    }
+
+    @Test
+    void detailGraph() {
+        Task task = profile(() -> taskRepository.findByProjectAndNumber(project, 1).orElseThrow());
+        assertBudget(1, 2);
+        assertTrue(Hibernate.isInitialized(task.getStatus()));
+        assertTrue(Hibernate.isInitialized(task.getProject()));
+        assertFalse(Hibernate.isInitialized(task.getSprint()));
+        assertFalse(Hibernate.isInitialized(task.getUser()));
+    }
+
+    @Test
+    void webhookGraph() {
+        Task task = profile(() -> taskRepository.findForWebhookByProjectAndNumber(project, 1).orElseThrow());
+        assertBudget(1, 3);
+        assertTrue(Hibernate.isInitialized(task.getProject().getStatuses()));
+    }
+
+    @Test
+    void eventGraph() {
+        List<Task> tasks = profile(() -> taskRepository.findAllFromProjectAndDateDeadline(project, new Date(0),
+                new Date(2000), new EventFilter(), null, 100));
+        assertBudget(1, 1);
+        assertEquals(3, tasks.size());
+        assertTrue(Hibernate.isInitialized(tasks.get(0).getStatus()));
+        assertFalse(Hibernate.isInitialized(tasks.get(0).getSprint()));
+
+        List<Sprint> sprints = profile(() -> sprintRepository.findAllFromProjectAndDate(project, new Date(0),
+                new Date(System.currentTimeMillis() + 60000), null, 100));
+        assertBudget(1, 1);
+        assertEquals(1, sprints.size());
+        assertTrue(Hibernate.isInitialized(sprints.get(0).getProject()));
+    }
+
+    @Test
+    void projectDetailGraph() {
+        Project result = profile(() -> projectRepository.findByIdAndActiveNull(project.getId()).orElseThrow());
+        assertBudget(1, 2);
+        assertTrue(Hibernate.isInitialized(result.getTaskCounter()));
+        assertFalse(Hibernate.isInitialized(result.getStatuses()));
+    }
+
+}
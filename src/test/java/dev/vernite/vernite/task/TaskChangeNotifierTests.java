@@ -0,0 +1,174 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import dev.vernite.protobuf.BasicAction;
+import dev.vernite.vernite.project.Project;
+import dev.vernite.vernite.status.Status;
+import dev.vernite.vernite.task.TaskChangeNotifier.TaskChange;
+import dev.vernite.vernite.task.TaskChangeNotifier.TaskState;
+import dev.vernite.vernite.user.User;
+
+class TaskChangeNotifierTests {
+
+    private static Task task(long id) {
+        Project project = new Project("Test");
+        project.setId(7);
+        User user = new User();
+        user.setId(3);
+        Task task = new Task(id, "Task", "Description", new Status("To do", 0, 0, false, true, project), user, 0);
+        task.setId(id);
+        return task;
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+
+    @AfterEach
+    void clean() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void mergeTest() {
+        Task task = task(1);
+        TaskState state = TaskState.of(task);
+        TaskChange added = new TaskChange(state, BasicAction.ADDED, null);
+        TaskChange updated = new TaskChange(state, BasicAction.UPDATED, null);
+        TaskChange removed = new TaskChange(state, BasicAction.REMOVED, null);
+
+        assertEquals(BasicAction.ADDED, TaskChangeNotifier.merge(added, updated).action());
+        assertNull(TaskChangeNotifier.merge(added, removed));
+        assertEquals(BasicAction.UPDATED, TaskChangeNotifier.merge(updated, updated).action());
+        assertEquals(BasicAction.REMOVED, TaskChangeNotifier.merge(updated, removed).action());
+    }
+
+    @Test
+    void mergeKeepsFirstBaseTest() {
+        Task task = task(2);
+        TaskSnapshot first = TaskSnapshot.of(task);
+        task.setName("Changed");
+        TaskSnapshot second = TaskSnapshot.of(task);
+        TaskChange merged = TaskChangeNotifier.merge(
+                new TaskChange(TaskState.of(task), BasicAction.UPDATED, first),
+                new TaskChange(TaskState.of(task), BasicAction.UPDATED, second));
+
+        assertEquals(first, merged.base());
+    }
+
+    @Test
+    void recordUpdatesSnapshotTest() {
+        Task task = task(105);
+        TaskSnapshot loaded = TaskSnapshot.of(task);
+        task.setSnapshot(loaded);
+        task.setName("Changed");
+        TaskChangeNotifier.record(task, BasicAction.UPDATED);
+
+        assertEquals(loaded, TaskChangeNotifier.getPending().get(105L).base());
+        assertEquals("Changed", task.getSnapshot().name());
+    }
+
+    @Test
+    void recordWithoutTransactionTest() {
+        Task task = task(101);
+        TaskChangeNotifier.record(task, BasicAction.UPDATED);
+        TaskChangeNotifier.record(task, BasicAction.UPDATED);
+
+        assertEquals(BasicAction.UPDATED, TaskChangeNotifier.getPending().get(101L).action());
+        assertEquals(7, TaskChangeNotifier.getPending().get(101L).task().projectId());
+    }
+
+    @Test
+    void recordCommittedTest() {
+        Task task = task(102);
+        TransactionSynchronizationManager.initSynchronization();
+        TaskChangeNotifier.record(task, BasicAction.ADDED);
+        TaskChangeNotifier.record(task, BasicAction.UPDATED);
+
+        assertFalse(TaskChangeNotifier.getPending().containsKey(102L));
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(BasicAction.ADDED, TaskChangeNotifier.getPending().get(102L).action());
+        assertNull(TransactionSynchronizationManager.getResource(TaskChangeNotifier.class));
+    }
+
+    @Test
+    void recordRolledBackTest() {
+        Task task = task(103);
+        TransactionSynchronizationManager.initSynchronization();
+        TaskChangeNotifier.record(task, BasicAction.UPDATED);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertFalse(TaskChangeNotifier.getPending().containsKey(103L));
+        assertNull(TransactionSynchronizationManager.getResource(TaskChangeNotifier.class));
+    }
+
+    @Test
+    void addedAndRemovedCancelTest() {
+        Task task = task(104);
+        TransactionSynchronizationManager.initSynchronization();
+        TaskChangeNotifier.record(task, BasicAction.ADDED);
+        TaskChangeNotifier.record(task, BasicAction.REMOVED);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertFalse(TaskChangeNotifier.getPending().containsKey(104L));
+    }
+
+    @Test
+    void recordCapturesValuesTest() {
+        Task task = task(106);
+        task.setSnapshot(TaskSnapshot.of(task));
+        task.setName("Committed");
+        TaskChangeNotifier.record(task, BasicAction.UPDATED);
+        task.setName("Changed later");
+
+        TaskState state = TaskChangeNotifier.getPending().get(106L).task();
+        assertEquals("Committed", state.fields().name());
+        assertEquals(3, state.createdBy());
+        assertEquals(task.getCreatedAt().getTime(), state.createdAt());
+    }
+
+}
@@ -51,6 +51,8 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import dev.vernite.vernite.common.profiling.QueryProfilerFilter;
+import dev.vernite.vernite.common.profiling.QueryProfilerTests;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.project.ProjectRepository;
 import dev.vernite.vernite.projectworkspace.ProjectWorkspace;
@@ -69,7 +71,8 @@ import dev.vernite.vernite.workspace.WorkspaceRepository;
 @SpringBootTest
 @AutoConfigureMockMvc
 @TestInstance(Lifecycle.PER_CLASS)
-@TestPropertySource({ "classpath:application.properties", "classpath:application-test.properties" })
+@TestPropertySource(locations = { "classpath:application.properties",
+        "classpath:application-test.properties" }, properties = "vernite.query-profiler.enabled=true")
 class TaskControllerTests {
     @Autowired
     private WebTestClient client;
@@ -178,6 +181,36 @@ class TaskControllerTests {
                 .expectBodyList(Task.class).hasSize(2);
     }
 
+    @Test
+    void getAllSuccessWithSubTasks() {
+        Task parent = taskRepository.save(new Task(1, "parent", "description", project.getStatuses().get(0), user,
+                Task.Type.TASK.ordinal(), "low"));
+        Task issue = new Task(2, "issue", "description", project.getStatuses().get(0), user,
+                Task.Type.ISSUE.ordinal(), "low");
+        issue.setParentTask(parent);
+        issue.setArchiveSprints(Set.of(closedSprint));
+        issue = taskRepository.save(issue);
+        Task subTask = new Task(3, "subtask", "description", project.getStatuses().get(0), user,
+                Task.Type.SUBTASK.ordinal(), "low");
+        subTask.setParentTask(issue);
+        taskRepository.save(subTask);
+
+        List<Task> result = client.get().uri("/project/{pId}/task", project.getId())
+                .cookie(AuthController.COOKIE_NAME, session.getSession()).exchange().expectStatus().isOk()
+                .expectHeader().value(QueryProfilerFilter.COUNT_HEADER, QueryProfilerTests.atMost(15))
+                .expectHeader().value(QueryProfilerFilter.REPEATS_HEADER, QueryProfilerTests.atMost(3))
+                .expectBodyList(Task.class).hasSize(2).returnResult().getResponseBody();
+        assertNotNull(result);
+        Task resultParent = result.get(1);
+        assertEquals(parent.getNumber(), resultParent.getNumber());
+        assertEquals(1, resultParent.getSubTasks().size());
+        Task resultIssue = resultParent.getSubTasks().get(0);
+        assertEquals(issue.getNumber(), resultIssue.getNumber());
+        assertEquals(1, resultIssue.getSubTasks().size());
+        assertEquals(subTask.getNumber(), resultIssue.getSubTasks().get(0).getNumber());
+        assertEquals(result.get(0).getNumber(), resultIssue.getNumber());
+    }
+
     @Test
     void getAllSuccessWithFilter() {
         // Prepare some tasks for next test
@@ -0,0 +1,69 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TaskSnapshotTests {
+
+    private static final TaskSnapshot BASE = new TaskSnapshot("Name", "Description", 3, 1, "low");
+
+    @Test
+    void deltaOnlyChangedFieldsTest() {
+        dev.vernite.protobuf.Task.Builder builder = dev.vernite.protobuf.Task.newBuilder();
+
+        assertTrue(BASE.delta(new TaskSnapshot("Name", "Description", 4, 1, "high"), builder));
+
+        dev.vernite.protobuf.Task delta = builder.build();
+        assertEquals(4, delta.getStatusId());
+        assertEquals("high", delta.getPriority());
+        assertEquals("", delta.getName());
+        assertEquals("", delta.getDescription());
+        assertEquals(0, delta.getType());
+    }
+
+    @Test
+    void deltaUnchangedTest() {
+        dev.vernite.protobuf.Task.Builder builder = dev.vernite.protobuf.Task.newBuilder();
+
+        assertTrue(BASE.delta(BASE, builder));
+        assertEquals(dev.vernite.protobuf.Task.getDefaultInstance(), builder.build());
+    }
+
+    @Test
+    void deltaDefaultValueTest() {
+        assertFalse(BASE.delta(new TaskSnapshot("Name", "", 3, 1, "low"), dev.vernite.protobuf.Task.newBuilder()));
+        assertFalse(BASE.delta(new TaskSnapshot("Name", "Description", 3, 0, "low"),
+                dev.vernite.protobuf.Task.newBuilder()));
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.user.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+
+import dev.vernite.vernite.user.User;
+import dev.vernite.vernite.user.UserRepository;
+import dev.vernite.vernite.user.UserSession;
+import dev.vernite.vernite.user.UserSessionRepository;
+
+@SpringBootTest
+@TestInstance(Lifecycle.PER_CLASS)
+@TestPropertySource({ "classpath:application.properties", "classpath:application-test.properties" })
+class SessionAccessBufferTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSessionRepository sessionRepository;
+
+    @Autowired
+    private SessionAccessBuffer buffer;
+
+    private UserSession session;
+
+    @BeforeAll
+    void init() {
+        User user = userRepository.findByUsername("Username");
+        if (user == null) {
+            user = userRepository.save(new User("Name", "Surname", "Username", "Email@test.pl", "1"));
+        }
+        session = new UserSession();
+        session.setIp("127.0.0.1");
+        session.setSession("session_token_access_tests");
+        session.setLastUsed(new Date(0));
+        session.setRemembered(true);
+        session.setUserAgent("userAgent");
+        session.setUser(user);
+        try {
+            session = sessionRepository.save(session);
+        } catch (DataIntegrityViolationException e) {
+            session = sessionRepository.findBySession("session_token_access_tests").orElseThrow();
+        }
+    }
+
+    @Test
+    void flushWritesLatestAccess() {
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        buffer.record(session.getId(), "10.0.0.1", now - 1000);
+        buffer.record(session.getId(), "10.0.0.2", now);
+        buffer.record(session.getId(), "10.0.0.3", now - 2000);
+        buffer.flush();
+
+        assertEquals(0, buffer.size());
+        UserSession stored = sessionRepository.findById(session.getId()).orElseThrow();
+        assertEquals("10.0.0.2", stored.getIp());
+        assertEquals(now, stored.getLastUsed().getTime());
+    }
+
+    @Test
+    void flushIgnoresDeletedSessions() {
+        buffer.record(Long.MAX_VALUE, "10.0.0.1", System.currentTimeMillis());
+        buffer.flush();
+
+        assertEquals(0, buffer.size());
+    }
+
+}
@@ -30,6 +30,7 @@ package dev.vernite.vernite.workspace;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Date;
 import java.util.List;
@@ -47,6 +48,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import dev.vernite.vernite.common.profiling.QueryProfilerFilter;
 import dev.vernite.vernite.project.Project;
 import dev.vernite.vernite.project.ProjectRepository;
 import dev.vernite.vernite.projectworkspace.ProjectWorkspace;
@@ -63,7 +65,8 @@ import dev.vernite.vernite.user.auth.AuthController;
 @SpringBootTest
 @AutoConfigureMockMvc
 @TestInstance(Lifecycle.PER_CLASS)
-@TestPropertySource({ "classpath:application.properties", "classpath:application-test.properties" })
+@TestPropertySource(locations = { "classpath:application.properties",
+        "classpath:application-test.properties" }, properties = "vernite.query-profiler.enabled=true")
 class WorkspaceControllerTests {
     @Autowired
     private WebTestClient client;
@@ -180,6 +183,28 @@ class WorkspaceControllerTests {
         workspaceEquals(workspace, result);
     }
 
+    private int queryCount(Workspace workspace) {
+        String count = client.get().uri("/workspace/{id}", workspace.getId().getId())
+                .cookie(AuthController.COOKIE_NAME, session.getSession()).exchange().expectStatus().isOk()
+                .expectBody().returnResult().getResponseHeaders().getFirst(QueryProfilerFilter.COUNT_HEADER);
+        assertNotNull(count);
+        return Integer.parseInt(count);
+    }
+
+    @Test
+    void getProjectsQueryCount(@Autowired ProjectRepository pRepo, @Autowired ProjectWorkspaceRepository pwRepo) {
+        Workspace small = workspaceRepository.save(new Workspace(1, "Small", user));
+        Workspace large = workspaceRepository.save(new Workspace(2, "Large", user));
+        for (int i = 0; i < 4; i++) {
+            Project project = pRepo.save(new Project("Project " + i, ""));
+            pwRepo.save(new ProjectWorkspace(project, i == 0 ? small : large, 1L));
+        }
+
+        int difference = queryCount(large) - queryCount(small);
+        // each project loads its statuses and GitHub integrations, but not its task counter
+        assertTrue(difference <= 2 * 2, "queries per workspace project: " + difference);
+    }
+
     @Test
     void getUnauthorized() {
         client.get().uri("/workspace/1").exchange().expectStatus().isUnauthorized();
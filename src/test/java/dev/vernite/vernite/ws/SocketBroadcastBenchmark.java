@@ -0,0 +1,119 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.ws;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.socket.WebSocketMessage;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+
+/**
+ * Measures cost of broadcasting one packet to many sessions. Run with
+ * {@code main} method; allocation per broadcast is reported by the GC profiler
+ * as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SocketBroadcastBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int sessions;
+
+    private List<SocketSession> recipients;
+
+    private Message message;
+
+    @Setup
+    public void setup() {
+        recipients = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            recipients.add(new SocketSession(new NoopWebSocketSession(), Runnable::run, Integer.MAX_VALUE,
+                    OverflowPolicy.DISCONNECT));
+        }
+        Struct.Builder builder = Struct.newBuilder();
+        builder.putFields("name", Value.newBuilder().setStringValue("Implement broadcast benchmark").build());
+        builder.putFields("description", Value.newBuilder().setStringValue("x".repeat(512)).build());
+        builder.putFields("statusId", Value.newBuilder().setNumberValue(12).build());
+        builder.putFields("deadline", Value.newBuilder().setNumberValue(System.currentTimeMillis()).build());
+        message = builder.build();
+    }
+
+    @Benchmark
+    public void encodePerSession() {
+        for (SocketSession s : recipients) {
+            s.send(message);
+        }
+    }
+
+    @Benchmark
+    public void encodeOnce() {
+        SocketHandler.bc(recipients, message);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SocketBroadcastBenchmark.class.getSimpleName())
+                .addProfiler("gc").build()).run();
+    }
+
+    private static class NoopWebSocketSession extends TestWebSocketSession {
+
+        NoopWebSocketSession() {
+            super(null);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            // drop message
+        }
+
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.ws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.Int64Value;
+
+import dev.vernite.vernite.common.profiling.QueryProfileReporter;
+import dev.vernite.vernite.projectworkspace.ProjectWorkspace;
+import dev.vernite.vernite.projectworkspace.ProjectWorkspaceKey;
+import dev.vernite.vernite.projectworkspace.ProjectWorkspaceRepository;
+import dev.vernite.vernite.user.User;
+
+class SocketHandlerTests {
+
+    private static SocketHandler handler;
+
+    @BeforeAll
+    static void init() {
+        ProjectWorkspaceRepository repository = (ProjectWorkspaceRepository) Proxy.newProxyInstance(
+                SocketHandlerTests.class.getClassLoader(), new Class<?>[] { ProjectWorkspaceRepository.class },
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findByWorkspaceUser")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    User user = (User) args[0];
+                    ProjectWorkspaceKey key = new ProjectWorkspaceKey();
+                    key.setProjectId(user.getId() * 1000);
+                    ProjectWorkspace pw = new ProjectWorkspace();
+                    pw.setId(key);
+                    return List.of(pw);
+                });
+        handler = new SocketHandler(repository, new PacketExecutor(Map.of(), Map.of()),
+                new QueryProfileReporter(false, 10), Runnable::run, 16, OverflowPolicy.DISCONNECT, 1000, 2);
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    @Test
+    void bcProjectOnlyMembersTest() throws Exception {
+        TestWebSocketSession member = new TestWebSocketSession(user(101));
+        TestWebSocketSession other = new TestWebSocketSession(user(102));
+        TestWebSocketSession anonymous = new TestWebSocketSession(null);
+        handler.afterConnectionEstablished(member);
+        handler.afterConnectionEstablished(other);
+        handler.afterConnectionEstablished(anonymous);
+
+        SocketHandler.bc(101000, Int64Value.of(1));
+
+        assertEquals(1, member.getMessages().size());
+        assertEquals(0, other.getMessages().size());
+        assertEquals(0, anonymous.getMessages().size());
+
+        handler.afterConnectionClosed(member, CloseStatus.NORMAL);
+        handler.afterConnectionClosed(other, CloseStatus.NORMAL);
+        handler.afterConnectionClosed(anonymous, CloseStatus.NORMAL);
+    }
+
+    @Test
+    void subscribeTest() throws Exception {
+        TestWebSocketSession session = new TestWebSocketSession(user(201));
+        handler.afterConnectionEstablished(session);
+
+        SocketHandler.bc(202, Int64Value.of(1));
+        assertEquals(0, session.getMessages().size());
+
+        SocketHandler.subscribe(201, 202);
+        SocketHandler.bc(202, Int64Value.of(1));
+        assertEquals(1, session.getMessages().size());
+
+        SocketHandler.unsubscribe(201, 202);
+        SocketHandler.bc(202, Int64Value.of(1));
+        assertEquals(1, session.getMessages().size());
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+    }
+
+    @Test
+    void closedSessionUnsubscribedTest() throws Exception {
+        TestWebSocketSession session = new TestWebSocketSession(user(301));
+        handler.afterConnectionEstablished(session);
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        SocketHandler.bc(301000, Int64Value.of(1));
+        SocketHandler.subscribe(301, 301000);
+        SocketHandler.bc(301000, Int64Value.of(1));
+
+        assertEquals(0, session.getMessages().size());
+    }
+
+    @Test
+    void keepAliveIgnoresOutboundPacketsTest() throws Exception {
+        SocketHandler keepAlive = new SocketHandler(null, null, null, Runnable::run, 16,
+                OverflowPolicy.DISCONNECT, 1, 2);
+        TestWebSocketSession session = new TestWebSocketSession(user(401));
+        SocketSession s = new SocketSession(session, Runnable::run, 16, OverflowPolicy.DISCONNECT);
+
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(2);
+            s.send(Int64Value.of(i));
+            keepAlive.keepAlive(s);
+        }
+
+        assertFalse(session.isOpen());
+    }
+
+    @Test
+    void keepAliveReceivedPacketsTest() throws Exception {
+        SocketHandler keepAlive = new SocketHandler(null, null, null, Runnable::run, 16,
+                OverflowPolicy.DISCONNECT, 1, 2);
+        TestWebSocketSession session = new TestWebSocketSession(user(402));
+        SocketSession s = new SocketSession(session, Runnable::run, 16, OverflowPolicy.DISCONNECT);
+
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(2);
+            keepAlive.keepAlive(s);
+            s.received();
+        }
+
+        assertTrue(session.isOpen());
+        assertEquals(0, s.getMissedPongs());
+    }
+
+    @Test
+    void packetNameTest() {
+        PacketExecutor executor = new PacketExecutor(Map.of("google.protobuf.Int64Value", (session, packet) -> {
+        }), Map.of("google.protobuf.Int64Value", Int64Value.class));
+
+        assertEquals("google.protobuf.Int64Value", executor.getPacketName(Any.pack(Int64Value.of(1))));
+        assertEquals("UNKNOWN", executor.getPacketName(Any.newBuilder().setTypeUrl("x/random-" + 1).build()));
+        assertEquals("UNKNOWN", executor.getPacketName(Any.newBuilder().setTypeUrl("no-slash").build()));
+    }
+
+}
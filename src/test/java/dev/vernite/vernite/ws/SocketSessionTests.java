@@ -0,0 +1,188 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.ws;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+
+import com.google.protobuf.Int64Value;
+
+class SocketSessionTests {
+
+    private Queue<Runnable> tasks;
+
+    private TestWebSocketSession webSocketSession;
+
+    @BeforeEach
+    void init() {
+        tasks = new ArrayDeque<>();
+        webSocketSession = new TestWebSocketSession(null);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    private byte[] payload(int i) {
+        return new byte[] { (byte) i };
+    }
+
+    private byte[] sent(int index) {
+        ByteBuffer buffer = ((BinaryMessage) webSocketSession.getMessages().get(index)).getPayload();
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+
+    @Test
+    void sendIsAsynchronousTest() {
+        SocketSession session = new SocketSession(webSocketSession, tasks::add, 4, OverflowPolicy.DISCONNECT);
+        session.send(payload(1), null);
+        session.send(payload(2), null);
+
+        assertEquals(0, webSocketSession.getMessages().size());
+        assertEquals(2, session.getQueueDepth());
+        assertEquals(1, tasks.size());
+
+        runTasks();
+
+        assertEquals(2, webSocketSession.getMessages().size());
+        assertArrayEquals(payload(1), sent(0));
+        assertArrayEquals(payload(2), sent(1));
+        assertEquals(0, session.getQueueDepth());
+    }
+
+    @Test
+    void dropOldestTest() {
+        SocketSession session = new SocketSession(webSocketSession, tasks::add, 2, OverflowPolicy.DROP_OLDEST);
+        session.send(payload(1), null);
+        session.send(payload(2), null);
+        session.send(payload(3), null);
+        runTasks();
+
+        assertEquals(2, webSocketSession.getMessages().size());
+        assertArrayEquals(payload(2), sent(0));
+        assertArrayEquals(payload(3), sent(1));
+        assertTrue(webSocketSession.isOpen());
+    }
+
+    @Test
+    void coalesceTest() {
+        SocketSession session = new SocketSession(webSocketSession, tasks::add, 2, OverflowPolicy.COALESCE);
+        session.send(payload(1), "Task#1");
+        session.send(payload(2), null);
+        session.send(payload(3), "Task#1");
+        runTasks();
+
+        assertEquals(2, webSocketSession.getMessages().size());
+        assertArrayEquals(payload(2), sent(0));
+        assertArrayEquals(payload(3), sent(1));
+        assertTrue(webSocketSession.isOpen());
+
+        session.send(payload(4), null);
+        session.send(payload(5), null);
+        session.send(payload(6), "Task#2");
+        runTasks();
+
+        assertEquals(2, webSocketSession.getMessages().size());
+        assertFalse(webSocketSession.isOpen());
+    }
+
+    @Test
+    void disconnectTest() {
+        SocketSession session = new SocketSession(webSocketSession, tasks::add, 1, OverflowPolicy.DISCONNECT);
+        session.send(payload(1), "Task#1");
+        session.send(payload(2), "Task#1");
+        runTasks();
+
+        assertEquals(0, webSocketSession.getMessages().size());
+        assertFalse(webSocketSession.isOpen());
+
+        session.send(payload(3), null);
+        runTasks();
+
+        assertEquals(0, webSocketSession.getMessages().size());
+    }
+
+    @Test
+    void queuedPacketsTest() {
+        long before = SocketSession.getQueuedPackets();
+        SocketSession drained = new SocketSession(webSocketSession, tasks::add, 2, OverflowPolicy.DROP_OLDEST);
+        SocketSession closed = new SocketSession(new TestWebSocketSession(null), tasks::add, 2,
+                OverflowPolicy.DROP_OLDEST);
+        drained.send(payload(1), null);
+        drained.send(payload(2), null);
+        drained.send(payload(3), null);
+        closed.send(payload(4), null);
+
+        assertEquals(before + 3, SocketSession.getQueuedPackets());
+
+        closed.close();
+        assertEquals(before + 2, SocketSession.getQueuedPackets());
+
+        runTasks();
+        assertEquals(before, SocketSession.getQueuedPackets());
+    }
+
+    @Test
+    void snapshotLargerThanQueueTest() {
+        SocketSession session = new SocketSession(webSocketSession, tasks::add, 4, OverflowPolicy.COALESCE);
+        List<Int64Value> snapshot = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            snapshot.add(Int64Value.of(i));
+        }
+        session.send(payload(1), "Task#1");
+        session.sendSnapshot(snapshot);
+        session.send(payload(2), null);
+        runTasks();
+
+        assertTrue(webSocketSession.isOpen());
+        assertEquals(22, webSocketSession.getMessages().size());
+        assertArrayEquals(payload(1), sent(0));
+        for (int i = 0; i < 20; i++) {
+            assertArrayEquals(SocketSession.encode(snapshot.get(i)), sent(i + 1));
+        }
+        assertArrayEquals(payload(2), sent(21));
+        assertEquals(0, session.getQueueDepth());
+    }
+
+}
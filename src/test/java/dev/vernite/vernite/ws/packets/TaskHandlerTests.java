@@ -0,0 +1,98 @@
+/*
+ * BSD 2-Clause License
+ * 
+ * Copyright (c) 2022, [Aleksandra Serba, Marcin Czerniak, Bartosz Wawrzyniak, Adrian Antkowiak]
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package dev.vernite.vernite.ws.packets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+
+import com.google.protobuf.Any;
+
+import dev.vernite.protobuf.BasicAction;
+import dev.vernite.vernite.project.Project;
+import dev.vernite.vernite.status.Status;
+import dev.vernite.vernite.task.Task;
+import dev.vernite.vernite.task.TaskRepository;
+import dev.vernite.vernite.user.User;
+import dev.vernite.vernite.ws.OverflowPolicy;
+import dev.vernite.vernite.ws.SocketSession;
+import dev.vernite.vernite.ws.TestWebSocketSession;
+
+class TaskHandlerTests {
+
+    private static final int QUEUE_SIZE = 16;
+
+    private static TaskRepository repository(List<Task> tasks) {
+        return (TaskRepository) Proxy.newProxyInstance(TaskHandlerTests.class.getClassLoader(),
+                new Class<?>[] { TaskRepository.class }, (proxy, method, args) -> {
+                    if (!method.getName().equals("findByProjectId")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return tasks;
+                });
+    }
+
+    @Test
+    void resyncProjectLargerThanQueueTest() throws Exception {
+        User user = new User();
+        user.setId(1);
+        Project project = new Project("Test");
+        project.setId(7);
+        Status status = new Status("To do", 0, 0, false, true, project);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= QUEUE_SIZE * 20; i++) {
+            Task task = new Task(i, "Task " + i, "Description", status, user, 0);
+            task.setId(i);
+            tasks.add(task);
+        }
+        TestWebSocketSession webSocketSession = new TestWebSocketSession(user);
+        SocketSession session = new SocketSession(webSocketSession, Runnable::run, QUEUE_SIZE,
+                OverflowPolicy.COALESCE);
+        session.getProjects().add(7L);
+
+        new TaskHandler(repository(tasks)).handle(session,
+                dev.vernite.protobuf.Task.newBuilder().setProjectId(7).build());
+
+        assertTrue(webSocketSession.isOpen());
+        assertEquals(tasks.size(), webSocketSession.getMessages().size());
+        for (int i = 0; i < tasks.size(); i++) {
+            dev.vernite.protobuf.Task packet = Any
+                    .parseFrom(((BinaryMessage) webSocketSession.getMessages().get(i)).getPayload())
+                    .unpack(dev.vernite.protobuf.Task.class);
+            assertEquals(i + 1, packet.getId());
+            assertEquals(BasicAction.UPDATED, packet.getAction());
+        }
+    }
+
+}